@@ -0,0 +1,74 @@
+package team.zhh.de.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列缓冲区的类型转换开销，结果按行计
+ * setText: 文本按列类型解析（AI 引擎入库路径）；appendText: 渲染为文本（COPY / LOAD DATA 写入路径）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ColumnVectorBenchmark.ROWS)
+public class ColumnVectorBenchmark {
+    static final int ROWS = 1000;
+
+    @Param({"narrow", "wide", "numeric"})
+    public String shape;
+
+    private String[][] rows;
+    private RowBatch parsed;
+    private RowBatch generated;
+    private final StringBuilder out = new StringBuilder(1 << 20);
+
+    @Setup
+    public void setup() throws Exception {
+        List<ColumnMetadata> columns = TableShapes.columns(shape);
+        String[] lines = TableShapes.csv(columns, ROWS, 42L).split("\n");
+        rows = new String[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            rows[i] = lines[i].split(",", -1);
+        }
+        parsed = new RowBatch(columns, ROWS);
+        generated = TableShapes.sample(columns, ROWS, 42L);
+    }
+
+    @Benchmark
+    public RowBatch setText() {
+        parsed.reset();
+        for (String[] row : rows) {
+            parsed.setText(parsed.nextRow(), row);
+        }
+        return parsed;
+    }
+
+    @Benchmark
+    public int appendText() {
+        out.setLength(0);
+        for (int row = 0; row < generated.size(); row++) {
+            for (int j = 0; j < generated.columnCount(); j++) {
+                ColumnVector vector = generated.vector(j);
+                if (!vector.isNull(row)) {
+                    vector.appendText(out, row);
+                }
+                out.append('\t');
+            }
+            out.append('\n');
+        }
+        return out.length();
+    }
+}
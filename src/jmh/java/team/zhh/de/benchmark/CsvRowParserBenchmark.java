@@ -0,0 +1,74 @@
+package team.zhh.de.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.CsvRowParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 引擎返回文本的解析开销，结果按行计
+ * chunkChars 模拟流式响应每次送入的字符数；parseAndConvert 额外包含按列类型解析文本写入批次
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CsvRowParserBenchmark.ROWS)
+public class CsvRowParserBenchmark {
+    static final int ROWS = 1000;
+
+    @Param({"narrow", "wide", "numeric"})
+    public String shape;
+
+    @Param({"16", "65536"})
+    public int chunkChars;
+
+    private List<ColumnMetadata> columns;
+    private String[] chunks;
+    private RecyclingSink sink;
+
+    @Setup
+    public void setup() throws Exception {
+        columns = TableShapes.columns(shape);
+        String text = TableShapes.csv(columns, ROWS, 42L);
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += chunkChars) {
+            parts.add(text.substring(i, Math.min(text.length(), i + chunkChars)));
+        }
+        chunks = parts.toArray(new String[0]);
+        sink = new RecyclingSink(columns, 1000);
+    }
+
+    @Benchmark
+    public int parse(Blackhole blackhole) {
+        CsvRowParser parser = new CsvRowParser(columns.size(), blackhole::consume);
+        return feed(parser);
+    }
+
+    @Benchmark
+    public int parseAndConvert(Blackhole blackhole) {
+        sink.blackhole = blackhole;
+        sink.newBatch();
+        CsvRowParser parser = new CsvRowParser(columns.size(), sink::accept);
+        return feed(parser);
+    }
+
+    private int feed(CsvRowParser parser) {
+        for (String chunk : chunks) {
+            parser.feed(chunk);
+        }
+        parser.finish();
+        return parser.getRowCount();
+    }
+}
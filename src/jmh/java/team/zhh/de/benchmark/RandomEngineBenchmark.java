@@ -0,0 +1,50 @@
+package team.zhh.de.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.GenerationContext;
+import team.zhh.de.core.RandomDataEngine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 随机引擎逐行生成的开销（含数值精度处理与随机字符串），结果按行计
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(RandomEngineBenchmark.ROWS)
+public class RandomEngineBenchmark {
+    static final int ROWS = 10_000;
+
+    @Param({"narrow", "wide", "numeric"})
+    public String shape;
+
+    private RandomDataEngine engine;
+    private RecyclingSink sink;
+    private GenerationContext context;
+
+    @Setup
+    public void setup() {
+        List<ColumnMetadata> columns = TableShapes.columns(shape);
+        engine = new RandomDataEngine();
+        sink = new RecyclingSink(columns, 1000);
+        context = TableShapes.context(columns, ROWS, 42L);
+    }
+
+    @Benchmark
+    public int generate(Blackhole blackhole) throws Exception {
+        sink.blackhole = blackhole;
+        return engine.generateAndInsertData(context, sink);
+    }
+}
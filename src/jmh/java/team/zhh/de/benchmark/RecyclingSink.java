@@ -0,0 +1,42 @@
+package team.zhh.de.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.RowSink;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.util.List;
+
+/**
+ * 只复用一个批次、不做写入的接收端，测得的只有生成和类型转换本身的开销
+ */
+class RecyclingSink implements RowSink {
+    private final RowBatch batch;
+    Blackhole blackhole;
+
+    RecyclingSink(List<ColumnMetadata> columns, int batchSize) {
+        this.batch = new RowBatch(columns, batchSize);
+    }
+
+    @Override
+    public void accept(String[] row) {
+        batch.setText(batch.nextRow(), row);
+        if (batch.isFull()) {
+            accept(batch);
+        }
+    }
+
+    @Override
+    public RowBatch newBatch() {
+        batch.reset();
+        return batch;
+    }
+
+    @Override
+    public void accept(RowBatch filled) {
+        if (blackhole != null) {
+            blackhole.consume(filled);
+        }
+        filled.reset();
+    }
+}
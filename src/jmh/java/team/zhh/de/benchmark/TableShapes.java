@@ -0,0 +1,99 @@
+package team.zhh.de.benchmark;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.GenerationContext;
+import team.zhh.de.core.RandomDataEngine;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的典型表结构
+ * narrow: 窄数值表；wide: 宽 VARCHAR 表；numeric: NUMERIC(p,s) 为主的表
+ */
+final class TableShapes {
+
+    private TableShapes() {
+    }
+
+    static List<ColumnMetadata> columns(String shape) {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        switch (shape) {
+            case "narrow":
+                columns.add(column("id", "BIGINT", 19, 0));
+                columns.add(column("user_id", "INT", 10, 0));
+                columns.add(column("status", "SMALLINT", 5, 0));
+                columns.add(column("score", "DOUBLE", 22, 0));
+                columns.add(column("created_at", "DATE", 10, 0));
+                columns.add(column("enabled", "BOOLEAN", 1, 0));
+                break;
+            case "wide":
+                int[] sizes = {16, 32, 64, 128, 255};
+                for (int i = 0; i < 20; i++) {
+                    columns.add(column("text_" + i, "VARCHAR", sizes[i % sizes.length], 0));
+                }
+                columns.add(column("id", "BIGINT", 19, 0));
+                break;
+            case "numeric":
+                int[][] precisions = {{10, 2}, {18, 4}, {12, 0}, {38, 10}, {6, 3}};
+                for (int i = 0; i < 10; i++) {
+                    int[] p = precisions[i % precisions.length];
+                    columns.add(column("amount_" + i, "NUMERIC", p[0], p[1]));
+                }
+                columns.add(column("id", "BIGINT", 19, 0));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown table shape: " + shape);
+        }
+        return columns;
+    }
+
+    /**
+     * 用随机引擎生成一个装满样本的批次
+     */
+    static RowBatch sample(List<ColumnMetadata> columns, int rows, long seed) throws Exception {
+        RowBatch[] filled = new RowBatch[1];
+        RecyclingSink sink = new RecyclingSink(columns, rows) {
+            @Override
+            public void accept(RowBatch batch) {
+                filled[0] = batch;
+            }
+        };
+        new RandomDataEngine().generateAndInsertData(context(columns, rows, seed), sink);
+        return filled[0];
+    }
+
+    /**
+     * 样本渲染成 AI 引擎返回的 CSV 文本格式
+     */
+    static String csv(List<ColumnMetadata> columns, int rows, long seed) throws Exception {
+        RowBatch batch = sample(columns, rows, seed);
+        StringBuilder out = new StringBuilder();
+        for (int row = 0; row < batch.size(); row++) {
+            for (int j = 0; j < batch.columnCount(); j++) {
+                if (j > 0) out.append(',');
+                ColumnVector vector = batch.vector(j);
+                if (!vector.isNull(row)) {
+                    vector.appendText(out, row);
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    static GenerationContext context(List<ColumnMetadata> columns, int rows, long seed) {
+        return GenerationContext.builder()
+            .tableName("bench")
+            .columns(columns)
+            .rowCount(rows)
+            .seed(seed)
+            .build();
+    }
+
+    private static ColumnMetadata column(String name, String type, int size, int scale) {
+        return new ColumnMetadata(name, type, size, scale, false, false, true, null);
+    }
+}
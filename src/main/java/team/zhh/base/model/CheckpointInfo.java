@@ -0,0 +1,17 @@
+package team.zhh.base.model;
+
+/**
+ * 可恢复的任务检查点
+ */
+public record CheckpointInfo(
+    String jobId,               // 任务id，恢复后沿用
+    String tableName,           // 表名，多表任务为逗号分隔
+    String engineType,          // 引擎
+    String submitter,           // 提交人
+    long totalRows,             // 请求行数
+    long committedRows,         // 已提交的行数
+    long createdAt,             // 任务第一次开始的时间
+    long updatedAt,             // 最近一次记录的时间
+    boolean running             // 是否正在执行
+) {
+}
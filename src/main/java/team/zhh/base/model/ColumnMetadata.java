@@ -18,12 +18,13 @@ public record ColumnMetadata(
     boolean autoIncrement,      // 是否自增列
     boolean primaryKey,         // 是否主键
     boolean foreignKey,         // 是否外键
+    boolean unique,             // 是否有单列唯一约束（不含主键）
     DataTypeCategory dataTypeCategory // 数据类型分类
 ) {
 
 
     public ColumnMetadata(String colName, String typeName, int size, int digit, boolean isPrimaryKey, boolean isAutoIncrement, boolean isNullable,String remarks) {
-        this(colName, typeName, size, digit, isNullable, remarks, null, isAutoIncrement, isPrimaryKey, false, determineDataTypeCategory(typeName));
+        this(colName, typeName, size, digit, isNullable, remarks, null, isAutoIncrement, isPrimaryKey, false, false, determineDataTypeCategory(typeName));
     }
 
     // 数据类型分类枚举
@@ -48,6 +49,7 @@ public record ColumnMetadata(
                 isAutoIncrement(rs.getString("IS_AUTOINCREMENT")),
                 false, // 需通过额外查询设置
                 false, // 需通过额外查询设置
+                false, // 需通过额外查询设置
                 determineDataTypeCategory(rs.getString("TYPE_NAME"))
             );
         }
@@ -94,9 +96,32 @@ public record ColumnMetadata(
     }
 
     /**
-     * 是否需要生成数据（非自增列且非主键）
+     * 是否需要生成数据（非自增列；非自增的主键由键生成器赋值）
      */
     public boolean requiresGeneration() {
-        return !autoIncrement && !primaryKey;
+        return !autoIncrement;
+    }
+
+    /**
+     * 取值必须各不相同且需要由键生成器赋值的列（主键或唯一列，外键列的值取自父表）
+     */
+    public boolean requiresUniqueKey() {
+        return requiresGeneration() && !foreignKey && (primaryKey || unique);
+    }
+
+    /**
+     * 标记为外键列
+     */
+    public ColumnMetadata asForeignKey() {
+        return new ColumnMetadata(name, typeName, size, decimalDigits, nullable, remarks, defaultValue,
+            autoIncrement, primaryKey, true, unique, dataTypeCategory);
+    }
+
+    /**
+     * 标记为唯一列
+     */
+    public ColumnMetadata asUnique() {
+        return new ColumnMetadata(name, typeName, size, decimalDigits, nullable, remarks, defaultValue,
+            autoIncrement, primaryKey, foreignKey, true, dataTypeCategory);
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package team.zhh.base.model;
+
+/**
+ * 外键中的一列（复合外键按 keySeq 拆成多条）
+ */
+public record ForeignKey(
+    String name,                // 外键约束名
+    String column,              // 本表列名
+    String referencedTable,     // 被引用表
+    String referencedColumn,    // 被引用列
+    int keySeq                  // 在复合外键中的序号，从1开始
+) {
+}
@@ -0,0 +1,44 @@
+package team.zhh.base.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+/**
+ * 数据生成请求参数
+ */
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class GenerationRequest {
+    private final String url;            // 数据库连接url
+    private final String username;       // 用户名
+    private final String password;       // 密码
+    private final String tableName;      // 表名
+    private final int rows;              // 行数
+    private final String engineType;     // 引擎bean名称
+    private final int parallelism;       // 并行度，小于等于0时使用默认值
+    private final Boolean bulkLoad;      // 是否使用原生批量导入，null 时使用默认配置
+    private final Boolean deferIndexes;  // 加载期间删除二级索引、关闭外键检查与触发器，加载后重建，null 时使用默认配置
+    private final String profile;        // 数据画像名（逗号分隔，多表任务按采样表名匹配），随机引擎按画像的取值分布生成
+    private final Map<String, Integer> tables; // 多表任务：表名 -> 行数，按外键依赖顺序生成
+    private final String exportFormat;   // 导出文件格式 csv/tsv/sql/parquet，为空时直接写入数据库
+    private final String exportPath;     // 导出目录（导出根目录下的相对路径）
+    private final String exportCompression; // 导出文件压缩方式 none/gzip/zstd，为空时使用默认配置
+    private final String submitter;      // 提交人，排队时同优先级的任务按提交人轮转，为空时使用数据库用户名
+    private final int priority;          // 优先级，越大越先执行，默认0
+    private final boolean fresh;         // AI 引擎不使用缓存的生成结果，重新调用模型
+
+    @JsonIgnore
+    public boolean isMultiTable() {
+        return tables != null && !tables.isEmpty();
+    }
+
+    @JsonIgnore
+    public boolean isFileExport() {
+        return exportFormat != null && !exportFormat.isBlank();
+    }
+}
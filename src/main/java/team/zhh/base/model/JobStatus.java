@@ -0,0 +1,24 @@
+package team.zhh.base.model;
+
+/**
+ * 生成任务状态快照
+ */
+public record JobStatus(
+    String id,                  // 任务id
+    String tableName,           // 表名
+    String engineType,          // 引擎
+    String state,               // QUEUED / RUNNING / SUCCEEDED / FAILED / CANCELLED
+    long totalRows,             // 请求行数
+    long generatedRows,         // 已生成行数
+    long insertedRows,          // 已写入行数
+    double rowsPerSecond,       // 当前写入速度
+    long etaSeconds,            // 预计剩余秒数，未知为 -1
+    long createdAt,             // 提交时间
+    long startedAt,             // 开始时间，未开始为 0
+    long finishedAt,            // 结束时间，未结束为 0
+    String message,             // 失败原因等
+    String submitter,           // 提交人
+    int priority,               // 优先级
+    int workers                 // 当前占用的工作线程数
+) {
+}
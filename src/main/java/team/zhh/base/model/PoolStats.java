@@ -0,0 +1,16 @@
+package team.zhh.base.model;
+
+/**
+ * 目标库连接池状态
+ */
+public record PoolStats(
+    String url,                 // 数据库连接url
+    String username,            // 用户名
+    int activeConnections,      // 使用中的连接数
+    int idleConnections,        // 空闲连接数
+    int totalConnections,       // 总连接数
+    int pendingThreads,         // 等待获取连接的线程数
+    int maxPoolSize,            // 最大连接数
+    long idleMillis             // 距上次使用的毫秒数
+) {
+}
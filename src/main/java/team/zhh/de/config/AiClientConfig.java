@@ -0,0 +1,96 @@
+package team.zhh.de.config;
+
+import com.volcengine.ark.runtime.service.ArkService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 引擎共用的长连接客户端，整个应用生命周期内复用连接，退出时由 AiClientShutdownHook 关闭
+ */
+@Configuration
+public class AiClientConfig {
+
+    @Value("${aiengine.api_url}")
+    private String apiUrl;
+    @Value("${aiengine.mykey}")
+    private String apiKey;
+
+    // 连接池大小，需不小于 aiengine.concurrency × 同时执行的任务数
+    @Value("${aiengine.http.max-connections:16}")
+    private int maxConnections;
+    // 建立连接、等待响应、空闲连接保活时间（毫秒）
+    @Value("${aiengine.http.connect-timeout:10000}")
+    private int connectTimeout;
+    @Value("${aiengine.http.read-timeout:300000}")
+    private int readTimeout;
+    @Value("${aiengine.http.keep-alive:300000}")
+    private long keepAlive;
+
+    /**
+     * 通用AI引擎使用的 HTTP 客户端（HTTP/1.1 长连接池）
+     */
+    @Bean(destroyMethod = "")
+    public CloseableHttpClient aiHttpClient(ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(keepAlive, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        // 所有请求都发往同一个接口地址
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        // 连接池饱和情况：使用中、空闲、等待连接的请求数
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("dataeden.ai.http.connections", connectionManager, m -> m.getTotalStats().getLeased())
+                .tag("client", "http").tag("state", "leased").register(registry);
+            Gauge.builder("dataeden.ai.http.connections", connectionManager, m -> m.getTotalStats().getAvailable())
+                .tag("client", "http").tag("state", "available").register(registry);
+            Gauge.builder("dataeden.ai.http.connections", connectionManager, m -> m.getTotalStats().getPending())
+                .tag("client", "http").tag("state", "pending").register(registry);
+        });
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeout)
+            .setConnectionRequestTimeout(connectTimeout)
+            .setSocketTimeout(readTimeout)
+            .build();
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * 火山引擎使用的 ArkService，底层 OkHttp 在 TLS 握手时协商 HTTP/2，多个请求复用同一连接
+     */
+    @Bean(destroyMethod = "")
+    public ArkService arkService(ObjectProvider<MeterRegistry> meterRegistry) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConnections);
+        dispatcher.setMaxRequestsPerHost(maxConnections);
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("dataeden.ai.http.connections", dispatcher, Dispatcher::runningCallsCount)
+                .tag("client", "ark").tag("state", "leased").register(registry);
+            Gauge.builder("dataeden.ai.http.connections", dispatcher, Dispatcher::queuedCallsCount)
+                .tag("client", "ark").tag("state", "pending").register(registry);
+        });
+        return ArkService.builder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(maxConnections, keepAlive, TimeUnit.MILLISECONDS))
+            .connectTimeout(Duration.ofMillis(connectTimeout))
+            .timeout(Duration.ofMillis(readTimeout))
+            .baseUrl(apiUrl)
+            .apiKey(apiKey)
+            .build();
+    }
+}
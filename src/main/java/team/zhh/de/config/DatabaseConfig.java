@@ -1,48 +1,65 @@
 package team.zhh.de.config;
 
-import org.springframework.context.annotation.Bean;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import team.zhh.de.dialect.SqlDialect;
 
-import javax.sql.DataSource;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class DatabaseConfig {
-    private static final Map<String, String> DRIVER_MAP = new HashMap<>();
-    
-    static {
-        DRIVER_MAP.put("mysql", "com.mysql.cj.jdbc.Driver");
-        DRIVER_MAP.put("postgresql", "org.postgresql.Driver");
-        DRIVER_MAP.put("oracle", "oracle.jdbc.OracleDriver");
-        DRIVER_MAP.put("sqlserver", "com.microsoft.sqlserver.jdbc.SQLServerDriver");
-    }
+    private final AtomicInteger poolCounter = new AtomicInteger();
 
-    
-    public DataSource createDataSource(String url, String username, String password) {
-        String dbType = detectDbType(url);
-        String driver = DRIVER_MAP.get(dbType);
-        
-        if (driver == null) {
-            throw new IllegalArgumentException("Unsupported database type: " + dbType);
+    // 目标库连接池的活动/等待连接数等指标（hikaricp.connections.*）
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // 连接池配置
+    @Value("${datasource.pool.min-idle:1}")
+    private int minIdle;
+    @Value("${datasource.pool.max-size:20}")
+    private int maxSize;
+    @Value("${datasource.pool.idle-timeout:600000}")
+    private long idleTimeout;
+    @Value("${datasource.pool.connection-timeout:30000}")
+    private long connectionTimeout;
+    @Value("${datasource.pool.max-lifetime:1800000}")
+    private long maxLifetime;
+    @Value("${generation.bulk-load:true}")
+    private boolean bulkLoad;
+
+    /**
+     * 为目标库创建连接池，创建时即建立最小空闲连接，连接信息错误会直接抛出异常
+     */
+    public HikariDataSource createDataSource(String url, String username, String password) {
+        SqlDialect dialect = SqlDialect.forUrl(url);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("dataeden-" + dialect.name() + "-" + poolCounter.incrementAndGet());
+        config.setDriverClassName(dialect.driverClassName());
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMinimumIdle(Math.min(minIdle, maxSize));
+        config.setMaximumPoolSize(maxSize);
+        config.setIdleTimeout(idleTimeout);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setMaxLifetime(maxLifetime);
+        // 驱动的批量改写等属性，开启批量导入时MySQL连接还需要允许 LOAD DATA LOCAL INFILE
+        dialect.configure(config, bulkLoad);
+        if (meterRegistry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
         }
         
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driver);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        
-        return dataSource;
+        return new HikariDataSource(config);
     }
-    
-    private String detectDbType(String url) {
-        if (url.contains("mysql")) return "mysql";
-        if (url.contains("postgresql")) return "postgresql";
-        if (url.contains("oracle")) return "oracle";
-        if (url.contains("sqlserver")) return "sqlserver";
-        throw new IllegalArgumentException("Could not detect database type from URL");
+
+    public int getMaxPoolSize() {
+        return maxSize;
     }
 }
\ No newline at end of file
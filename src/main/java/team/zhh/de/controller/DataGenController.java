@@ -2,12 +2,16 @@ package team.zhh.de.controller;
 
 import team.zhh.base.model.ApiResponse;
 import team.zhh.de.service.DatabaseService;
-import team.zhh.de.service.DataGenerationService;
 import team.zhh.base.model.ColumnMetadata;
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.base.model.PoolStats;
+import team.zhh.de.core.TempDatasourcePool;
+import team.zhh.de.service.JobService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,7 +23,10 @@ public class DataGenController {
     private DatabaseService databaseService;
     
     @Autowired
-    private DataGenerationService dataGenerationService;
+    private JobService jobService;
+
+    @Autowired
+    private TempDatasourcePool tempDatasourcePool;
 
     @PostMapping("/connect")
     public ApiResponse<Boolean> connect(@RequestBody Map<String, String> credentials) {
@@ -52,6 +59,18 @@ public class DataGenController {
         return ApiResponse.success(databaseService.getTableColumns(url, username, password, tableName));
     }
 
+    /**
+     * 表结构变更后清除元数据缓存，不传 tableName 时清除该库的全部缓存，不传 url 时清除全部
+     */
+    @PostMapping("/metadata/invalidate")
+    public ApiResponse<Integer> invalidateMetadata(@RequestBody Map<String, String> target) {
+        return ApiResponse.success(databaseService.invalidateMetadata(target.get("url"), target.get("tableName")));
+    }
+
+    /**
+     * 提交生成任务，返回任务id，进度通过 /api/jobs/{jobId} 或 /api/jobs/{jobId}/events 获取
+     * 指定 exportFormat 时导出为文件而不写入目标表，连接信息仍用于读取表结构
+     */
     @PostMapping("/generateData")
     public ApiResponse<String> generateData(
             @RequestBody Map<String, String> tableInfos
@@ -62,9 +81,79 @@ public class DataGenController {
         String tableName = tableInfos.get("tableName");
         int rows = Integer.parseInt(tableInfos.get("rows"));
         String engineType = tableInfos.get("engineType");
+        String parallelismParam = tableInfos.get("parallelism");
+        int parallelism = parallelismParam == null || parallelismParam.isBlank() ? 0 : Integer.parseInt(parallelismParam);
+        String bulkLoadParam = tableInfos.get("bulkLoad");
+        Boolean bulkLoad = bulkLoadParam == null || bulkLoadParam.isBlank() ? null : Boolean.valueOf(bulkLoadParam);
+        String deferIndexesParam = tableInfos.get("deferIndexes");
+        Boolean deferIndexes = deferIndexesParam == null || deferIndexesParam.isBlank() ? null : Boolean.valueOf(deferIndexesParam);
+        String priorityParam = tableInfos.get("priority");
+        int priority = priorityParam == null || priorityParam.isBlank() ? 0 : Integer.parseInt(priorityParam);
+
 
+        GenerationRequest request = GenerationRequest.builder()
+            .url(url)
+            .username(username)
+            .password(password)
+            .tableName(tableName)
+            .rows(rows)
+            .engineType(engineType)
+            .parallelism(parallelism)
+            .bulkLoad(bulkLoad)
+            .deferIndexes(deferIndexes)
+            .profile(tableInfos.get("profile"))
+            .exportFormat(tableInfos.get("exportFormat"))
+            .exportPath(tableInfos.get("exportPath"))
+            .exportCompression(tableInfos.get("exportCompression"))
+            .submitter(tableInfos.get("submitter"))
+            .priority(priority)
+            .fresh(Boolean.parseBoolean(tableInfos.get("fresh")))
+            .build();
+        return ApiResponse.success(jobService.submit(request));
+    }
+
+    /**
+     * 提交多表生成任务，按外键依赖顺序生成，子表外键取自父表已有的键
+     * 请求体中 tables 为 表名 -> 行数
+     */
+    @PostMapping("/generateSchema")
+    public ApiResponse<String> generateSchema(@RequestBody Map<String, Object> schemaInfos) {
+        Object tablesParam = schemaInfos.get("tables");
+        if (!(tablesParam instanceof Map<?, ?> tableRows) || tableRows.isEmpty()) {
+            throw new IllegalArgumentException("tables 不能为空");
+        }
+        Map<String, Integer> tables = new LinkedHashMap<>();
+        tableRows.forEach((table, rows) -> tables.put(String.valueOf(table), Integer.parseInt(String.valueOf(rows))));
+        int totalRows = tables.values().stream().mapToInt(Integer::intValue).sum();
+        Object parallelismParam = schemaInfos.get("parallelism");
+        Object bulkLoadParam = schemaInfos.get("bulkLoad");
+        Object deferIndexesParam = schemaInfos.get("deferIndexes");
+        Object priorityParam = schemaInfos.get("priority");
+
+        GenerationRequest request = GenerationRequest.builder()
+            .url((String) schemaInfos.get("url"))
+            .username((String) schemaInfos.get("username"))
+            .password((String) schemaInfos.get("password"))
+            .tableName(String.join(",", tables.keySet()))
+            .rows(totalRows)
+            .engineType((String) schemaInfos.get("engineType"))
+            .parallelism(parallelismParam == null || String.valueOf(parallelismParam).isBlank() ? 0 : Integer.parseInt(String.valueOf(parallelismParam)))
+            .bulkLoad(bulkLoadParam == null || String.valueOf(bulkLoadParam).isBlank() ? null : Boolean.valueOf(String.valueOf(bulkLoadParam)))
+            .deferIndexes(deferIndexesParam == null || String.valueOf(deferIndexesParam).isBlank() ? null : Boolean.valueOf(String.valueOf(deferIndexesParam)))
+            .profile((String) schemaInfos.get("profile"))
+            .tables(tables)
+            .exportFormat((String) schemaInfos.get("exportFormat"))
+            .exportPath((String) schemaInfos.get("exportPath"))
+            .exportCompression((String) schemaInfos.get("exportCompression"))
+            .submitter((String) schemaInfos.get("submitter"))
+            .priority(priorityParam == null || String.valueOf(priorityParam).isBlank() ? 0 : Integer.parseInt(String.valueOf(priorityParam)))
+            .fresh(Boolean.parseBoolean(String.valueOf(schemaInfos.get("fresh"))))
+            .build();
+        return ApiResponse.success(jobService.submit(request));
+    }
 
-        dataGenerationService.generateData(url, username, password, tableName, rows, engineType);
-        return ApiResponse.success("数据生成成功！");
+    @GetMapping("/pool/stats")
+    public ApiResponse<List<PoolStats>> getPoolStats() {
+        return ApiResponse.success(tempDatasourcePool.getStats());
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package team.zhh.de.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import team.zhh.base.model.ApiResponse;
+import team.zhh.base.model.CheckpointInfo;
+import team.zhh.base.model.JobStatus;
+import team.zhh.de.service.JobService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    @GetMapping
+    public ApiResponse<List<JobStatus>> listJobs() {
+        return ApiResponse.success(jobService.listJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ApiResponse<JobStatus> getJob(@PathVariable String jobId) {
+        return ApiResponse.success(jobService.getStatus(jobId));
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ApiResponse<Boolean> cancel(@PathVariable String jobId) {
+        return ApiResponse.success(jobService.cancel(jobId));
+    }
+
+    /**
+     * 中断（失败、取消或进程退出）后留下检查点的任务
+     */
+    @GetMapping("/checkpoints")
+    public ApiResponse<List<CheckpointInfo>> listCheckpoints() throws IOException {
+        return ApiResponse.success(jobService.listCheckpoints());
+    }
+
+    /**
+     * 从检查点恢复任务，请求体中提供数据库密码
+     */
+    @PostMapping("/{jobId}/resume")
+    public ApiResponse<String> resume(@PathVariable String jobId, @RequestBody Map<String, String> body) throws IOException {
+        return ApiResponse.success(jobService.resume(jobId, body.get("password")));
+    }
+
+    @DeleteMapping("/{jobId}/checkpoint")
+    public ApiResponse<Boolean> deleteCheckpoint(@PathVariable String jobId) throws IOException {
+        return ApiResponse.success(jobService.deleteCheckpoint(jobId));
+    }
+
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String jobId) {
+        return jobService.subscribe(jobId);
+    }
+}
@@ -0,0 +1,42 @@
+package team.zhh.de.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import team.zhh.base.model.ApiResponse;
+import team.zhh.de.core.profile.TableProfile;
+import team.zhh.de.service.ProfileService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/profiles")
+public class ProfileController {
+
+    @Autowired
+    private ProfileService profileService;
+
+    /**
+     * 流式读取表生成数据画像并保存，生成请求中通过 profile 参数引用画像名
+     */
+    @PostMapping
+    public ApiResponse<TableProfile> createProfile(@RequestBody Map<String, String> tableInfos) throws Exception {
+        return ApiResponse.success(profileService.createProfile(tableInfos.get("url"), tableInfos.get("username"),
+            tableInfos.get("password"), tableInfos.get("tableName"), tableInfos.get("name")));
+    }
+
+    @GetMapping
+    public ApiResponse<List<String>> listProfiles() throws Exception {
+        return ApiResponse.success(profileService.listProfiles());
+    }
+
+    @GetMapping("/{name}")
+    public ApiResponse<TableProfile> getProfile(@PathVariable String name) throws Exception {
+        return ApiResponse.success(profileService.getProfile(name));
+    }
+
+    @DeleteMapping("/{name}")
+    public ApiResponse<Boolean> deleteProfile(@PathVariable String name) throws Exception {
+        return ApiResponse.success(profileService.deleteProfile(name));
+    }
+}
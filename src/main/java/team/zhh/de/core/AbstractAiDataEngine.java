@@ -0,0 +1,505 @@
+package team.zhh.de.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.cache.AiDatasetCache;
+import team.zhh.de.core.cache.EncodedDataset;
+import team.zhh.de.exception.AiRateLimitException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * AI 生成引擎基类
+ * 按列数和每行估算token数把行数拆成多个块，使每块的输出不超过 max_tokens；
+ * 多个块并发请求，遇到限流时退避重试，结果按块顺序推送给接收端。
+ * 流式模式下每解析出一行就推送，入库与生成重叠，连接中途断开时已解析的行仍然保留。
+ * 每行按列元数据校验，未通过的行（含列数不足的行）连同原因分小批发回模型修正，修正后仍不通过的部分再补请求新行。
+ * 完整生成的结果按表结构、模型和提示词缓存到本地磁盘，表结构未变时直接回放，上下文指定 fresh 时重新生成
+ */
+public abstract class AbstractAiDataEngine implements IDataEngine {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractAiDataEngine.class);
+
+    @Value("${aiengine.max_tokens}")
+    protected int maxTokens;
+    @Value("${aiengine.model}")
+    protected String model;
+    // 同时请求的块数
+    @Value("${aiengine.concurrency:4}")
+    private int concurrency;
+    // 每块最多行数
+    @Value("${aiengine.chunk.max-rows:200}")
+    private int maxChunkRows;
+    // 每块预计输出占 max_tokens 的比例，留出余量避免截断
+    @Value("${aiengine.chunk.token-utilization:0.8}")
+    private double tokenUtilization;
+    // 块返回行数不足时补请求的次数
+    @Value("${aiengine.chunk.refill-attempts:2}")
+    private int refillAttempts;
+    // 限流时的最大尝试次数与退避时间（毫秒）
+    @Value("${aiengine.retry.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${aiengine.retry.backoff-ms:1000}")
+    private long backoffMs;
+    @Value("${aiengine.retry.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+    // 使用 SSE 流式响应
+    @Value("${aiengine.stream:true}")
+    private boolean stream;
+    // 校验未通过的行发回模型修正，每次请求最多修正的行数
+    @Value("${aiengine.repair.enabled:true}")
+    private boolean repairEnabled;
+    @Value("${aiengine.repair.batch-rows:20}")
+    private int repairBatchRows;
+
+    @Autowired
+    private GenerationMetrics metrics;
+
+    @Autowired
+    private AiDatasetCache datasetCache;
+
+    /**
+     * 日志中显示的引擎名
+     */
+    protected abstract String engineName();
+
+    /**
+     * 打开一次生成内所有块共享的客户端
+     */
+    protected abstract ChunkClient openClient() throws Exception;
+
+    /**
+     * 发送一次补全请求并返回文本内容，限流时抛出 AiRateLimitException
+     * 底层连接由应用级客户端持有，默认关闭时不做处理
+     */
+    protected interface ChunkClient extends AutoCloseable {
+        String complete(String prompt) throws Exception;
+
+        /**
+         * 流式请求，按到达顺序把增量文本交给回调；不支持流式的客户端一次性返回全部内容
+         */
+        default void stream(String prompt, Consumer<String> deltaConsumer) throws Exception {
+            deltaConsumer.accept(complete(prompt));
+        }
+
+        @Override
+        default void close() {
+        }
+    }
+
+    /**
+     * 记录一次请求的token用量，由能取得 usage 的引擎调用
+     */
+    protected void recordTokens(long promptTokens, long completionTokens) {
+        metrics.recordAiTokens(engineName(), model, promptTokens, completionTokens);
+    }
+
+    protected int getConcurrency() {
+        return Math.max(1, concurrency);
+    }
+
+    @Override
+    public int generateAndInsertData(GenerationContext context, RowSink sink) throws Exception {
+        String tableName = context.getTableName();
+        int rowCount = context.getRowCount();
+        List<ColumnMetadata> columnsToGenerate = context.getColumns().stream()
+            .filter(ColumnMetadata::requiresGeneration)
+            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        if (columnsToGenerate.isEmpty() || rowCount <= 0) {
+            return 0;
+        }
+
+        // 提示词按固定行数构建，只反映表结构与生成要求
+        String cacheKey = datasetCache.key(engineName(), model, columnsToGenerate,
+            buildBulkDataPrompt(tableName, columnsToGenerate, 1, 0, 1));
+        EncodedDataset cached = context.isFresh() ? null : datasetCache.get(cacheKey, rowCount);
+        if (cached != null) {
+            logger.info("{} - 表 {} 命中AI生成结果缓存，回放 {} 行", engineName(), tableName, rowCount);
+            metrics.recordAiCache(engineName(), "hit");
+            return replay(context, cached, rowCount, sink);
+        }
+        if (datasetCache.isEnabled()) {
+            metrics.recordAiCache(engineName(), context.isFresh() ? "fresh" : "miss");
+        }
+        EncodedDataset recorder = datasetCache.recorder(columnsToGenerate.size(), rowCount);
+
+        int chunkRows = chunkRows(columnsToGenerate);
+        int chunkCount = (rowCount + chunkRows - 1) / chunkRows;
+        int workers = Math.min(getConcurrency(), chunkCount);
+        logger.info("{} - 表 {} 开始生成 {} 行数据，共 {} 列，分 {} 块（每块最多 {} 行），并发 {}",
+            engineName(), tableName, rowCount, columnsToGenerate.size(), chunkCount, chunkRows, workers);
+
+        RowValidator validator = RowValidator.compile(columnsToGenerate);
+        RepairStats repairStats = new RepairStats();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+            r -> new Thread(r, "ai-" + tableName + "-" + threadIndex.getAndIncrement()));
+        int written = 0;
+        try (ChunkClient client = openClient()) {
+            // 在途块数有上限，按提交顺序取结果，保证行顺序且内存占用与总行数无关
+            Deque<ChunkRows> inFlight = new ArrayDeque<>();
+            int nextChunk = 0;
+            while (nextChunk < chunkCount || !inFlight.isEmpty()) {
+                while (nextChunk < chunkCount && inFlight.size() < workers * 2) {
+                    int index = nextChunk++;
+                    int rows = Math.min(chunkRows, rowCount - index * chunkRows);
+                    ChunkRows chunk = new ChunkRows();
+                    inFlight.add(chunk);
+                    executor.execute(() -> {
+                        try {
+                            generateChunk(client, context, columnsToGenerate, validator, repairStats, index, chunkCount, rows, chunk::add);
+                            chunk.complete();
+                        } catch (Throwable e) {
+                            chunk.fail(e);
+                        }
+                    });
+                }
+                // 队首的块边生成边推送，后面的块先缓存
+                ChunkRows head = inFlight.poll();
+                String[] row;
+                while ((row = head.take()) != null) {
+                    // 接收端会就地改写键列，先记录模型的原始输出
+                    if (recorder != null) {
+                        recorder.add(row);
+                    }
+                    sink.accept(row);
+                    written++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            repairStats.report(tableName);
+        }
+        if (written != rowCount) {
+            logger.warn("{} - 生成了 {} 行，期望 {} 行", engineName(), written, rowCount);
+        } else if (recorder != null) {
+            // 只缓存完整的结果
+            datasetCache.put(cacheKey, recorder);
+        }
+        return written;
+    }
+
+    private int replay(GenerationContext context, EncodedDataset dataset, int rowCount, RowSink sink) throws Exception {
+        for (int i = 0; i < rowCount; i++) {
+            if ((i & 1023) == 0 && context.isCancelled()) {
+                throw new CancellationException("任务已取消");
+            }
+            sink.accept(dataset.row(i));
+        }
+        return rowCount;
+    }
+
+    private void generateChunk(ChunkClient client, GenerationContext context, List<ColumnMetadata> columns,
+                               RowValidator validator, RepairStats repairStats,
+                               int index, int chunkCount, int rowCount, Consumer<String[]> out) throws Exception {
+        int[] delivered = {0};
+        // 模型少给行或修正失败时只补请求缺少的部分
+        for (int attempt = 0; attempt <= refillAttempts && delivered[0] < rowCount; attempt++) {
+            int missing = rowCount - delivered[0];
+            String prompt = buildBulkDataPrompt(context.getTableName(), columns, missing, index, chunkCount);
+            logger.debug("prompt: {}", prompt);
+            List<RejectedRow> rejected = new ArrayList<>();
+            CsvRowParser parser = new CsvRowParser(columns.size(), row -> {
+                if (delivered[0] >= rowCount) {
+                    return;
+                }
+                RowValidator.Violation violation = validator.check(row);
+                if (violation == null) {
+                    out.accept(row);
+                    delivered[0]++;
+                } else {
+                    repairStats.reject(violation.reason());
+                    rejected.add(new RejectedRow(RowValidator.toCsv(row), violation.message()));
+                }
+            }, line -> rejected.add(new RejectedRow(line, "列数不足，应为 " + columns.size() + " 列")));
+            try {
+                if (stream) {
+                    withRetry(context, () -> {
+                        client.stream(prompt, delta -> {
+                            if (context.isCancelled()) {
+                                throw new CancellationException("任务已取消");
+                            }
+                            parser.feed(delta);
+                        });
+                        return null;
+                    });
+                } else {
+                    parser.feed(withRetry(context, () -> client.complete(prompt)));
+                }
+                parser.finish();
+            } catch (IOException e) {
+                // 连接中断：丢弃未完整的最后一行，已解析的行保留，缺少的部分由下一轮补请求
+                if (parser.getRowCount() == 0) {
+                    throw e;
+                }
+                logger.warn("{} - 第 {} 块连接中断，保留已解析的 {} 行: {}", engineName(), index + 1, parser.getRowCount(), e.getMessage());
+            }
+            metrics.recordRejectedRows(engineName(), "missing_columns", parser.getSkippedRows());
+            metrics.recordRejectedRows(engineName(), "extra_columns", parser.getTruncatedRows());
+            logger.debug("{} - 第 {} 块第 {} 次请求解析出 {} 行，{} 行未通过校验", engineName(), index + 1, attempt + 1,
+                parser.getRowCount(), rejected.size());
+            if (repairEnabled && !rejected.isEmpty() && delivered[0] < rowCount) {
+                // 只修正仍然缺少的行数，其余丢弃
+                List<RejectedRow> toRepair = rejected.subList(0, Math.min(rejected.size(), rowCount - delivered[0]));
+                delivered[0] += repairRows(client, context, columns, validator, repairStats, toRepair, out);
+            }
+        }
+        if (delivered[0] < rowCount) {
+            logger.warn("{} - 第 {} 块生成了 {} 行，期望 {} 行", engineName(), index + 1, delivered[0], rowCount);
+        }
+    }
+
+    /**
+     * 把未通过校验的行分小批发回模型修正，修正结果再次校验，返回通过的行数
+     */
+    private int repairRows(ChunkClient client, GenerationContext context, List<ColumnMetadata> columns,
+                           RowValidator validator, RepairStats repairStats, List<RejectedRow> rows,
+                           Consumer<String[]> out) throws Exception {
+        int repaired = 0;
+        int batchRows = Math.max(1, repairBatchRows);
+        for (int from = 0; from < rows.size(); from += batchRows) {
+            List<RejectedRow> batch = rows.subList(from, Math.min(rows.size(), from + batchRows));
+            String prompt = buildRepairPrompt(context.getTableName(), columns, batch);
+            logger.debug("repair prompt: {}", prompt);
+            int[] accepted = {0};
+            CsvRowParser parser = new CsvRowParser(columns.size(), row -> {
+                if (accepted[0] < batch.size() && validator.check(row) == null) {
+                    out.accept(row);
+                    accepted[0]++;
+                }
+            });
+            try {
+                parser.feed(withRetry(context, () -> client.complete(prompt)));
+                parser.finish();
+            } catch (IOException e) {
+                // 修正请求失败不影响整块，缺少的行由补请求生成
+                logger.warn("{} - 表 {} 修正 {} 行的请求失败: {}", engineName(), context.getTableName(), batch.size(), e.getMessage());
+            }
+            repairStats.repaired(batch.size(), accepted[0]);
+            repaired += accepted[0];
+        }
+        return repaired;
+    }
+
+    private <T> T withRetry(GenerationContext context, Callable<T> call) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            if (context.isCancelled()) {
+                throw new CancellationException("任务已取消");
+            }
+            long start = System.nanoTime();
+            try {
+                T result = call.call();
+                metrics.recordAiRequest(engineName(), model, "success", System.nanoTime() - start);
+                return result;
+            } catch (AiRateLimitException e) {
+                metrics.recordAiRequest(engineName(), model, "rate_limited", System.nanoTime() - start);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long delay = e.getRetryAfterMillis() > 0
+                    ? e.getRetryAfterMillis()
+                    : Math.min(maxBackoffMs, backoffMs * (1L << Math.min(attempt - 1, 16)));
+                // 加入抖动，避免并发的块同时重试再次触发限流
+                delay += ThreadLocalRandom.current().nextLong(delay / 4 + 1);
+                logger.warn("{} - {}，{} ms 后第 {} 次重试", engineName(), e.getMessage(), delay, attempt);
+                Thread.sleep(delay);
+            } catch (Exception e) {
+                metrics.recordAiRequest(engineName(), model, "error", System.nanoTime() - start);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 每块行数：max_tokens 按比例留出余量后除以每行估算token数
+     */
+    private int chunkRows(List<ColumnMetadata> columns) {
+        int rowTokens = estimateRowTokens(columns);
+        int rows = (int) (maxTokens * tokenUtilization / rowTokens);
+        return Math.max(1, Math.min(maxChunkRows, rows));
+    }
+
+    static int estimateRowTokens(List<ColumnMetadata> columns) {
+        // 换行符
+        int tokens = 1;
+        for (ColumnMetadata col : columns) {
+            // 值本身加分隔符
+            tokens += estimateColumnTokens(col) + 1;
+        }
+        return tokens;
+    }
+
+    private static int estimateColumnTokens(ColumnMetadata col) {
+        switch (col.dataTypeCategory()) {
+            case INTEGER:
+                return 4;
+            case FLOAT:
+                return 6;
+            case DATE:
+                return 8;
+            case BOOLEAN:
+                return 2;
+            default:
+                // 字符串按列长度估算，中文约一字一个token，过长的列按常见取值长度封顶
+                int size = col.size() > 0 ? Math.min(col.size(), 64) : 16;
+                return size / 2 + 2;
+        }
+    }
+
+    // 构建批量数据生成提示词
+    protected static String buildBulkDataPrompt(String tableName, List<ColumnMetadata> columns, int rowCount,
+                                                int chunkIndex, int chunkCount) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("请为下表生成 ").append(rowCount).append(" 行真实数据，禁止添加其他列\n\n");
+        appendColumns(prompt, columns);
+
+        prompt.append("\n严格要求：\n");
+        prompt.append("1. 生成恰好 ").append(rowCount).append(" 行数据\n");
+        prompt.append("2. 以CSV格式返回数据，使用逗号作为分隔符\n");
+        prompt.append("3. 不要包含列标题，不需要多余内容，直接输出数据\n");
+        prompt.append("4. 如果值包含逗号，请用双引号包围\n");
+        prompt.append("5. 认真核对表结构，表总共有").append(columns.size()).append("列，禁止添加其他列。此外还需要确保数据类型与列规格匹配\n");
+        prompt.append("6. 日期使用 YYYY-MM-DD 格式、布尔值使用 true/false、数值类型请遵守精度和小数位数\n");
+        if (chunkCount > 1) {
+            prompt.append("7. 这是共 ").append(chunkCount).append(" 批中的第 ").append(chunkIndex + 1)
+                .append(" 批，请使用不同于其他批次的取值，避免重复\n");
+        }
+
+        return prompt.toString();
+    }
+
+    // 构建修正未通过校验的行的提示词，只返回修正后的行，输出token与待修正行数成正比
+    protected static String buildRepairPrompt(String tableName, List<ColumnMetadata> columns, List<RejectedRow> rows) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("以下 ").append(rows.size()).append(" 行是为表 ").append(tableName)
+            .append(" 生成的CSV数据，未通过校验，请逐行修正\n\n");
+        appendColumns(prompt, columns);
+        prompt.append("\n待修正的行（每行后为问题说明）：\n");
+        for (RejectedRow row : rows) {
+            prompt.append(row.line()).append("    # ").append(row.problem()).append("\n");
+        }
+        prompt.append("\n严格要求：\n");
+        prompt.append("1. 按原顺序返回修正后的 ").append(rows.size()).append(" 行，每行恰好 ").append(columns.size()).append(" 列\n");
+        prompt.append("2. 只修正有问题的值，其余值保持不变\n");
+        prompt.append("3. 以CSV格式返回，使用逗号作为分隔符，如果值包含逗号，请用双引号包围\n");
+        prompt.append("4. 不要包含列标题、问题说明和其他内容，直接输出数据\n");
+        prompt.append("5. 日期使用 YYYY-MM-DD 格式、布尔值使用 true/false、数值类型请遵守精度和小数位数\n");
+        return prompt.toString();
+    }
+
+    private static void appendColumns(StringBuilder prompt, List<ColumnMetadata> columns) {
+        prompt.append("表结构：\n");
+
+        for (ColumnMetadata col : columns) {
+            prompt.append("- ").append(col.name()).append(": ").append(col.typeName());
+            if (col.size() > 0) {
+                prompt.append("(").append(col.size());
+                if (col.decimalDigits() > 0) {
+                    prompt.append(",").append(col.decimalDigits());
+                }
+                prompt.append(")");
+            }
+            if (!col.nullable()) {
+                prompt.append(" NOT NULL");
+            }
+            prompt.append(" - ").append(col.remarks()).append("\n");
+        }
+    }
+
+    /**
+     * 未通过校验的行：CSV 原文与问题说明
+     */
+    protected record RejectedRow(String line, String problem) {
+    }
+
+    /**
+     * 一次生成内各块共享的校验与修正统计，结束时写入指标并记录修正率
+     */
+    private final class RepairStats {
+        private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+        private final LongAdder requested = new LongAdder();
+        private final LongAdder repaired = new LongAdder();
+
+        void reject(String reason) {
+            rejected.computeIfAbsent(reason, k -> new LongAdder()).increment();
+        }
+
+        void repaired(int requestedRows, int repairedRows) {
+            requested.add(requestedRows);
+            repaired.add(repairedRows);
+        }
+
+        void report(String tableName) {
+            long rejectedRows = 0;
+            for (Map.Entry<String, LongAdder> entry : rejected.entrySet()) {
+                metrics.recordRejectedRows(engineName(), entry.getKey(), entry.getValue().sum());
+                rejectedRows += entry.getValue().sum();
+            }
+            long requestedRows = requested.sum();
+            long repairedRows = repaired.sum();
+            metrics.recordRepairedRows(engineName(), requestedRows, repairedRows);
+            if (requestedRows > 0 || rejectedRows > 0) {
+                logger.info("{} - 表 {} 校验未通过 {} 行（列数不足的行另计），发回修正 {} 行，修正成功 {} 行，修正率 {}%",
+                    engineName(), tableName, rejectedRows, requestedRows, repairedRows,
+                    requestedRows == 0 ? 0 : repairedRows * 100 / requestedRows);
+            }
+        }
+    }
+
+    /**
+     * 一个块的输出行，生成线程写入，合并线程按顺序读取
+     */
+    private static final class ChunkRows {
+        private static final String[] END = new String[0];
+
+        private final BlockingQueue<String[]> rows = new LinkedBlockingQueue<>();
+        private volatile Throwable error;
+
+        void add(String[] row) {
+            rows.add(row);
+        }
+
+        void complete() {
+            rows.add(END);
+        }
+
+        void fail(Throwable e) {
+            error = e;
+            rows.add(END);
+        }
+
+        // 阻塞读取下一行，块结束时返回 null，块失败时抛出其异常
+        String[] take() throws Exception {
+            String[] row = rows.take();
+            if (row != END) {
+                return row;
+            }
+            if (error instanceof Exception) {
+                throw (Exception) error;
+            }
+            if (error != null) {
+                throw new ExecutionException(error);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package team.zhh.de.core;
+
+import com.volcengine.ark.runtime.service.ArkService;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+
+@Component
+public class AiClientShutdownHook {
+    private static final Logger logger = LoggerFactory.getLogger(AiClientShutdownHook.class);
+
+    @Autowired
+    private CloseableHttpClient aiHttpClient;
+    @Autowired
+    private ArkService arkService;
+
+    @PreDestroy
+    public void destroy() {
+        try {
+            aiHttpClient.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close AI http client: {}", e.getMessage());
+        }
+        arkService.shutdownExecutor();
+    }
+}
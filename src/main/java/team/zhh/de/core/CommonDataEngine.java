@@ -1,105 +1,81 @@
 package team.zhh.de.core;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.exception.AiRateLimitException;
 import team.zhh.de.exception.DeepSeekException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.sql.*;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.*;
 import org.apache.http.impl.client.*;
 import org.apache.http.util.EntityUtils;
 
+import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Component("commonAi")
-public class CommonDataEngine implements IDataEngine {
-    private static final Logger logger = LoggerFactory.getLogger(CommonDataEngine.class);
-    
+public class CommonDataEngine extends AbstractAiDataEngine {
+
     // 配置参数
     @Value("${aiengine.api_url}")
     private String API_URL;
     @Value("${aiengine.mykey}")
     private String API_KEY;
-    @Value("${aiengine.max_tokens}")
-    private int maxTokens;
     @Value("${aiengine.temperature}")
     private double temperature;
-    @Value("${aiengine.model}")
-    private String model;
-    private static final int BATCH_SIZE = 1000;
+
+    // 应用级共享的长连接客户端
+    @Autowired
+    private CloseableHttpClient httpClient;
 
     @Override
-    public List<String[]> generateAndInsertData(String tableName, int rowCount, List<ColumnMetadata> columns) throws Exception {
+    protected String engineName() {
+        return "AI Engine";
+    }
 
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        List<String[]> dataList = new ArrayList<>();
-        
-        try {
-            // 过滤出需要生成的列
-            List<ColumnMetadata> columnsToGenerate = columns.stream()
-                .filter(ColumnMetadata::requiresGeneration)
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-            
-            if (columnsToGenerate.isEmpty()) {
-                return dataList;
+    @Override
+    protected ChunkClient openClient() {
+        return new ChunkClient() {
+            @Override
+            public String complete(String prompt) throws Exception {
+                return generateBulkDataViaAPI(prompt, httpClient);
             }
-            
-            // 构建一次性生成所有数据的提示词
-            String prompt = buildBulkDataPrompt(tableName, columnsToGenerate, rowCount);
-            logger.debug("prompt: {}", prompt);
-            logger.info("AI Engine - 开始生成 {} 行数据，共 {} 列", rowCount, columnsToGenerate.size());
-            logger.info("AI Engine - 表名: {}", tableName);
-            
-            // 调用API生成所有数据
-            String csvData = generateBulkDataViaAPI(prompt, httpClient);
-            
-            logger.info("AI Engine - 接收到CSV数据，长度: {} 字符", csvData.length());
-            logger.debug("csvData: {}", csvData);
-            
-            // 解析CSV数据
-            dataList = parseCSVData(csvData, rowCount, columnsToGenerate.size());
-            
-        } finally {
-            httpClient.close();
-        }
-        
-        return dataList;
+
+            @Override
+            public void stream(String prompt, Consumer<String> deltaConsumer) throws Exception {
+                streamBulkDataViaAPI(prompt, httpClient, deltaConsumer);
+            }
+        };
     }
 
     // 调用DeepSeek API生成批量数据
     private String generateBulkDataViaAPI(String prompt, 
                                                CloseableHttpClient httpClient) throws Exception {
-        HttpPost request = new HttpPost(API_URL);
-        request.setHeader("Authorization", "Bearer " + API_KEY);
-        request.setHeader("Content-Type", "application/json");
-
-        Map<String, Object> body = new HashMap<>();
-        Map<String, Object> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt);
-        body.put("messages", Arrays.asList(message));
-        body.put("max_tokens", maxTokens); // 增加token数量以支持更多数据
-        body.put("temperature", temperature);
-        body.put("stream", false);
-        body.put("model", model);
-
-        request.setEntity(new StringEntity(JSONObject.toJSONString(body)));
-        CloseableHttpResponse response = httpClient.execute(request);
-        String responseBody = EntityUtils.toString(response.getEntity());
+        HttpPost request = buildRequest(prompt, false);
+        String responseBody;
+        int statusCode;
+        Header retryAfter;
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            responseBody = EntityUtils.toString(response.getEntity(), "UTF-8");
+            statusCode = response.getStatusLine().getStatusCode();
+            retryAfter = response.getFirstHeader("Retry-After");
+        }
         
         // 检查HTTP状态码
-        int statusCode = response.getStatusLine().getStatusCode();
         if (statusCode != 200) {
-            handleHttpError(statusCode, responseBody);
+            handleHttpError(statusCode, responseBody, retryAfter);
         }
         
         JSONObject jsonObject = JSONObject.parseObject(responseBody);
+        recordUsage(jsonObject.getJSONObject("usage"));
         
         // 检查API响应中的错误
         if (jsonObject.containsKey("error")) {
@@ -119,90 +95,72 @@ public class CommonDataEngine implements IDataEngine {
         }
     }
 
-    // 构建批量数据生成提示词
-    private static String buildBulkDataPrompt(String tableName, List<ColumnMetadata> columns, int rowCount) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("请为下表生成 ").append(rowCount).append(" 行真实数据，禁止添加其他列\n\n");
-        prompt.append("表结构：\n");
-        
-        for (ColumnMetadata col : columns) {
-            prompt.append("- ").append(col.name()).append(": ").append(col.typeName());
-            if (col.size() > 0) {
-                prompt.append("(").append(col.size());
-                if (col.decimalDigits() > 0) {
-                    prompt.append(",").append(col.decimalDigits());
+    // 以SSE流式调用API，每收到一段增量内容就交给回调
+    private void streamBulkDataViaAPI(String prompt, CloseableHttpClient httpClient,
+                                      Consumer<String> deltaConsumer) throws Exception {
+        HttpPost request = buildRequest(prompt, true);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != 200) {
+                handleHttpError(statusCode, EntityUtils.toString(entity, "UTF-8"), response.getFirstHeader("Retry-After"));
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) continue;
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) break;
+                JSONObject event = JSONObject.parseObject(data);
+                if (event.containsKey("error")) {
+                    JSONObject error = event.getJSONObject("error");
+                    handleApiError(error.getString("type"), error.getString("message"));
+                }
+                // 开启 include_usage 后最后一个事件携带整次请求的用量
+                recordUsage(event.getJSONObject("usage"));
+                JSONArray choices = event.getJSONArray("choices");
+                if (choices == null || choices.isEmpty()) continue;
+                JSONObject delta = choices.getJSONObject(0).getJSONObject("delta");
+                String content = delta == null ? null : delta.getString("content");
+                if (content != null && !content.isEmpty()) {
+                    deltaConsumer.accept(content);
                 }
-                prompt.append(")");
             }
-            prompt.append(" - ").append(col.remarks()).append("\n");
+            // 读完剩余内容，连接才能回到连接池复用
+            EntityUtils.consume(entity);
         }
-        
-        prompt.append("\n严格要求：\n");
-        prompt.append("1. 生成恰好 ").append(rowCount).append(" 行数据\n");
-        prompt.append("2. 以CSV格式返回数据，使用逗号作为分隔符\n");
-        prompt.append("3. 不要包含列标题，不需要多余内容，直接输出数据\n");
-        prompt.append("4. 如果值包含逗号，请用双引号包围\n");
-        prompt.append("5. 认真核对表结构，表总共有").append(columns.size()).append("列，禁止添加其他列。此外还需要确保数据类型与列规格匹配\n");
-        prompt.append("6. 日期使用 YYYY-MM-DD 格式、布尔值使用 true/false、数值类型请遵守精度和小数位数\n");
-        
-        return prompt.toString();
     }
 
-    // 解析CSV数据
-    private static List<String[]> parseCSVData(String csvData, int expectedRows, int expectedColumns) {
-        // 处理以```包裹的情况
-        String trimmed = csvData.trim();
-        if (trimmed.startsWith("```") ) {
-            int start = trimmed.indexOf("```") + 3;
-            int end = trimmed.lastIndexOf("```", trimmed.length() - 1);
-            if (end > start) {
-                trimmed = trimmed.substring(start, end).trim();
-            } else {
-                trimmed = trimmed.substring(start).trim();
-            }
-        }
-        List<String[]> dataList = new ArrayList<>();
-        String[] lines = trimmed.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            // 简单的CSV解析（处理逗号分隔，支持双引号包围的值）
-            List<String> values = new ArrayList<>();
-            StringBuilder currentValue = new StringBuilder();
-            boolean inQuotes = false;
-            for (int i = 0; i < line.length(); i++) {
-                char c = line.charAt(i);
-                if (c == '"') {
-                    inQuotes = !inQuotes;
-                } else if (c == ',' && !inQuotes) {
-                    values.add(currentValue.toString().trim());
-                    currentValue = new StringBuilder();
-                } else {
-                    currentValue.append(c);
-                }
-            }
-            // 添加最后一个值
-            values.add(currentValue.toString().trim());
-            // 严格保障列数，多余的列丢弃，少于则警告并跳过
-            if (values.size() > expectedColumns) {
-                logger.warn("CSV解析警告: 行有 {} 列，期望 {} 列，多余部分已丢弃", values.size(), expectedColumns);
-                values = values.subList(0, expectedColumns);
-                dataList.add(values.toArray(new String[0]));
-            } else if (values.size() == expectedColumns) {
-                dataList.add(values.toArray(new String[0]));
-            } else {
-                logger.warn("CSV解析警告: 行有 {} 列，期望 {} 列，已跳过该行", values.size(), expectedColumns);
-            }
+    private HttpPost buildRequest(String prompt, boolean stream) {
+        HttpPost request = new HttpPost(API_URL);
+        request.setHeader("Authorization", "Bearer " + API_KEY);
+        request.setHeader("Content-Type", "application/json");
+
+        Map<String, Object> body = new HashMap<>();
+        Map<String, Object> message = new HashMap<>();
+        message.put("role", "user");
+        message.put("content", prompt);
+        body.put("messages", Arrays.asList(message));
+        body.put("max_tokens", maxTokens); // 增加token数量以支持更多数据
+        body.put("temperature", temperature);
+        body.put("stream", stream);
+        if (stream) {
+            body.put("stream_options", Map.of("include_usage", true));
         }
-        // 确保行数匹配
-        if (dataList.size() != expectedRows) {
-            logger.warn("CSV解析警告: 生成了 {} 行，期望 {} 行", dataList.size(), expectedRows);
+        body.put("model", model);
+
+        request.setEntity(new StringEntity(JSONObject.toJSONString(body), ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    private void recordUsage(JSONObject usage) {
+        if (usage != null) {
+            recordTokens(usage.getLongValue("prompt_tokens"), usage.getLongValue("completion_tokens"));
         }
-        return dataList;
     }
 
     // 处理HTTP错误
-    private static void handleHttpError(int statusCode, String responseBody) throws DeepSeekException {
+    private static void handleHttpError(int statusCode, String responseBody, Header retryAfter) throws DeepSeekException {
         String errorMessage;
         switch (statusCode) {
             case 400:
@@ -218,14 +176,12 @@ public class CommonDataEngine implements IDataEngine {
                 errorMessage = "参数错误 - 请求体参数错误，请根据错误信息提示修改相关参数";
                 break;
             case 429:
-                errorMessage = "请求速率达到上限 - 请合理规划您的请求速率";
-                break;
+                throw new AiRateLimitException("请求速率达到上限 - 请合理规划您的请求速率", parseRetryAfter(retryAfter));
             case 500:
                 errorMessage = "服务器故障 - 服务器内部故障，请等待后重试";
                 break;
             case 503:
-                errorMessage = "服务器繁忙 - 服务器负载过高，请稍后重试";
-                break;
+                throw new AiRateLimitException("服务器繁忙 - 服务器负载过高，请稍后重试", parseRetryAfter(retryAfter));
             default:
                 errorMessage = "未知错误 - HTTP状态码: " + statusCode + ", 响应: " + responseBody;
                 break;
@@ -233,10 +189,20 @@ public class CommonDataEngine implements IDataEngine {
         throw new DeepSeekException(errorMessage);
     }
 
+    // Retry-After 只处理秒数形式
+    private static long parseRetryAfter(Header retryAfter) {
+        if (retryAfter == null) return 0;
+        try {
+            return Long.parseLong(retryAfter.getValue().trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     // 处理API错误
     private static void handleApiError(String errorType, String errorMessage) throws DeepSeekException {
         String detailedMessage = "API错误 - 类型: " + errorType + ", 消息: " + errorMessage;
         throw new DeepSeekException(detailedMessage);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package team.zhh.de.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AI 返回的 CSV 文本的增量解析器
+ * 文本可以分多次送入，每凑齐一整行就解析并交给回调，流式响应边接收边入库
+ */
+public class CsvRowParser {
+    private static final Logger logger = LoggerFactory.getLogger(CsvRowParser.class);
+
+    private final int expectedColumns;
+    private final Consumer<String[]> rowConsumer;
+    // 列数不足的行的原文，交给调用方修复
+    private final Consumer<String> rejectedLineConsumer;
+    // 尚未遇到换行的半行文本
+    private final StringBuilder pending = new StringBuilder();
+    private int rowCount;
+    // 列数不足被跳过的行、列数过多被截断的行
+    private int skippedRows;
+    private int truncatedRows;
+
+    public CsvRowParser(int expectedColumns, Consumer<String[]> rowConsumer) {
+        this(expectedColumns, rowConsumer, line -> {
+        });
+    }
+
+    public CsvRowParser(int expectedColumns, Consumer<String[]> rowConsumer, Consumer<String> rejectedLineConsumer) {
+        this.expectedColumns = expectedColumns;
+        this.rowConsumer = rowConsumer;
+        this.rejectedLineConsumer = rejectedLineConsumer;
+    }
+
+    /**
+     * 送入一段文本，解析其中所有完整的行
+     */
+    public void feed(CharSequence text) {
+        pending.append(text);
+        int start = 0;
+        for (int i = 0; i < pending.length(); i++) {
+            if (pending.charAt(i) == '\n') {
+                parseLine(pending.substring(start, i));
+                start = i + 1;
+            }
+        }
+        pending.delete(0, start);
+    }
+
+    /**
+     * 文本结束，解析最后一行（没有结尾换行时）
+     */
+    public void finish() {
+        if (pending.length() > 0) {
+            parseLine(pending.toString());
+            pending.setLength(0);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    public int getTruncatedRows() {
+        return truncatedRows;
+    }
+
+    private void parseLine(String line) {
+        line = line.trim();
+        // 跳过空行和 ``` / ```csv 代码块标记
+        if (line.isEmpty() || line.startsWith("```")) return;
+        // 简单的CSV解析（处理逗号分隔，支持双引号包围的值）
+        List<String> values = new ArrayList<>();
+        StringBuilder currentValue = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                values.add(currentValue.toString().trim());
+                currentValue = new StringBuilder();
+            } else {
+                currentValue.append(c);
+            }
+        }
+        // 添加最后一个值
+        values.add(currentValue.toString().trim());
+        // 严格保障列数，多余的列丢弃，少于则警告并跳过
+        if (values.size() > expectedColumns) {
+            logger.warn("CSV解析警告: 行有 {} 列，期望 {} 列，多余部分已丢弃", values.size(), expectedColumns);
+            values = values.subList(0, expectedColumns);
+            truncatedRows++;
+        } else if (values.size() < expectedColumns) {
+            logger.warn("CSV解析警告: 行有 {} 列，期望 {} 列，已跳过该行", values.size(), expectedColumns);
+            skippedRows++;
+            rejectedLineConsumer.accept(line);
+            return;
+        }
+        rowCount++;
+        rowConsumer.accept(values.toArray(new String[0]));
+    }
+}
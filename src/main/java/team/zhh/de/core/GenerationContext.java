@@ -0,0 +1,57 @@
+package team.zhh.de.core;
+
+import lombok.Builder;
+import lombok.Getter;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次生成任务（或其中一个分区）的上下文
+ * 并行模式下每个分区拥有独立的行区间和随机种子，互不共享可变状态
+ */
+@Getter
+@Builder(toBuilder = true)
+public class GenerationContext {
+    // 表名
+    private final String tableName;
+    // 列元数据（包含不需要生成的列）
+    private final List<ColumnMetadata> columns;
+    // 本分区需要生成的行数
+    private final int rowCount;
+    // 本分区第一行在整个任务中的行号
+    private final long rowOffset;
+    // 分区序号，单线程模式为0
+    private final int partition;
+    // 本分区随机种子
+    private final long seed;
+    // 不使用缓存的 AI 生成结果，重新调用模型
+    private final boolean fresh;
+    // 进度与取消
+    @Builder.Default
+    private final GenerationMonitor monitor = GenerationMonitor.NONE;
+    // 引擎在 prepare 中放入的任务级只读数据，各分区共享
+    @Builder.Default
+    private final Map<String, Object> attributes = Collections.emptyMap();
+
+    public boolean isCancelled() {
+        return monitor.isCancelled();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String key) {
+        return (T) attributes.get(key);
+    }
+
+    /**
+     * 根据任务种子和分区序号派生分区种子（SplitMix64），保证各分区随机流相互独立且可复现
+     */
+    public static long partitionSeed(long jobSeed, int partition) {
+        long z = jobSeed + (partition + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,135 @@
+package team.zhh.de.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import team.zhh.de.core.sink.SinkMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据生成相关的 Micrometer 指标，通过 /actuator/prometheus 暴露
+ * 行数按引擎与表统计，批次写入耗时按接收端类型与表统计，AI 请求耗时与token用量按引擎与模型统计
+ */
+@Component
+public class GenerationMetrics {
+    private final MeterRegistry registry;
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 包装进度监视器，累计生成与写出的行数
+     */
+    public GenerationMonitor monitor(GenerationMonitor delegate, String engine, String table) {
+        Counter generated = Counter.builder("dataeden.rows.generated")
+            .description("引擎生成的行数")
+            .tag("engine", engine).tag("table", table)
+            .register(registry);
+        Counter written = Counter.builder("dataeden.rows.written")
+            .description("接收端写出的行数")
+            .tag("engine", engine).tag("table", table)
+            .register(registry);
+        return new GenerationMonitor() {
+            @Override
+            public void onGenerated(long rows) {
+                generated.increment(rows);
+                delegate.onGenerated(rows);
+            }
+
+            @Override
+            public void onWritten(long rows) {
+                written.increment(rows);
+                delegate.onWritten(rows);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return delegate.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * @param sink 接收端类型（JdbcBatchSink、PgCopySink 等）
+     */
+    public SinkMetrics sink(String sink, String table) {
+        Timer write = Timer.builder("dataeden.sink.batch.write")
+            .description("写出一个批次的耗时")
+            .tag("sink", sink).tag("table", table)
+            .publishPercentileHistogram()
+            .register(registry);
+        Timer wait = Timer.builder("dataeden.sink.wait")
+            .description("生成线程等待写入的时间")
+            .tag("sink", sink).tag("table", table)
+            .register(registry);
+        return new SinkMetrics() {
+            @Override
+            public void recordWrite(int rows, long nanos) {
+                write.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordWait(long nanos) {
+                wait.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * @param outcome success / rate_limited / error
+     */
+    public void recordAiRequest(String engine, String model, String outcome, long nanos) {
+        Timer.builder("dataeden.ai.request")
+            .description("AI 补全请求耗时（流式请求含逐行入库的时间）")
+            .tag("engine", engine).tag("model", model).tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAiTokens(String engine, String model, long promptTokens, long completionTokens) {
+        Counter.builder("dataeden.ai.tokens").tag("engine", engine).tag("model", model).tag("type", "prompt")
+            .register(registry).increment(promptTokens);
+        Counter.builder("dataeden.ai.tokens").tag("engine", engine).tag("model", model).tag("type", "completion")
+            .register(registry).increment(completionTokens);
+    }
+
+    /**
+     * AI 返回的行未通过校验
+     * @param reason missing_columns（列数不足）/ extra_columns（多余列截断）/ null / type / size / precision / date
+     */
+    public void recordRejectedRows(String engine, String reason, long rows) {
+        if (rows <= 0) return;
+        Counter.builder("dataeden.ai.rows.rejected")
+            .description("AI 返回的未通过校验的行")
+            .tag("engine", engine).tag("reason", reason)
+            .register(registry)
+            .increment(rows);
+    }
+
+    /**
+     * AI 生成结果缓存
+     * @param outcome hit（回放缓存）/ miss（未命中，调用模型）/ fresh（指定重新生成）
+     */
+    public void recordAiCache(String engine, String outcome) {
+        Counter.builder("dataeden.ai.cache")
+            .description("AI 生成结果缓存的查找次数")
+            .tag("engine", engine).tag("outcome", outcome)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * 发回模型修正的行，修正率为 repaired / (repaired + failed)
+     */
+    public void recordRepairedRows(String engine, long requested, long repaired) {
+        if (requested <= 0) return;
+        Counter.builder("dataeden.ai.rows.repair").tag("engine", engine).tag("outcome", "repaired")
+            .register(registry).increment(repaired);
+        Counter.builder("dataeden.ai.rows.repair").tag("engine", engine).tag("outcome", "failed")
+            .register(registry).increment(requested - repaired);
+    }
+}
@@ -0,0 +1,26 @@
+package team.zhh.de.core;
+
+/**
+ * 生成过程监视器，接收进度并提供取消信号
+ * 接收端在每个批次提交和写出时回调，引擎在耗时操作之间检查 isCancelled
+ */
+public interface GenerationMonitor {
+    GenerationMonitor NONE = new GenerationMonitor() {
+    };
+
+    /**
+     * 引擎提交了一批已生成的行
+     */
+    default void onGenerated(long rows) {
+    }
+
+    /**
+     * 接收端写出了一批行
+     */
+    default void onWritten(long rows) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,266 @@
+package team.zhh.de.core;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.batch.StringVector;
+import team.zhh.de.core.batch.TimestampVector;
+import team.zhh.de.core.corpus.Corpus;
+import team.zhh.de.core.corpus.CorpusRegistry;
+import team.zhh.de.core.profile.ProfileSampler;
+import team.zhh.de.core.profile.TableProfile;
+
+import java.nio.CharBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * 随机引擎的列生成计划
+ * 表结构只编译一次：按列类型选好专用生成器并预先算好取值范围（整数上限、NUMERIC 精度、字符串长度、日期区间），
+ * 逐行生成时不再判断类型，也不创建对象，值直接写入批次的类型化缓冲区
+ */
+final class GeneratorPlan {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final ColumnGenerator[] generators;
+
+    private GeneratorPlan(ColumnGenerator[] generators) {
+        this.generators = generators;
+    }
+
+    /**
+     * 按批次的列缓冲区编译，同一接收端的批次结构相同，计划可用于该接收端的所有批次
+     * @param today 日期列的起始日（epoch day）
+     */
+    static GeneratorPlan compile(RowBatch batch, int today) {
+        return compile(batch, today, null);
+    }
+
+    /**
+     * @param profile 数据画像，画像中有且类型一致的列按画像分布生成，其余列均匀随机；为 null 时全部均匀随机
+     */
+    static GeneratorPlan compile(RowBatch batch, int today, TableProfile profile) {
+        return compile(batch, today, profile, null);
+    }
+
+    /**
+     * @param corpora 语料，没有画像的字符串列按列名或备注匹配到语料时从语料抽样；为 null 时字符串列均为随机字母数字
+     */
+    static GeneratorPlan compile(RowBatch batch, int today, TableProfile profile, CorpusRegistry corpora) {
+        ColumnGenerator[] generators = new ColumnGenerator[batch.columnCount()];
+        for (int i = 0; i < generators.length; i++) {
+            ColumnVector vector = batch.vector(i);
+            ProfileSampler sampler = profile == null ? null : ProfileSampler.compile(vector, profile.column(vector.column().name()));
+            Corpus corpus = sampler == null && corpora != null && vector instanceof StringVector ? corpora.match(vector.column()) : null;
+            if (sampler != null) {
+                generators[i] = sampler::fill;
+            } else if (corpus != null) {
+                int maxLength = maxLength(vector.column(), 255);
+                generators[i] = CorpusRegistry.WORDS.equals(corpus.name())
+                    ? new PhraseGenerator(corpus, maxLength) : new CorpusGenerator(corpus, maxLength);
+            } else {
+                generators[i] = compile(vector, today);
+            }
+        }
+        return new GeneratorPlan(generators);
+    }
+
+    void fill(SplittableRandom random, RowBatch batch, int row) {
+        for (int j = 0; j < generators.length; j++) {
+            generators[j].fill(random, batch.vector(j), row);
+        }
+    }
+
+    private static ColumnGenerator compile(ColumnVector target, int today) {
+        ColumnMetadata col = target.column();
+        switch (col.dataTypeCategory()) {
+            case INTEGER: {
+                // integerMax 对 INT/BIGINT 返回 Long.MAX_VALUE，先比较再加 1，避免溢出
+                long max = integerMax(col.typeName());
+                int bound = max < 10000 ? (int) max + 1 : 10000;
+                return (random, vector, row) -> ((LongVector) vector).set(row, random.nextInt(bound));
+            }
+            case FLOAT:
+                // 处理NUMERIC类型的精度
+                if (target instanceof DecimalVector decimal) {
+                    return new DecimalGenerator(col.size(), decimal.scale());
+                }
+                return (random, vector, row) -> ((DoubleVector) vector).set(row, random.nextDouble() * 1000);
+            case DATE:
+                if (target instanceof TimestampVector timestamp) {
+                    if (timestamp.isTimeOnly()) {
+                        // 一天内的任意秒
+                        return (random, vector, row) -> ((TimestampVector) vector).set(row, random.nextLong(86_400) * 1_000_000);
+                    }
+                    // 今天起一年内的任意秒
+                    long start = today * TimestampVector.MICROS_PER_DAY;
+                    return (random, vector, row) -> ((TimestampVector) vector).set(row, start + random.nextLong(365L * 86_400) * 1_000_000);
+                }
+                // 今天起一年内的日期
+                return (random, vector, row) -> ((DateVector) vector).set(row, today + random.nextInt(365));
+            case BOOLEAN:
+                return (random, vector, row) -> ((BooleanVector) vector).set(row, random.nextBoolean());
+            default: // STRING
+                return new StringGenerator(maxLength(col, 20));
+        }
+    }
+
+    /**
+     * 列定义的字符串长度，未定义或过长（TEXT 等）时取默认值
+     */
+    private static int maxLength(ColumnMetadata col, int defaultLength) {
+        return col.size() > 0 && col.size() < 1000 ? col.size() : defaultLength;
+    }
+
+    /**
+     * 截断到列长度，不在代理对中间截断
+     */
+    private static int truncate(CharBuffer chars, int offset, int length, int maxLength) {
+        if (length <= maxLength) {
+            return length;
+        }
+        return Character.isHighSurrogate(chars.get(offset + maxLength - 1)) ? maxLength - 1 : maxLength;
+    }
+
+    private static long integerMax(String typeName) {
+        if (typeName == null) return Long.MAX_VALUE;
+        switch (typeName.toUpperCase()) {
+            case "TINYINT":
+                return Byte.MAX_VALUE;
+            case "SMALLINT":
+            case "INT2":
+                return Short.MAX_VALUE;
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnGenerator {
+        void fill(SplittableRandom random, ColumnVector vector, int row);
+    }
+
+    /**
+     * 符合精度要求的数值，写入按 scale 缩放后的非标度值
+     */
+    private static final class DecimalGenerator implements ColumnGenerator {
+        // 整数部分上限（不含）与小数部分的倍数
+        private final long integerBound;
+        private final long decimalBound;
+
+        DecimalGenerator(int precision, int scale) {
+            // long 最多容纳18位十进制数
+            int digits = Math.min(Math.max(precision, scale + 1), 18);
+            int maxIntegerDigits = Math.max(digits - scale, 0);
+            this.integerBound = POW10[maxIntegerDigits] - 1;
+            this.decimalBound = POW10[Math.min(scale, 18)];
+        }
+
+        @Override
+        public void fill(SplittableRandom random, ColumnVector vector, int row) {
+            long integerPart = integerBound > 0 ? random.nextLong(integerBound) : 0;
+            long decimalPart = decimalBound > 1 ? random.nextLong(decimalBound) : 0;
+            ((DecimalVector) vector).setUnscaled(row, integerPart * decimalBound + decimalPart);
+        }
+    }
+
+    /**
+     * 定长字母数字字符串，每个64位随机数产生两个字符，写入缓冲区的字符块
+     */
+    private static final class StringGenerator implements ColumnGenerator {
+        private final char[] scratch;
+
+        StringGenerator(int length) {
+            this.scratch = new char[length];
+        }
+
+        @Override
+        public void fill(SplittableRandom random, ColumnVector vector, int row) {
+            char[] chars = scratch;
+            int i = 0;
+            while (i < chars.length) {
+                long bits = random.nextLong();
+                chars[i++] = ALPHABET[(int) (((bits >>> 32) * ALPHABET.length) >>> 32)];
+                if (i < chars.length) {
+                    chars[i++] = ALPHABET[(int) (((bits & 0xFFFFFFFFL) * ALPHABET.length) >>> 32)];
+                }
+            }
+            ((StringVector) vector).setPlain(row, chars, 0, chars.length);
+        }
+    }
+
+    /**
+     * 从语料等概率抽取一个取值，直接从映射区复制到批次的字符块
+     */
+    private static final class CorpusGenerator implements ColumnGenerator {
+        private final Corpus corpus;
+        private final int maxLength;
+
+        CorpusGenerator(Corpus corpus, int maxLength) {
+            this.corpus = corpus;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void fill(SplittableRandom random, ColumnVector vector, int row) {
+            int index = random.nextInt(corpus.size());
+            int offset = corpus.offset(index);
+            int length = truncate(corpus.chars(), offset, corpus.length(index), maxLength);
+            ((StringVector) vector).setPlain(row, corpus.chars(), offset, length);
+        }
+    }
+
+    /**
+     * 标题、描述等文本列：从词语语料抽取若干词，以空格连接到随机目标长度
+     */
+    private static final class PhraseGenerator implements ColumnGenerator {
+        private final Corpus corpus;
+        private final int maxLength;
+        private final char[] scratch;
+
+        PhraseGenerator(Corpus corpus, int maxLength) {
+            this.corpus = corpus;
+            this.maxLength = maxLength;
+            this.scratch = new char[maxLength];
+        }
+
+        @Override
+        public void fill(SplittableRandom random, ColumnVector vector, int row) {
+            // 短列一个词，长列 12~80 个字符
+            int limit = Math.min(maxLength, 80);
+            int target = limit <= 12 ? limit : 12 + random.nextInt(limit - 11);
+            CharBuffer chars = corpus.chars();
+            int used = 0;
+            do {
+                int separator = used == 0 ? 0 : 1;
+                if (used + separator >= maxLength) {
+                    break;
+                }
+                int index = random.nextInt(corpus.size());
+                int offset = corpus.offset(index);
+                int length = truncate(chars, offset, corpus.length(index), maxLength - used - separator);
+                if (length <= 0 || (used > 0 && used + separator + length > target)) {
+                    break;
+                }
+                if (separator > 0) {
+                    scratch[used++] = ' ';
+                }
+                chars.get(offset, scratch, used, length);
+                used += length;
+            } while (used < target);
+            ((StringVector) vector).setPlain(row, scratch, 0, used);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package team.zhh.de.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.exception.DeepSeekException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * AI种子扩增引擎
+ * 先用AI引擎为表生成少量种子行，再在本地按种子的取值与格式重组、扰动扩增到目标行数，
+ * 扩增阶段与随机引擎一样直接填充类型化批次，支持分区并行
+ */
+@Component("hybridEngine")
+public class HybridDataEngine implements IDataEngine {
+    private static final Logger logger = LoggerFactory.getLogger(HybridDataEngine.class);
+
+    private static final String SEED_MODEL = "hybrid.seedModel";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    // 生成种子数据的AI引擎
+    @Value("${hybrid.seed-engine:volcengine}")
+    private String seedEngine;
+    // 种子行数
+    @Value("${hybrid.seed-rows:100}")
+    private int seedRows;
+    // 连续数值与日期的相对扰动幅度
+    @Value("${hybrid.perturbation:0.1}")
+    private double perturbation;
+    // 各列取同一种子行值的概率，越大列间相关性保留越多
+    @Value("${hybrid.row-coherence:0.6}")
+    private double rowCoherence;
+
+    /**
+     * 整个任务只请求一次种子数据，构建的模型供所有分区共享
+     */
+    @Override
+    public GenerationContext prepare(GenerationContext context) throws Exception {
+        List<ColumnMetadata> columnsToGenerate = context.getColumns().stream()
+            .filter(ColumnMetadata::requiresGeneration)
+            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        if (columnsToGenerate.isEmpty()) {
+            return context;
+        }
+        int rows = Math.max(1, Math.min(seedRows, context.getRowCount()));
+        IDataEngine engine = (IDataEngine) applicationContext.getBean(seedEngine);
+        CollectingSink collector = new CollectingSink(columnsToGenerate);
+        logger.info("Hybrid - 表 {} 使用 {} 生成 {} 行种子数据", context.getTableName(), seedEngine, rows);
+        engine.generateAndInsertData(context.toBuilder().rowCount(rows).build(), collector);
+        if (collector.rows.isEmpty()) {
+            throw new DeepSeekException("种子数据生成失败：AI引擎未返回可用数据");
+        }
+        SeedModel model = SeedModel.build(columnsToGenerate, collector.rows, perturbation, rowCoherence);
+        logger.info("Hybrid - 表 {} 种子数据 {} 行，开始扩增到 {} 行", context.getTableName(), model.getSeedRows(), context.getRowCount());
+        return context.toBuilder().attributes(Map.of(SEED_MODEL, model)).build();
+    }
+
+    @Override
+    public int generateAndInsertData(GenerationContext context, RowSink sink) throws Exception {
+        SeedModel model = context.getAttribute(SEED_MODEL);
+        if (model == null) {
+            model = prepare(context).getAttribute(SEED_MODEL);
+            if (model == null) {
+                return 0;
+            }
+        }
+        // 每个分区使用独立的随机流
+        SplittableRandom random = new SplittableRandom(context.getSeed());
+        long rowNumber = context.getRowOffset();
+        int rowCount = context.getRowCount();
+        RowBatch batch = sink.newBatch();
+        for (int i = 0; i < rowCount; i++) {
+            int row = batch.nextRow();
+            model.fill(random, batch, row, rowNumber++);
+            if (batch.isFull()) {
+                sink.accept(batch);
+                batch = sink.newBatch();
+            }
+        }
+        sink.accept(batch);
+        return rowCount;
+    }
+
+    @Override
+    public boolean supportsPartitioning() {
+        return true;
+    }
+
+    /**
+     * 收集种子行的接收端，批次按文本形式还原为行，种子引擎可以是任意引擎
+     */
+    private static class CollectingSink implements RowSink {
+        private static final int BATCH_SIZE = 1024;
+
+        private final List<ColumnMetadata> columns;
+        private final List<String[]> rows = new ArrayList<>();
+
+        CollectingSink(List<ColumnMetadata> columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void accept(String[] row) {
+            rows.add(row);
+        }
+
+        @Override
+        public RowBatch newBatch() {
+            return new RowBatch(columns, BATCH_SIZE);
+        }
+
+        @Override
+        public void accept(RowBatch batch) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                String[] row = new String[batch.columnCount()];
+                for (int j = 0; j < row.length; j++) {
+                    ColumnVector vector = batch.vector(j);
+                    if (!vector.isNull(i)) {
+                        text.setLength(0);
+                        vector.appendText(text, i);
+                        row[j] = text.toString();
+                    }
+                }
+                rows.add(row);
+            }
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package team.zhh.de.core;
 
-import team.zhh.base.model.ColumnMetadata;
+public interface IDataEngine {
+    /**
+     * 生成数据并逐行推送给接收端
+     * @param context 生成上下文（表名、列元数据、行数、随机种子等）
+     * @param sink 行数据接收端，负责分块写入
+     * @return 实际生成行数
+     */
+    int generateAndInsertData(GenerationContext context, RowSink sink) throws Exception;
 
-import java.util.List;
-import java.util.Map;
+    /**
+     * 在拆分分区之前对整个任务调用一次，可把各分区共享的只读数据（如种子数据）放入上下文属性
+     * @return 用于拆分分区的上下文
+     */
+    default GenerationContext prepare(GenerationContext context) throws Exception {
+        return context;
+    }
 
-public interface IDataEngine {
     /**
-     * 生成并插入数据
-     * @param tableName 表名
-     * @param rowCount 行数
-     * @param columns 列元数据
-     * @return 实际插入行数
+     * 是否支持把行数拆分为多个区间并行生成
+     * 支持的引擎必须只依赖上下文中的区间与种子，不能在多次调用之间共享可变状态
      */
-    List<String[]> generateAndInsertData(String tableName, int rowCount, List<ColumnMetadata> columns) throws Exception;
-}
\ No newline at end of file
+    default boolean supportsPartitioning() {
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+package team.zhh.de.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.base.model.ForeignKey;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 目标库元数据缓存
+ * 按 url+用户+密码指纹、schema、表 缓存当前schema、表列表和列元数据，过期或超出上限（最近最少使用）后重新查询目录；
+ * 密码不同的请求不会命中其他请求缓存的结果
+ */
+@Component
+public class MetadataCache {
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    // accessOrder=true，迭代顺序即最近最少使用顺序
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    // 密码指纹的随机盐，进程内有效，缓存键中不出现可离线比对的密码哈希
+    private final byte[] salt = new byte[16];
+
+    // 缓存有效期（毫秒），0 表示不缓存
+    @Value("${metadata.cache.ttl:300000}")
+    private long ttl;
+    // 最多缓存的条目数
+    @Value("${metadata.cache.max-entries:1000}")
+    private int maxEntries;
+
+    public MetadataCache() {
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * 从目录查询元数据
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    public String getSchema(String url, String username, String password, Loader<String> loader) throws SQLException {
+        return getOrLoad("schema", url, username, password, null, null, loader);
+    }
+
+    public List<String> getTables(String url, String username, String password, String schema,
+                                  Loader<List<String>> loader) throws SQLException {
+        return getOrLoad("tables", url, username, password, schema, null, () -> List.copyOf(loader.load()));
+    }
+
+    public List<ColumnMetadata> getColumns(String url, String username, String password, String schema, String tableName,
+                                           Loader<List<ColumnMetadata>> loader) throws SQLException {
+        return getOrLoad("columns", url, username, password, schema, tableName, () -> List.copyOf(loader.load()));
+    }
+
+    public List<ForeignKey> getForeignKeys(String url, String username, String password, String schema, String tableName,
+                                           Loader<List<ForeignKey>> loader) throws SQLException {
+        return getOrLoad("foreignKeys", url, username, password, schema, tableName, () -> List.copyOf(loader.load()));
+    }
+
+    /**
+     * 使缓存失效
+     * @param url 目标库，为空时清空全部缓存
+     * @param tableName 表名，为空时清除该目标库的全部条目
+     */
+    public int invalidate(String url, String tableName) {
+        int removed = 0;
+        synchronized (cache) {
+            if (url == null || url.isBlank()) {
+                removed = cache.size();
+                cache.clear();
+            } else {
+                Iterator<CacheEntry> it = cache.values().iterator();
+                while (it.hasNext()) {
+                    CacheEntry entry = it.next();
+                    // 表级失效同时清除表列表，新建或删除的表能立即反映
+                    if (entry.url.equals(url) && (tableName == null || tableName.isBlank()
+                            || tableName.equals(entry.tableName) || "tables".equals(entry.kind))) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        logger.info("Invalidated {} metadata cache entries (url={}, table={})", removed, url, tableName);
+        return removed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOrLoad(String kind, String url, String username, String password, String schema, String tableName,
+                            Loader<T> loader) throws SQLException {
+        String key = String.join("|", kind, url, String.valueOf(username), fingerprint(password),
+            String.valueOf(schema), String.valueOf(tableName));
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                return (T) entry.value;
+            }
+            if (entry != null) {
+                cache.remove(key);
+            }
+        }
+        // 在锁外查询目录，慢查询不阻塞其他目标库；并发的相同查询可能重复执行，结果相同
+        T value = loader.load();
+        // 空结果（表不存在或无权限）不缓存
+        if (ttl > 0 && value != null && !(value instanceof List<?> list && list.isEmpty())) {
+            synchronized (cache) {
+                cache.put(key, new CacheEntry(kind, url, tableName, value, now + ttl));
+                Iterator<CacheEntry> it = cache.values().iterator();
+                while (cache.size() > maxEntries && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 加盐的密码哈希，只用于区分凭据
+     */
+    private String fingerprint(String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CacheEntry {
+        final String kind;
+        final String url;
+        final String tableName;
+        final Object value;
+        final long expiresAt;
+
+        CacheEntry(String kind, String url, String tableName, Object value, long expiresAt) {
+            this.kind = kind;
+            this.url = Objects.requireNonNull(url);
+            this.tableName = tableName;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -2,80 +2,43 @@ package team.zhh.de.core;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import team.zhh.base.model.ColumnMetadata;
-import team.zhh.de.service.DatabaseService;
-import java.util.*;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.corpus.CorpusRegistry;
+import team.zhh.de.core.profile.TableProfile;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
 
 @Component("randomEngine")
 public class RandomDataEngine implements IDataEngine {
 
-    @Autowired
-    private DatabaseService databaseService;
+    @Autowired(required = false)
+    private CorpusRegistry corpusRegistry;
 
     @Override
-    public List<String[]> generateAndInsertData(String tableName, int rowCount, List<ColumnMetadata> columns) {
-        List<String[]> rows = new ArrayList<>();
+    public int generateAndInsertData(GenerationContext context, RowSink sink) throws Exception {
+        // 每个分区使用独立的随机流，不加锁
+        SplittableRandom random = new SplittableRandom(context.getSeed());
+        int today = (int) LocalDate.now().toEpochDay();
+        int rowCount = context.getRowCount();
+        RowBatch batch = sink.newBatch();
+        // 指定了数据画像时，画像中的列按采样到的分布生成
+        TableProfile profile = context.getAttribute(TableProfile.ATTRIBUTE);
+        // 姓名、地址、公司等字符串列从语料抽样
+        GeneratorPlan plan = GeneratorPlan.compile(batch, today, profile, corpusRegistry);
         for (int i = 0; i < rowCount; i++) {
-            List<String> row = new ArrayList<>();
-            for (ColumnMetadata col : columns) {
-                if (col.requiresGeneration()) {
-                    row.add(generateRandomValue(col).toString());
-                }
+            plan.fill(random, batch, batch.nextRow());
+            if (batch.isFull()) {
+                sink.accept(batch);
+                batch = sink.newBatch();
             }
-            rows.add(row.toArray(new String[0]));
-        }
-        return rows;
-    }
-
-    private Object generateRandomValue(ColumnMetadata col) {
-        Random random = new Random();
-        switch (col.dataTypeCategory()) {
-            case INTEGER: 
-                return random.nextInt(10000);
-            case FLOAT: 
-                // 处理NUMERIC类型的精度
-                if ("NUMERIC".equalsIgnoreCase(col.typeName()) || "DECIMAL".equalsIgnoreCase(col.typeName())) {
-                    return generateNumericValue(random, col.size(), col.decimalDigits());
-                }
-                return random.nextDouble() * 1000;
-            case DATE: 
-                java.sql.Date date = new java.sql.Date(System.currentTimeMillis() + random.nextInt(365 * 24 * 60 * 60 * 1000));
-                return date.toString(); // 返回YYYY-MM-DD格式的字符串
-            case BOOLEAN: 
-                return random.nextBoolean();
-            default: // STRING
-                int len = col.size() > 0 && col.size() < 1000 ? col.size() : 20;
-                return randomString(len);
         }
-    }
-    
-    private String generateNumericValue(Random random, int precision, int scale) {
-        // 生成符合精度要求的数值
-        int maxIntegerDigits = precision - scale;
-        long maxInteger = (long) Math.pow(10, maxIntegerDigits) - 1;
-        long integerPart = random.nextLong() % maxInteger;
-        if (integerPart < 0) integerPart = -integerPart;
-        
-        if (scale == 0) {
-            return String.valueOf(integerPart);
-        }
-        
-        // 生成小数部分
-        long maxDecimal = (long) Math.pow(10, scale);
-        long decimalPart = random.nextLong() % maxDecimal;
-        if (decimalPart < 0) decimalPart = -decimalPart;
-        
-        String decimalStr = String.format("%0" + scale + "d", decimalPart);
-        return integerPart + "." + decimalStr;
+        sink.accept(batch);
+        return rowCount;
     }
 
-    private String randomString(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder sb = new StringBuilder();
-        Random random = new Random();
-        for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return sb.toString();
+    @Override
+    public boolean supportsPartitioning() {
+        return true;
     }
 }
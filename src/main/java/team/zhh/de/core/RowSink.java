@@ -0,0 +1,27 @@
+package team.zhh.de.core;
+
+import team.zhh.de.core.batch.RowBatch;
+
+/**
+ * 行数据接收端（推模式）
+ * 引擎生成的数据推送给接收端，由接收端负责分块与写入，引擎不再持有全部数据。
+ * 能直接产出类型化值的引擎通过 newBatch/accept(RowBatch) 填充列式批次；
+ * 只能产出文本的引擎（AI）逐行推送字符串，由接收端解析为列类型
+ */
+public interface RowSink {
+    /**
+     * 接收一行文本数据
+     * @param row 需要生成的列对应的值，顺序与 requiresGeneration 过滤后的列一致
+     */
+    void accept(String[] row) throws Exception;
+
+    /**
+     * 获取一个空的可写批次，批次数量有限，写入跟不上时会阻塞
+     */
+    RowBatch newBatch() throws Exception;
+
+    /**
+     * 提交一个已填充的批次，调用返回后批次归接收端所有，调用方不能再修改
+     */
+    void accept(RowBatch batch) throws Exception;
+}
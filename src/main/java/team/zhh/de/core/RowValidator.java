@@ -0,0 +1,191 @@
+package team.zhh.de.core;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.TimestampVector;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.util.List;
+
+/**
+ * AI 输出行的逐列校验
+ * 按列元数据检查非空、类型、长度、精度与日期格式。日期列直接调用列缓冲区的解析函数（DateVector / TimestampVector），
+ * 通过校验的行写库时不会退化为字符串或因类型错误导致整批失败。主键、唯一列和外键列的值由键生成器或父表键池覆盖，不校验
+ */
+public final class RowValidator {
+    private final List<ColumnMetadata> columns;
+    private final Check[] checks;
+
+    private RowValidator(List<ColumnMetadata> columns, Check[] checks) {
+        this.columns = columns;
+        this.checks = checks;
+    }
+
+    public static RowValidator compile(List<ColumnMetadata> columns) {
+        Check[] checks = new Check[columns.size()];
+        for (int i = 0; i < checks.length; i++) {
+            ColumnMetadata col = columns.get(i);
+            checks[i] = col.requiresUniqueKey() || col.foreignKey() ? null : compile(col);
+        }
+        return new RowValidator(columns, checks);
+    }
+
+    /**
+     * 校验一行，通过时返回 null，否则返回第一个不符合的列
+     */
+    public Violation check(String[] row) {
+        for (int i = 0; i < checks.length; i++) {
+            if (checks[i] == null) {
+                continue;
+            }
+            ColumnMetadata col = columns.get(i);
+            String text = i < row.length ? row[i] : null;
+            if (text == null || text.trim().isEmpty()) {
+                if (!col.nullable()) {
+                    return new Violation("null", col.name() + " 不能为空");
+                }
+                continue;
+            }
+            String reason = checks[i].check(text.trim());
+            if (reason != null) {
+                return new Violation(reason, col.name() + " 的值 " + text + " " + message(reason, col));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按 CSV 格式还原一行，用于修复请求
+     */
+    public static String toCsv(String[] row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = row[i] == null ? "" : row[i];
+            if (value.indexOf(',') >= 0) {
+                line.append('"').append(value.replace("\"", "")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    private static Check compile(ColumnMetadata col) {
+        String typeName = col.typeName() == null ? "" : col.typeName().toUpperCase();
+        switch (col.dataTypeCategory()) {
+            case INTEGER: {
+                long max = integerMax(typeName);
+                return text -> {
+                    try {
+                        long value = Long.parseLong(text);
+                        return value > max || value < -max - 1 ? "precision" : null;
+                    } catch (NumberFormatException e) {
+                        return "type";
+                    }
+                };
+            }
+            case FLOAT:
+                if ("NUMERIC".equals(typeName) || "DECIMAL".equals(typeName)) {
+                    int scale = Math.max(0, col.decimalDigits());
+                    int maxIntegerDigits = col.size() > 0 ? col.size() - scale : Integer.MAX_VALUE;
+                    return text -> {
+                        try {
+                            // 小数位多出的部分写入时四舍五入，只检查整数位数
+                            BigDecimal value = new BigDecimal(text).setScale(scale, RoundingMode.HALF_UP);
+                            return value.precision() - value.scale() > maxIntegerDigits && value.signum() != 0 ? "precision" : null;
+                        } catch (NumberFormatException e) {
+                            return "type";
+                        }
+                    };
+                }
+                return text -> {
+                    try {
+                        return Double.isFinite(Double.parseDouble(text)) ? null : "type";
+                    } catch (NumberFormatException e) {
+                        return "type";
+                    }
+                };
+            case DATE:
+                return dateCheck(col);
+            case BOOLEAN:
+                return text -> "true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text) ? null : "type";
+            case STRING:
+                if (col.size() > 0) {
+                    int size = col.size();
+                    return text -> text.codePointCount(0, text.length()) > size ? "size" : null;
+                }
+                return text -> null;
+            default:
+                return text -> null;
+        }
+    }
+
+    /**
+     * 与写入时使用同一个解析函数，能通过校验的值一定能解析为列缓冲区的类型
+     */
+    private static Check dateCheck(ColumnMetadata col) {
+        if (TimestampVector.isTimestamp(col)) {
+            boolean timeOnly = TimestampVector.isTime(col);
+            return text -> parses(() -> TimestampVector.parseMicros(text, timeOnly)) ? null : "date";
+        }
+        return text -> parses(() -> DateVector.parseEpochDay(text)) ? null : "date";
+    }
+
+    private static boolean parses(Runnable parse) {
+        try {
+            parse.run();
+            return true;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return false;
+        }
+    }
+
+    private static long integerMax(String typeName) {
+        switch (typeName) {
+            case "TINYINT":
+                return Byte.MAX_VALUE;
+            case "SMALLINT":
+            case "INT2":
+                return Short.MAX_VALUE;
+            case "INT":
+            case "INTEGER":
+            case "INT4":
+            case "SERIAL":
+                return Integer.MAX_VALUE;
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+
+    private static String message(String reason, ColumnMetadata col) {
+        switch (reason) {
+            case "type":
+                return "不是有效的 " + col.typeName();
+            case "size":
+                return "超过长度 " + col.size();
+            case "precision":
+                boolean decimal = col.dataTypeCategory() == ColumnMetadata.DataTypeCategory.FLOAT && col.size() > 0;
+                return "超出 " + col.typeName() + (decimal ? "(" + col.size() + "," + col.decimalDigits() + ")" : "") + " 的范围";
+            default:
+                return "不是有效的 " + col.typeName() + " 格式";
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        // 返回不符合的原因，符合时返回 null
+        String check(String text);
+    }
+
+    /**
+     * @param reason 用于指标统计：null / type / size / precision / date
+     * @param message 写入修复请求的说明
+     */
+    public record Violation(String reason, String message) {
+    }
+}
@@ -0,0 +1,225 @@
+package team.zhh.de.core;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.batch.StringVector;
+import team.zhh.de.core.batch.TimestampVector;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * 由少量AI种子行构建的扩增模型，构建后只读，可被多个分区同时使用
+ * 每生成一行先选一个基准种子行，各列以一定概率取基准行的值、否则取其他种子行的值（列间重组）；
+ * 连续数值和日期在种子值附近扰动并限制在种子范围内，取值几乎各不相同的列视为键，生成新值
+ */
+final class SeedModel {
+    // 取值去重后占比达到该比例的列视为键
+    private static final double KEY_DISTINCT_RATIO = 0.9;
+    // 去重取值不超过该数量的列视为枚举，只复用种子取值
+    private static final int CATEGORY_LIMIT = 20;
+
+    private final int seedRows;
+    private final double coherence;
+    private final ColumnModel[] models;
+
+    private SeedModel(int seedRows, double coherence, ColumnModel[] models) {
+        this.seedRows = seedRows;
+        this.coherence = coherence;
+        this.models = models;
+    }
+
+    /**
+     * @param columns 需要生成的列
+     * @param rows 种子行（文本）
+     * @param perturbation 连续值的相对扰动幅度
+     * @param coherence 各列取基准行值的概率
+     */
+    static SeedModel build(List<ColumnMetadata> columns, List<String[]> rows, double perturbation, double coherence) {
+        // 借用列式批次把种子文本解析为列类型
+        RowBatch seed = new RowBatch(columns, rows.size());
+        for (String[] values : rows) {
+            seed.setText(seed.nextRow(), values);
+        }
+        ColumnModel[] models = new ColumnModel[columns.size()];
+        for (int j = 0; j < models.length; j++) {
+            models[j] = new ColumnModel(seed.vector(j), rows.size(), perturbation);
+        }
+        return new SeedModel(rows.size(), coherence, models);
+    }
+
+    int getSeedRows() {
+        return seedRows;
+    }
+
+    /**
+     * 填充批次中的一行
+     * @param rowNumber 该行在整个任务中的行号，用于生成不重复的整数键
+     */
+    void fill(SplittableRandom random, RowBatch batch, int row, long rowNumber) {
+        int base = random.nextInt(seedRows);
+        for (int j = 0; j < models.length; j++) {
+            int source = random.nextDouble() < coherence ? base : random.nextInt(seedRows);
+            models[j].fill(random, batch.vector(j), row, source, rowNumber);
+        }
+    }
+
+    private static final class ColumnModel {
+        private final ColumnVector seed;
+        private final boolean nullable;
+        private final double perturbation;
+        // 可用的种子行（非空且解析成功），空值按种子中的比例保留
+        private final int[] validRows;
+        private final boolean key;
+        private final boolean category;
+        // 数值/日期列的种子取值范围
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private long maxLong = Long.MIN_VALUE;
+
+        ColumnModel(ColumnVector seed, int seedRows, double perturbation) {
+            this.seed = seed;
+            this.nullable = seed.column().nullable();
+            this.perturbation = perturbation;
+            Set<Object> distinct = new HashSet<>();
+            int[] valid = new int[seedRows];
+            int count = 0;
+            for (int r = 0; r < seedRows; r++) {
+                if (seed.isNull(r) || seed.rawText(r) != null || isOverflow(r)) continue;
+                valid[count++] = r;
+                distinct.add(valueKey(r));
+                double numeric = numericValue(r);
+                min = Math.min(min, numeric);
+                max = Math.max(max, numeric);
+                if (seed instanceof LongVector v) {
+                    maxLong = Math.max(maxLong, v.get(r));
+                }
+            }
+            this.validRows = Arrays.copyOf(valid, count);
+            this.key = count >= 10 && distinct.size() >= count * KEY_DISTINCT_RATIO;
+            this.category = distinct.size() <= CATEGORY_LIMIT;
+        }
+
+        void fill(SplittableRandom random, ColumnVector out, int row, int source, long rowNumber) {
+            if (validRows.length == 0) {
+                // 种子中没有可用的值：沿用原始文本或置空
+                String raw = seed.rawText(source);
+                out.setText(row, raw);
+                return;
+            }
+            if (seed.isNull(source) && nullable) {
+                out.setNull(row);
+                return;
+            }
+            if (seed.isNull(source) || seed.rawText(source) != null || isOverflow(source)) {
+                source = validRows[random.nextInt(validRows.length)];
+            }
+            if (out instanceof LongVector longOut) {
+                long value = ((LongVector) seed).get(source);
+                if (key) {
+                    // 在种子最大值之后按行号递增，保证新键各不相同
+                    value = maxLong + 1 + rowNumber;
+                } else if (!category) {
+                    value = Math.round(perturb(random, value));
+                }
+                longOut.set(row, value);
+            } else if (out instanceof DecimalVector decimalOut) {
+                long value = ((DecimalVector) seed).getUnscaled(source);
+                if (!category) {
+                    value = Math.round(perturb(random, value));
+                }
+                decimalOut.setUnscaled(row, value);
+            } else if (out instanceof DoubleVector doubleOut) {
+                double value = ((DoubleVector) seed).get(source);
+                doubleOut.set(row, category ? value : perturb(random, value));
+            } else if (out instanceof DateVector dateOut) {
+                int day = ((DateVector) seed).get(source);
+                if (!category) {
+                    int jitter = Math.max(1, (int) ((max - min) * perturbation));
+                    day = (int) clamp(day + random.nextInt(2 * jitter + 1) - jitter);
+                }
+                dateOut.set(row, day);
+            } else if (out instanceof TimestampVector timestampOut) {
+                long value = ((TimestampVector) seed).get(source);
+                if (!category) {
+                    double jitter = Math.max(1_000_000, (max - min) * perturbation);
+                    value = Math.round(clamp(value + (random.nextDouble() * 2 - 1) * jitter));
+                }
+                timestampOut.set(row, value);
+            } else if (out instanceof BooleanVector booleanOut) {
+                booleanOut.set(row, ((BooleanVector) seed).get(source));
+            } else {
+                String value = ((StringVector) seed).get(source);
+                ((StringVector) out).set(row, key ? mutate(random, value) : value);
+            }
+        }
+
+        private double perturb(SplittableRandom random, double value) {
+            double delta = (random.nextDouble() * 2 - 1) * perturbation;
+            return clamp(value * (1 + delta));
+        }
+
+        private double clamp(double value) {
+            return Math.max(min, Math.min(max, value));
+        }
+
+        private boolean isOverflow(int r) {
+            return seed instanceof DecimalVector decimal && decimal.getOverflow(r) != null;
+        }
+
+        private Object valueKey(int r) {
+            if (seed instanceof LongVector v) return v.get(r);
+            if (seed instanceof DecimalVector v) return v.getUnscaled(r);
+            if (seed instanceof DoubleVector v) return v.get(r);
+            if (seed instanceof DateVector v) return v.get(r);
+            if (seed instanceof TimestampVector v) return v.get(r);
+            if (seed instanceof BooleanVector v) return v.get(r);
+            return ((StringVector) seed).get(r);
+        }
+
+        private double numericValue(int r) {
+            if (seed instanceof LongVector v) return v.get(r);
+            if (seed instanceof DecimalVector v) return v.getUnscaled(r);
+            if (seed instanceof DoubleVector v) return v.get(r);
+            if (seed instanceof DateVector v) return v.get(r);
+            if (seed instanceof TimestampVector v) return v.get(r);
+            return 0;
+        }
+
+        /**
+         * 保留格式生成新值：含数字时只替换数字（保留 ORD- 之类的前缀），否则把英文字母替换为同大小写的随机字母，其余字符不变
+         */
+        private static String mutate(SplittableRandom random, String value) {
+            char[] chars = value.toCharArray();
+            boolean hasDigit = false;
+            for (char c : chars) {
+                if (c >= '0' && c <= '9') {
+                    hasDigit = true;
+                    break;
+                }
+            }
+            for (int i = 0; i < chars.length; i++) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    chars[i] = (char) ('0' + random.nextInt(10));
+                } else if (hasDigit) {
+                    continue;
+                } else if (c >= 'a' && c <= 'z') {
+                    chars[i] = (char) ('a' + random.nextInt(26));
+                } else if (c >= 'A' && c <= 'Z') {
+                    chars[i] = (char) ('A' + random.nextInt(26));
+                }
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -1,33 +1,245 @@
 package team.zhh.de.core;
 
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import team.zhh.base.model.PoolStats;
 import team.zhh.de.config.DatabaseConfig;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 目标库连接池缓存
+ * 每个 url+用户 对应一个连接池，按最近使用顺序保存，超过上限或长时间未使用的连接池会被关闭；
+ * 生成任务通过 {@link #lease} 持有连接池，租约未归还的连接池不会被关闭
+ */
 @Component
 public class TempDatasourcePool {
-    private final Map<String, DataSource> pool = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(TempDatasourcePool.class);
+
+    // accessOrder=true，迭代顺序即最近最少使用顺序
+    private final LinkedHashMap<String, PoolEntry> pool = new LinkedHashMap<>(16, 0.75f, true);
+    // 正在创建的连接池
+    private final ConcurrentHashMap<String, CompletableFuture<PoolEntry>> pending = new ConcurrentHashMap<>();
     private final DatabaseConfig databaseConfig;
 
+    // 最多同时保留的目标库数量
+    @Value("${datasource.pool.max-targets:16}")
+    private int maxTargets;
+    // 目标库连接池超过该时长未被使用则关闭
+    @Value("${datasource.pool.target-idle-timeout:1800000}")
+    private long targetIdleTimeout;
+
     public TempDatasourcePool(DatabaseConfig databaseConfig) {
         this.databaseConfig = databaseConfig;
     }
 
+    /**
+     * 取得连接池，用于短时间的查询；调用期间之外不保证连接池保持打开
+     */
     public DataSource getDataSource(String url, String username, String password) {
+        return acquire(url, username, password, false).dataSource;
+    }
+
+    /**
+     * 租用连接池，归还前连接池不会被空闲回收或超限淘汰关闭，
+     * 生成任务在整个执行期间（包括准备阶段和工作单元之间没有活动连接时）持有
+     */
+    public Lease lease(String url, String username, String password) {
+        return new Lease(acquire(url, username, password, true));
+    }
+
+    private PoolEntry acquire(String url, String username, String password, boolean lease) {
         String key = url + "|" + username + "|" + password;
-        return pool.computeIfAbsent(key, k -> databaseConfig.createDataSource(url, username, password));
+        synchronized (pool) {
+            PoolEntry entry = pool.get(key);
+            if (entry != null) {
+                entry.lastAccess = System.currentTimeMillis();
+                if (lease) {
+                    entry.leases++;
+                }
+                return entry;
+            }
+        }
+        // 在锁外创建连接池（可能要等待建连超时），同一目标库的并发请求等待同一个创建结果，其他目标库不受影响
+        CompletableFuture<PoolEntry> mine = new CompletableFuture<>();
+        CompletableFuture<PoolEntry> creating = pending.computeIfAbsent(key, k -> mine);
+        if (creating == mine) {
+            try {
+                mine.complete(new PoolEntry(url, username, databaseConfig.createDataSource(url, username, password)));
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+            } finally {
+                pending.remove(key, mine);
+            }
+        }
+        PoolEntry created;
+        try {
+            created = creating.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        PoolEntry loser = null;
+        PoolEntry entry;
+        synchronized (pool) {
+            entry = pool.get(key);
+            if (entry == null) {
+                entry = created;
+                pool.put(key, entry);
+            } else if (entry != created) {
+                // 创建期间已有其他请求放入了连接池
+                loser = created;
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            if (lease) {
+                entry.leases++;
+            }
+            // 先记租约再淘汰，新放入的连接池不会被自己的淘汰关闭
+            evictOverflow();
+        }
+        if (loser != null) {
+            close(loser);
+        }
+        return entry;
+    }
+
+    /**
+     * 单个目标库连接池的最大连接数，并行写入的线程数不应超过该值
+     */
+    public int getMaxPoolSize() {
+        return databaseConfig.getMaxPoolSize();
+    }
+
+    public List<PoolStats> getStats() {
+        long now = System.currentTimeMillis();
+        List<PoolStats> stats = new ArrayList<>();
+        synchronized (pool) {
+            for (PoolEntry entry : pool.values()) {
+                HikariPoolMXBean mxBean = entry.dataSource.getHikariPoolMXBean();
+                stats.add(new PoolStats(
+                    entry.url, entry.username,
+                    mxBean == null ? 0 : mxBean.getActiveConnections(),
+                    mxBean == null ? 0 : mxBean.getIdleConnections(),
+                    mxBean == null ? 0 : mxBean.getTotalConnections(),
+                    mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection(),
+                    entry.dataSource.getMaximumPoolSize(),
+                    now - entry.lastAccess
+                ));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 定期关闭长时间未使用、没有租约且没有活动连接的连接池
+     */
+    @Scheduled(fixedDelayString = "${datasource.pool.evict-interval:60000}")
+    public void evictIdle() {
+        long deadline = System.currentTimeMillis() - targetIdleTimeout;
+        synchronized (pool) {
+            Iterator<PoolEntry> it = pool.values().iterator();
+            while (it.hasNext()) {
+                PoolEntry entry = it.next();
+                if (entry.lastAccess < deadline && !entry.isBusy()) {
+                    it.remove();
+                    close(entry);
+                }
+            }
+        }
     }
 
     public void closeAll() {
-        for (DataSource ds : pool.values()) {
-            try {
-                ds.getConnection().close(); // 关闭连接池（如果是连接池实现）
-            } catch (Exception ignored) {}
+        synchronized (pool) {
+            for (PoolEntry entry : pool.values()) {
+                close(entry);
+            }
+            pool.clear();
+        }
+    }
+
+    // 超过上限时按LRU顺序关闭空闲的连接池，被租用或正在使用的连接池不会被关闭
+    private void evictOverflow() {
+        Iterator<PoolEntry> it = pool.values().iterator();
+        while (pool.size() > maxTargets && it.hasNext()) {
+            PoolEntry entry = it.next();
+            if (!entry.isBusy()) {
+                it.remove();
+                close(entry);
+            }
+        }
+    }
+
+    private void close(PoolEntry entry) {
+        logger.info("Closing connection pool {} for {}", entry.dataSource.getPoolName(), entry.url);
+        try {
+            entry.dataSource.close();
+        } catch (Exception e) {
+            logger.warn("Failed to close connection pool {}: {}", entry.dataSource.getPoolName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 连接池租约，close 后归还，重复 close 无影响
+     */
+    public final class Lease implements AutoCloseable {
+        private final PoolEntry entry;
+        private boolean closed;
+
+        private Lease(PoolEntry entry) {
+            this.entry = entry;
+        }
+
+        public DataSource getDataSource() {
+            return entry.dataSource;
+        }
+
+        @Override
+        public void close() {
+            synchronized (pool) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                entry.leases--;
+                // 空闲超时从归还时算起
+                entry.lastAccess = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static class PoolEntry {
+        final String url;
+        final String username;
+        final HikariDataSource dataSource;
+        volatile long lastAccess;
+        // 未归还的租约数，在 pool 锁内修改
+        int leases;
+
+        PoolEntry(String url, String username, HikariDataSource dataSource) {
+            this.url = url;
+            this.username = username;
+            this.dataSource = dataSource;
+        }
+
+        boolean isBusy() {
+            if (leases > 0) {
+                return true;
+            }
+            HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+            return mxBean != null && (mxBean.getActiveConnections() > 0 || mxBean.getThreadsAwaitingConnection() > 0);
         }
-        pool.clear();
     }
-} 
\ No newline at end of file
+}
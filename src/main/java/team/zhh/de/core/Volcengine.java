@@ -2,80 +2,102 @@ package team.zhh.de.core;
 
 import java.util.List;
 
-import team.zhh.base.model.ColumnMetadata;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
-import com.alibaba.fastjson2.JSONObject;
 
 
-import com.volcengine.ark.runtime.model.completion.chat.ChatCompletionContentPart;
+import com.volcengine.ark.runtime.exception.ArkHttpException;
 import com.volcengine.ark.runtime.model.completion.chat.ChatCompletionRequest;
+import com.volcengine.ark.runtime.model.completion.chat.ChatCompletionResult;
 import com.volcengine.ark.runtime.model.completion.chat.ChatMessage;
 import com.volcengine.ark.runtime.model.completion.chat.ChatMessageRole;
 import com.volcengine.ark.runtime.service.ArkService;
-import okhttp3.ConnectionPool;
-import okhttp3.Dispatcher;
-import java.util.ArrayList;
-import java.util.concurrent.TimeUnit;
+import team.zhh.de.exception.AiRateLimitException;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
 
 @Component("volcengine")
-public class Volcengine implements IDataEngine{
-    private static final Logger logger = LoggerFactory.getLogger(Volcengine.class);
-
-    @Value("${aiengine.api_url}")
-    private String API_URL;
-    @Value("${aiengine.mykey}")
-    private String API_KEY;
-    @Value("${aiengine.max_tokens}")
-    private int maxTokens;
+public class Volcengine extends AbstractAiDataEngine {
+
     @Value("${aiengine.temperature}")
     private double temperature;
-    @Value("${aiengine.model}")
-    private String model;
+
+    // 应用级共享的 ArkService
+    @Autowired
+    private ArkService service;
+
+    @Override
+    protected String engineName() {
+        return "Volcengine";
+    }
 
     @Override
-    public List<String[]> generateAndInsertData(String tableName, int rowCount, List<ColumnMetadata> columns)
-            throws Exception {
-        CloseableHttpClient httpClient = HttpClients.createDefault();
-        List<String[]> dataList = new java.util.ArrayList<>();
+    protected ChunkClient openClient() {
+        return new ChunkClient() {
+            @Override
+            public String complete(String prompt) {
+                return generateBulkDataViaAPI(prompt, service);
+            }
+
+            @Override
+            public void stream(String prompt, Consumer<String> deltaConsumer) throws IOException {
+                streamBulkDataViaAPI(prompt, service, deltaConsumer);
+            }
+        };
+    }
+
+    private String generateBulkDataViaAPI(String prompt, ArkService service) {
+        StringBuilder resultContent = new StringBuilder();
         try {
-            List<ColumnMetadata> columnsToGenerate = columns.stream()
-                .filter(ColumnMetadata::requiresGeneration)
-                .collect(java.util.ArrayList::new, java.util.ArrayList::add, java.util.ArrayList::addAll);
-            if (columnsToGenerate.isEmpty()) {
-                return dataList;
+            ChatCompletionResult result = service.createChatCompletion(buildRequest(prompt, false));
+            if (result.getUsage() != null) {
+                recordTokens(result.getUsage().getPromptTokens(), result.getUsage().getCompletionTokens());
             }
-            String prompt = buildBulkDataPrompt(tableName, columnsToGenerate, rowCount);
-            logger.debug("prompt: {}", prompt);
-            logger.info("Volcengine - 开始生成 {} 行数据，共 {} 列", rowCount, columnsToGenerate.size());
-            logger.info("Volcengine - 表名: {}", tableName);
-            String csvData = generateBulkDataViaAPI(prompt, httpClient);
-            logger.info("Volcengine - 接收到CSV数据，长度: {} 字符", csvData.length());
-            logger.debug("csvData: {}", csvData);
-            dataList = parseCSVData(csvData, rowCount, columnsToGenerate.size());
-        } finally {
-            httpClient.close();
+            result.getChoices().forEach(choice ->
+                resultContent.append(choice.getMessage().getContent()).append("\n")
+            );
+        } catch (ArkHttpException e) {
+            throw translate(e);
         }
-        return dataList;
+        return resultContent.toString().trim();
     }
 
-    private String generateBulkDataViaAPI(String prompt, CloseableHttpClient httpClient) throws Exception {
-        Dispatcher dispatcher = new Dispatcher();
-        ArkService service = ArkService.builder()
-                .dispatcher(dispatcher)
-                .baseUrl(API_URL)
-                .apiKey(API_KEY)
-                .build();
+    // 流式调用，每个增量块的内容直接交给回调
+    private void streamBulkDataViaAPI(String prompt, ArkService service, Consumer<String> deltaConsumer) throws IOException {
+        try {
+            service.streamChatCompletion(buildRequest(prompt, true)).blockingForEach(chunk -> {
+                // 开启 include_usage 后最后一个块（choices 为空）携带整次请求的用量
+                if (chunk.getUsage() != null) {
+                    recordTokens(chunk.getUsage().getPromptTokens(), chunk.getUsage().getCompletionTokens());
+                }
+                if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) return;
+                Object content = chunk.getChoices().get(0).getMessage().getContent();
+                if (content != null) {
+                    deltaConsumer.accept(content.toString());
+                }
+            });
+        } catch (ArkHttpException e) {
+            throw translate(e);
+        } catch (RuntimeException e) {
+            // 连接中断时交给上层保留已解析的行
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
+    private RuntimeException translate(ArkHttpException e) {
+        if (e.statusCode == 429 || e.statusCode == 503) {
+            return new AiRateLimitException("请求速率达到上限或服务繁忙 - HTTP状态码: " + e.statusCode, 0, e);
+        }
+        return e;
+    }
+
+    private ChatCompletionRequest buildRequest(String prompt, boolean stream) {
         List<ChatMessage> messages = new ArrayList<>();
         ChatMessage userMessage = ChatMessage.builder()
                 .role(ChatMessageRole.USER)
@@ -88,77 +110,10 @@ public class Volcengine implements IDataEngine{
                 .messages(messages)
                 .maxTokens(maxTokens)
                 .temperature(temperature)
+                .streamOptions(stream ? new ChatCompletionRequest.ChatCompletionRequestStreamOptions(true) : null)
                 .build();
 
-        StringBuilder resultContent = new StringBuilder();
-        try {
-            service.createChatCompletion(chatCompletionRequest).getChoices().forEach(choice -> 
-                resultContent.append(choice.getMessage().getContent()).append("\n")
-            );
-
-        } finally {
-            service.shutdownExecutor();
-        }
-        return resultContent.toString().trim();
-    }
-
-    private static String buildBulkDataPrompt(String tableName, List<ColumnMetadata> columns, int rowCount) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("请为下表生成 ").append(rowCount).append(" 行真实数据，禁止添加其他列\n\n");
-        prompt.append("表结构：\n");
-        for (ColumnMetadata col : columns) {
-            prompt.append("- ").append(col.name()).append(": ").append(col.typeName());
-            if (col.size() > 0) {
-                prompt.append("(").append(col.size());
-                if (col.decimalDigits() > 0) {
-                    prompt.append(",").append(col.decimalDigits());
-                }
-                prompt.append(")");
-            }
-            prompt.append(" - ").append(col.remarks()).append("\n");
-        }
-        prompt.append("\n严格要求：\n");
-        prompt.append("1. 生成恰好 ").append(rowCount).append(" 行数据\n");
-        prompt.append("2. 以CSV格式返回数据，使用逗号作为分隔符\n");
-        prompt.append("3. 不要包含列标题，不需要多余内容，直接输出数据\n");
-        prompt.append("4. 如果值包含逗号，请用双引号包围\n");
-        prompt.append("5. 认真核对表结构，表总共有").append(columns.size()).append("列，禁止添加其他列。此外还需要确保数据类型与列规格匹配\n");
-        prompt.append("6. 日期使用 YYYY-MM-DD 格式、布尔值使用 true/false、数值类型请遵守精度和小数位数\n");
-        return prompt.toString();
+        return chatCompletionRequest;
     }
 
-    private static List<String[]> parseCSVData(String csvData, int expectedRows, int expectedColumns) {
-        String trimmed = csvData.trim();
-
-        List<String[]> dataList = new java.util.ArrayList<>();
-        String[] lines = trimmed.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            List<String> values = new java.util.ArrayList<>();
-            StringBuilder currentValue = new StringBuilder();
-            boolean inQuotes = false;
-            for (int i = 0; i < line.length(); i++) {
-                char c = line.charAt(i);
-                if (c == '"') {
-                    inQuotes = !inQuotes;
-                } else if (c == ',' && !inQuotes) {
-                    values.add(currentValue.toString().trim());
-                    currentValue = new StringBuilder();
-                } else {
-                    currentValue.append(c);
-                }
-            }
-            values.add(currentValue.toString().trim());
-            if (values.size() > expectedColumns) {
-                values = values.subList(0, expectedColumns);
-                dataList.add(values.toArray(new String[0]));
-            } else if (values.size() == expectedColumns) {
-                dataList.add(values.toArray(new String[0]));
-            }
-        }
-        return dataList;
-    }
-
-
 }
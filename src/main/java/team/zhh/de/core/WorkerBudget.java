@@ -0,0 +1,77 @@
+package team.zhh.de.core;
+
+/**
+ * 生成任务的工作线程预算
+ * 一次表加载先申请租约，再按需领取工作槽：开始时至少等到一个，运行中有空闲槽时追加，
+ * 其他任务在等待且本任务占用超过公平份额时，工作线程在当前工作单元结束后归还工作槽
+ */
+public interface WorkerBudget {
+
+    /**
+     * 不限制：要多少给多少，从不让出
+     */
+    Lease UNLIMITED_LEASE = new Lease() {
+        @Override
+        public int acquire(int wanted) {
+            return wanted;
+        }
+
+        @Override
+        public int tryAcquire(int wanted) {
+            return wanted;
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public boolean shouldYield() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    WorkerBudget UNLIMITED = (maxWorkers, usesConnection, bytesPerWorker) -> UNLIMITED_LEASE;
+
+    /**
+     * @param maxWorkers 本次加载最多使用的工作线程数
+     * @param usesConnection 每个工作线程是否占用一个目标库连接
+     * @param bytesPerWorker 每个工作线程的批次缓冲估计占用的堆内存
+     */
+    Lease lease(int maxWorkers, boolean usesConnection, long bytesPerWorker);
+
+    interface Lease extends AutoCloseable {
+        /**
+         * 阻塞直到至少领到一个工作槽
+         * @return 领到的工作槽数，1..wanted
+         */
+        int acquire(int wanted) throws InterruptedException;
+
+        /**
+         * 不阻塞，领取当前可用的工作槽
+         * @return 领到的工作槽数，0..wanted
+         */
+        int tryAcquire(int wanted);
+
+        /**
+         * 归还一个工作槽
+         */
+        void release();
+
+        /**
+         * 其他任务在等待且本任务占用超过公平份额时返回 true，调用方结束当前工作线程后 release；
+         * 返回 true 时即记为待归还，多个工作线程同时检查不会一起让出
+         */
+        boolean shouldYield();
+
+        /**
+         * 归还全部工作槽
+         */
+        @Override
+        void close();
+    }
+}
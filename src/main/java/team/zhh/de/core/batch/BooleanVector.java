@@ -0,0 +1,48 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 布尔列缓冲区，按位存储
+ */
+public class BooleanVector extends ColumnVector {
+    private final long[] bits;
+
+    public BooleanVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.bits = new long[(capacity + 63) >>> 6];
+    }
+
+    public void set(int row, boolean value) {
+        if (value) {
+            bits[row >>> 6] |= 1L << row;
+        } else {
+            bits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    public boolean get(int row) {
+        return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        set(row, Boolean.parseBoolean(text));
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        ps.setBoolean(index, get(row));
+    }
+
+    /**
+     * 以 1/0 输出，PostgreSQL boolean 与 MySQL tinyint(1) 均可接受
+     */
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        out.append(get(row) ? '1' : '0');
+    }
+}
@@ -0,0 +1,154 @@
+package team.zhh.de.core.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+/**
+ * 单列的类型化缓冲区
+ * 按 DataTypeCategory 选择基本类型数组存储，写库时直接以对应类型绑定，不经过字符串格式化与解析
+ */
+public abstract class ColumnVector {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnVector.class);
+
+    protected final ColumnMetadata column;
+    protected final int capacity;
+    // 空值位图
+    private final long[] nulls;
+    // 无法解析为目标类型的原始文本，按字符串写入（仅文本输入时懒加载）
+    private String[] raw;
+
+    protected ColumnVector(ColumnMetadata column, int capacity) {
+        this.column = column;
+        this.capacity = capacity;
+        this.nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * 根据列类型创建对应的缓冲区
+     */
+    public static ColumnVector forColumn(ColumnMetadata column, int capacity) {
+        switch (column.dataTypeCategory()) {
+            case INTEGER:
+                return new LongVector(column, capacity);
+            case FLOAT:
+                if (DecimalVector.isDecimal(column)) {
+                    return new DecimalVector(column, capacity);
+                }
+                return new DoubleVector(column, capacity);
+            case DATE:
+                if (TimestampVector.isTimestamp(column)) {
+                    return new TimestampVector(column, capacity);
+                }
+                return new DateVector(column, capacity);
+            case BOOLEAN:
+                return new BooleanVector(column, capacity);
+            default: // STRING, BINARY, UNKNOWN
+                return new StringVector(column, capacity);
+        }
+    }
+
+    public ColumnMetadata column() {
+        return column;
+    }
+
+    public void setNull(int row) {
+        nulls[row >>> 6] |= 1L << row;
+    }
+
+    public boolean isNull(int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * 清除该行的空值标记和原始文本，覆盖已写入的行之前调用
+     */
+    public void clear(int row) {
+        nulls[row >>> 6] &= ~(1L << row);
+        if (raw != null) {
+            raw[row] = null;
+        }
+    }
+
+    /**
+     * 写入文本值（AI引擎输出），解析为列类型；解析失败时保留原文按字符串写入
+     */
+    public void setText(int row, String text) {
+        if (text == null || text.trim().isEmpty()) {
+            setNull(row);
+            return;
+        }
+        try {
+            parse(row, text);
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            // 如果类型转换失败，尝试作为字符串处理
+            logger.warn("Failed to convert value '{}' to {} for column {}. Using as string.", text, column.dataTypeCategory(), column.name());
+            if (raw == null) {
+                raw = new String[capacity];
+            }
+            raw[row] = text;
+        }
+    }
+
+    /**
+     * 绑定到 PreparedStatement
+     */
+    public void bind(PreparedStatement ps, int index, int row) throws SQLException {
+        if (isNull(row)) {
+            ps.setNull(index, Types.NULL);
+            return;
+        }
+        if (raw != null && raw[row] != null) {
+            ps.setString(index, raw[row]);
+            return;
+        }
+        bindValue(ps, index, row);
+    }
+
+    /**
+     * 以文本形式追加非空值，不做转义；空值由调用方处理
+     */
+    public void appendText(StringBuilder out, int row) {
+        if (raw != null && raw[row] != null) {
+            out.append(raw[row]);
+            return;
+        }
+        appendValue(out, row);
+    }
+
+    /**
+     * 无法解析为列类型而保留的原始文本，没有则返回 null
+     */
+    public String rawText(int row) {
+        return raw == null ? null : raw[row];
+    }
+
+    /**
+     * 该行的文本是否可能包含分隔符、换行等需要转义的字符
+     */
+    public boolean needsEscape(int row) {
+        return raw != null && raw[row] != null;
+    }
+
+    /**
+     * 清空缓冲区以便复用，类型化数组本身不清零，由下一轮写入覆盖
+     */
+    public void reset() {
+        Arrays.fill(nulls, 0L);
+        if (raw != null) {
+            Arrays.fill(raw, null);
+        }
+    }
+
+    protected abstract void parse(int row, String text);
+
+    protected abstract void bindValue(PreparedStatement ps, int index, int row) throws SQLException;
+
+    protected abstract void appendValue(StringBuilder out, int row);
+}
@@ -0,0 +1,74 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * 日期列缓冲区，以 epoch day 存储
+ */
+public class DateVector extends ColumnVector {
+    private final int[] epochDays;
+
+    public DateVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.epochDays = new int[capacity];
+    }
+
+    public void set(int row, int epochDay) {
+        epochDays[row] = epochDay;
+    }
+
+    public int get(int row) {
+        return epochDays[row];
+    }
+
+    /**
+     * 解析 yyyy-MM-dd 为 epoch day，写入与 AI 输出校验共用
+     */
+    public static int parseEpochDay(String text) {
+        return (int) Date.valueOf(text).toLocalDate().toEpochDay();
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        epochDays[row] = parseEpochDay(text);
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        ps.setDate(index, Date.valueOf(LocalDate.ofEpochDay(epochDays[row])));
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        appendIsoDate(out, epochDays[row]);
+    }
+
+    /**
+     * 按 yyyy-MM-dd 输出 epoch day，不创建 LocalDate（civil_from_days 算法）
+     */
+    static void appendIsoDate(StringBuilder out, long epochDay) {
+        long z = epochDay + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long year = yoe + era * 400;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        if (month <= 2) year++;
+        if (year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        out.append(year).append('-');
+        if (month < 10) out.append('0');
+        out.append(month).append('-');
+        if (day < 10) out.append('0');
+        out.append(day);
+    }
+}
@@ -0,0 +1,110 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * NUMERIC/DECIMAL列缓冲区
+ * 以固定小数位的 long 非标度值存储，超出 long 范围的值单独保存为 BigDecimal
+ */
+public class DecimalVector extends ColumnVector {
+    private final int scale;
+    private final long[] unscaled;
+    // 超出 long 范围的值（懒加载）
+    private BigDecimal[] overflow;
+
+    public DecimalVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.scale = Math.max(0, column.decimalDigits());
+        this.unscaled = new long[capacity];
+    }
+
+    public static boolean isDecimal(ColumnMetadata column) {
+        return "NUMERIC".equalsIgnoreCase(column.typeName()) || "DECIMAL".equalsIgnoreCase(column.typeName());
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * 写入非标度值，实际值为 unscaledValue × 10^-scale
+     */
+    public void setUnscaled(int row, long unscaledValue) {
+        unscaled[row] = unscaledValue;
+    }
+
+    public long getUnscaled(int row) {
+        return unscaled[row];
+    }
+
+    public BigDecimal getOverflow(int row) {
+        return overflow == null ? null : overflow[row];
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        BigDecimal value = new BigDecimal(text).setScale(scale, RoundingMode.HALF_UP);
+        if (value.precision() - value.scale() > 18 - scale) {
+            if (overflow == null) {
+                overflow = new BigDecimal[capacity];
+            }
+            overflow[row] = value;
+            return;
+        }
+        unscaled[row] = value.unscaledValue().longValue();
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        if (overflow != null && overflow[row] != null) {
+            ps.setBigDecimal(index, overflow[row]);
+            return;
+        }
+        ps.setBigDecimal(index, BigDecimal.valueOf(unscaled[row], scale));
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (overflow != null) {
+            Arrays.fill(overflow, null);
+        }
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        if (overflow != null && overflow[row] != null) {
+            out.append(overflow[row].toPlainString());
+            return;
+        }
+        appendUnscaled(out, unscaled[row], scale);
+    }
+
+    /**
+     * 不创建 BigDecimal 直接输出定点小数
+     */
+    static void appendUnscaled(StringBuilder out, long unscaledValue, int scale) {
+        if (scale == 0) {
+            out.append(unscaledValue);
+            return;
+        }
+        if (unscaledValue < 0) {
+            out.append('-');
+        }
+        int start = out.length();
+        // Long.MIN_VALUE 取绝对值会溢出，先转成无符号字符串
+        out.append(Long.toUnsignedString(Math.abs(unscaledValue)));
+        int digits = out.length() - start;
+        // 不足 scale+1 位时左侧补零
+        for (int i = digits; i <= scale; i++) {
+            out.insert(start, '0');
+        }
+        out.insert(out.length() - scale, '.');
+    }
+}
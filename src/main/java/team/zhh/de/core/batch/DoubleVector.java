@@ -0,0 +1,41 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 浮点列缓冲区（FLOAT/DOUBLE/REAL等）
+ */
+public class DoubleVector extends ColumnVector {
+    private final double[] values;
+
+    public DoubleVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.values = new double[capacity];
+    }
+
+    public void set(int row, double value) {
+        values[row] = value;
+    }
+
+    public double get(int row) {
+        return values[row];
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        values[row] = Double.parseDouble(text);
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        ps.setDouble(index, values[row]);
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        out.append(values[row]);
+    }
+}
@@ -0,0 +1,41 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 整数列缓冲区
+ */
+public class LongVector extends ColumnVector {
+    private final long[] values;
+
+    public LongVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.values = new long[capacity];
+    }
+
+    public void set(int row, long value) {
+        values[row] = value;
+    }
+
+    public long get(int row) {
+        return values[row];
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        values[row] = Long.parseLong(text);
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        ps.setLong(index, values[row]);
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        out.append(values[row]);
+    }
+}
@@ -0,0 +1,79 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.util.List;
+
+/**
+ * 列式行批次
+ * 每个需要生成的列对应一个类型化缓冲区，批次由接收端创建并循环复用
+ */
+public class RowBatch {
+    private final List<ColumnMetadata> columns;
+    private final ColumnVector[] vectors;
+    private final int capacity;
+    private int size;
+
+    public RowBatch(List<ColumnMetadata> columns, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+        this.vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = ColumnVector.forColumn(columns.get(i), capacity);
+        }
+    }
+
+    /**
+     * 追加一行并返回其行号，调用方随后按列写入该行的值
+     */
+    public int nextRow() {
+        if (size >= capacity) {
+            throw new IllegalStateException("RowBatch is full, capacity = " + capacity);
+        }
+        return size++;
+    }
+
+    /**
+     * 以文本形式写入一整行，按各列类型解析
+     */
+    public void setText(int row, String[] values) {
+        int n = Math.min(values.length, vectors.length);
+        for (int i = 0; i < n; i++) {
+            vectors[i].setText(row, values[i]);
+        }
+        for (int i = n; i < vectors.length; i++) {
+            vectors[i].setNull(row);
+        }
+    }
+
+    public ColumnVector vector(int column) {
+        return vectors[column];
+    }
+
+    public List<ColumnMetadata> columns() {
+        return columns;
+    }
+
+    public int columnCount() {
+        return vectors.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size >= capacity;
+    }
+
+    public void reset() {
+        size = 0;
+        for (ColumnVector vector : vectors) {
+            vector.reset();
+        }
+    }
+}
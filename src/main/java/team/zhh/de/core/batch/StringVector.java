@@ -0,0 +1,107 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.nio.CharBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 字符串列缓冲区（STRING/BINARY/UNKNOWN）
+ * 随机生成的字符串直接写入复用的字符块，文本写出时按区间读取，不为每个值创建 String
+ */
+public class StringVector extends ColumnVector {
+    private final String[] values;
+    // 字符块中的起始位置与长度，长度为 -1 表示该行的值在 values 中
+    private final int[] offsets;
+    private final int[] lengths;
+    private char[] slab;
+    private int slabUsed;
+
+    public StringVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.values = new String[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        Arrays.fill(lengths, -1);
+    }
+
+    public void set(int row, String value) {
+        values[row] = value;
+        lengths[row] = -1;
+    }
+
+    /**
+     * 复制字符写入字符块，调用方保证文本不含分隔符、换行、反斜杠等需要转义的字符
+     */
+    public void setPlain(int row, char[] chars, int offset, int length) {
+        reserve(length);
+        System.arraycopy(chars, offset, slab, slabUsed, length);
+        commitPlain(row, length);
+    }
+
+    /**
+     * 从字符视图（如内存映射的语料）按绝对位置批量复制，不改变视图的位置，可多线程共享同一视图
+     */
+    public void setPlain(int row, CharBuffer chars, int offset, int length) {
+        reserve(length);
+        chars.get(offset, slab, slabUsed, length);
+        commitPlain(row, length);
+    }
+
+    private void reserve(int length) {
+        if (slab == null || slabUsed + length > slab.length) {
+            int required = slabUsed + length;
+            slab = Arrays.copyOf(slab == null ? new char[0] : slab, Math.max(required, Math.max(capacity * 16, slabUsed * 2)));
+        }
+    }
+
+    private void commitPlain(int row, int length) {
+        values[row] = null;
+        offsets[row] = slabUsed;
+        lengths[row] = length;
+        slabUsed += length;
+    }
+
+    public String get(int row) {
+        if (lengths[row] >= 0) {
+            // 需要 String 的写入路径（JDBC、二进制COPY）才创建
+            return new String(slab, offsets[row], lengths[row]);
+        }
+        return values[row];
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        set(row, text);
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        ps.setString(index, get(row));
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        // 释放字符串引用，避免复用的批次长期持有上一轮的数据；字符块保留复用
+        Arrays.fill(values, null);
+        Arrays.fill(lengths, -1);
+        slabUsed = 0;
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        if (lengths[row] >= 0) {
+            out.append(slab, offsets[row], lengths[row]);
+        } else {
+            out.append(values[row]);
+        }
+    }
+
+    @Override
+    public boolean needsEscape(int row) {
+        return lengths[row] < 0 || super.needsEscape(row);
+    }
+}
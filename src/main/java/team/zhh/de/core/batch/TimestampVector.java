@@ -0,0 +1,115 @@
+package team.zhh.de.core.batch;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * 日期时间列缓冲区（DATETIME / TIMESTAMP / TIMESTAMPTZ / TIME），以 epoch 微秒存储
+ * TIME 列只保存当天的微秒数；时间戳按不带时区的本地时间处理，与文本写入时一致
+ */
+public class TimestampVector extends ColumnVector {
+    public static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    private final boolean timeOnly;
+    private final long[] micros;
+
+    public TimestampVector(ColumnMetadata column, int capacity) {
+        super(column, capacity);
+        this.timeOnly = isTime(column);
+        this.micros = new long[capacity];
+    }
+
+    /**
+     * DATE 类列中需要保留时间部分的类型，其余（DATE）使用 DateVector
+     */
+    public static boolean isTimestamp(ColumnMetadata column) {
+        String type = column.typeName() == null ? "" : column.typeName().toUpperCase();
+        return "DATETIME".equals(type) || "TIMESTAMP".equals(type) || "TIMESTAMPTZ".equals(type) || "TIME".equals(type);
+    }
+
+    public static boolean isTime(ColumnMetadata column) {
+        return "TIME".equalsIgnoreCase(column.typeName());
+    }
+
+    /**
+     * 解析文本为微秒数，写入与 AI 输出校验共用
+     * 时间戳接受 yyyy-MM-dd、yyyy-MM-dd HH:mm:ss[.f] 与 ISO 的 T 分隔形式；TIME 接受 HH:mm[:ss[.f]]
+     */
+    public static long parseMicros(String text, boolean timeOnly) {
+        if (timeOnly) {
+            return LocalTime.parse(text).toNanoOfDay() / 1000;
+        }
+        if (text.length() <= 10) {
+            return DateVector.parseEpochDay(text) * MICROS_PER_DAY;
+        }
+        LocalDateTime value = LocalDateTime.parse(text.replace(' ', 'T'));
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1000;
+    }
+
+    public boolean isTimeOnly() {
+        return timeOnly;
+    }
+
+    public void set(int row, long value) {
+        micros[row] = value;
+    }
+
+    public long get(int row) {
+        return micros[row];
+    }
+
+    @Override
+    protected void parse(int row, String text) {
+        micros[row] = parseMicros(text, timeOnly);
+    }
+
+    @Override
+    protected void bindValue(PreparedStatement ps, int index, int row) throws SQLException {
+        long value = micros[row];
+        if (timeOnly) {
+            ps.setObject(index, LocalTime.ofNanoOfDay(Math.floorMod(value, MICROS_PER_DAY) * 1000));
+        } else {
+            long seconds = Math.floorDiv(value, 1_000_000L);
+            ps.setObject(index, LocalDateTime.ofEpochSecond(seconds, (int) Math.floorMod(value, 1_000_000L) * 1000, ZoneOffset.UTC));
+        }
+    }
+
+    @Override
+    protected void appendValue(StringBuilder out, int row) {
+        long value = micros[row];
+        if (!timeOnly) {
+            DateVector.appendIsoDate(out, Math.floorDiv(value, MICROS_PER_DAY));
+            out.append(' ');
+        }
+        appendTime(out, Math.floorMod(value, MICROS_PER_DAY));
+    }
+
+    /**
+     * 按 HH:mm:ss[.ffffff] 输出当天的微秒数，没有小数部分时省略
+     */
+    private static void appendTime(StringBuilder out, long microOfDay) {
+        long seconds = microOfDay / 1_000_000;
+        int fraction = (int) (microOfDay % 1_000_000);
+        appendTwoDigits(out, seconds / 3600).append(':');
+        appendTwoDigits(out, seconds / 60 % 60).append(':');
+        appendTwoDigits(out, seconds % 60);
+        if (fraction != 0) {
+            out.append('.');
+            String digits = Integer.toString(fraction);
+            for (int i = digits.length(); i < 6; i++) {
+                out.append('0');
+            }
+            out.append(digits);
+        }
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, long value) {
+        if (value < 10) out.append('0');
+        return out.append(value);
+    }
+}
@@ -0,0 +1,168 @@
+package team.zhh.de.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * AI 生成结果的本地磁盘缓存
+ * 以表结构、模型和提示词的指纹为键，每个键一个字典编码的数据集文件；表结构未变时重复生成直接回放缓存的行，不再调用模型。
+ * 总大小超过上限时按最近使用时间（命中时刷新文件修改时间）淘汰，重启后仍然有效
+ */
+@Component
+public class AiDatasetCache {
+    private static final Logger logger = LoggerFactory.getLogger(AiDatasetCache.class);
+    private static final String SUFFIX = ".ds";
+
+    @Value("${aiengine.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aiengine.cache.dir:./data/ai-cache}")
+    private String cacheDir;
+
+    @Value("${aiengine.cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    // 单表行数超过该值时不缓存，避免记录时占用过多内存
+    @Value("${aiengine.cache.max-rows:200000}")
+    private int maxRows;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 需要缓存时返回用于记录生成结果的空数据集，否则返回 null
+     */
+    public EncodedDataset recorder(int columnCount, int rowCount) {
+        return enabled && rowCount <= maxRows ? new EncodedDataset(columnCount) : null;
+    }
+
+    /**
+     * 缓存键：引擎、模型、各列元数据与提示词的 SHA-256
+     */
+    public String key(String engine, String model, List<ColumnMetadata> columns, String prompt) {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(engine).append('\n').append(model).append('\n');
+        for (ColumnMetadata col : columns) {
+            fingerprint.append(col.name()).append('|').append(col.typeName()).append('|').append(col.size())
+                .append('|').append(col.decimalDigits()).append('|').append(col.nullable())
+                .append('|').append(col.primaryKey()).append('|').append(col.unique()).append('|').append(col.foreignKey())
+                .append('|').append(col.remarks()).append('\n');
+        }
+        fingerprint.append(prompt);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取至少有 rowCount 行的缓存，没有或行数不足时返回 null
+     */
+    public EncodedDataset get(String key, int rowCount) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = file(key);
+        try {
+            if (EncodedDataset.readSize(file) < rowCount) {
+                return null;
+            }
+            EncodedDataset dataset = EncodedDataset.read(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return dataset;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable AI dataset cache {}: {}", file.getFileName(), e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // 下次写入时覆盖
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 保存完整生成的数据集，已有的缓存行数更多时保留原缓存；写入失败只记录日志
+     */
+    public void put(String key, EncodedDataset dataset) {
+        if (!enabled || dataset.size() == 0) {
+            return;
+        }
+        Path file = file(key);
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file) && EncodedDataset.readSize(file) > dataset.size()) {
+                return;
+            }
+            dataset.write(file);
+            logger.debug("Cached {} AI generated rows in {} ({} bytes)", dataset.size(), file.getFileName(), Files.size(file));
+            evict();
+        } catch (IOException e) {
+            logger.warn("Failed to cache AI generated rows: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 总大小超过上限时删除最久未使用的数据集
+     */
+    private synchronized void evict() throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(Paths.get(cacheDir), "*" + SUFFIX)) {
+            for (Path entry : entries) {
+                files.add(entry);
+                total += Files.size(entry);
+            }
+        }
+        long limit = maxSizeMb * 1024 * 1024;
+        if (total <= limit) {
+            return;
+        }
+        files.sort(Comparator.comparing(AiDatasetCache::lastModified));
+        for (Path entry : files) {
+            if (total <= limit) {
+                break;
+            }
+            long size = Files.size(entry);
+            if (Files.deleteIfExists(entry)) {
+                total -= size;
+                logger.debug("Evicted AI dataset cache {}", entry.getFileName());
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path file(String key) {
+        return Paths.get(cacheDir, key + SUFFIX);
+    }
+}
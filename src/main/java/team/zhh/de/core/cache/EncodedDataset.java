@@ -0,0 +1,180 @@
+package team.zhh.de.core.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列字典编码的文本行集合
+ * 每列的不同取值只保存一次，行中保存取值在字典中的编号；AI 生成的数据重复取值多（城市、状态、类别等），编码后通常远小于 CSV。
+ * 文件格式：魔数 "DEDS0001"、列数、行数，随后逐列写入字典（个数 + 各取值的 UTF-8）与全部行的编号（变长整数）
+ */
+public final class EncodedDataset {
+    private static final byte[] MAGIC = "DEDS0001".getBytes(StandardCharsets.US_ASCII);
+
+    private final int columnCount;
+    private final List<List<String>> dictionaries;
+    // 仅在追加行时使用的取值 -> 编号索引
+    private final List<Map<String, Integer>> lookups;
+    private int[][] codes;
+    private int size;
+
+    public EncodedDataset(int columnCount) {
+        this(columnCount, 1024);
+    }
+
+    private EncodedDataset(int columnCount, int capacity) {
+        this.columnCount = columnCount;
+        this.dictionaries = new ArrayList<>(columnCount);
+        this.lookups = new ArrayList<>(columnCount);
+        this.codes = new int[columnCount][Math.max(capacity, 1)];
+        for (int j = 0; j < columnCount; j++) {
+            dictionaries.add(new ArrayList<>());
+            lookups.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 追加一行，列数不足的部分按空串保存
+     */
+    public void add(String[] row) {
+        if (size == codes[0].length) {
+            for (int j = 0; j < columnCount; j++) {
+                codes[j] = Arrays.copyOf(codes[j], size * 2);
+            }
+        }
+        for (int j = 0; j < columnCount; j++) {
+            String value = j < row.length && row[j] != null ? row[j] : "";
+            List<String> dictionary = dictionaries.get(j);
+            codes[j][size] = lookups.get(j).computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 解码第 index 行，每次返回新数组，接收端可以就地修改
+     */
+    public String[] row(int index) {
+        String[] row = new String[columnCount];
+        for (int j = 0; j < columnCount; j++) {
+            row[j] = dictionaries.get(j).get(codes[j][index]);
+        }
+        return row;
+    }
+
+    /**
+     * 先写临时文件再原子替换，同一文件并发写入时以后完成的为准
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.write(MAGIC);
+            out.writeInt(columnCount);
+            out.writeInt(size);
+            for (int j = 0; j < columnCount; j++) {
+                List<String> dictionary = dictionaries.get(j);
+                writeVarInt(out, dictionary.size());
+                for (String value : dictionary) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(out, bytes.length);
+                    out.write(bytes);
+                }
+                for (int i = 0; i < size; i++) {
+                    writeVarInt(out, codes[j][i]);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 只读取文件头中的行数
+     */
+    public static int readSize(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("不是有效的数据集缓存文件: " + file);
+            }
+            in.readInt();
+            return in.readInt();
+        }
+    }
+
+    public static EncodedDataset read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("不是有效的数据集缓存文件: " + file);
+            }
+            int columnCount = in.readInt();
+            int size = in.readInt();
+            if (columnCount <= 0 || size < 0) {
+                throw new IOException("数据集缓存文件已损坏: " + file);
+            }
+            EncodedDataset dataset = new EncodedDataset(columnCount, size);
+            for (int j = 0; j < columnCount; j++) {
+                int dictionarySize = readVarInt(in);
+                List<String> dictionary = dataset.dictionaries.get(j);
+                for (int k = 0; k < dictionarySize; k++) {
+                    byte[] bytes = new byte[readVarInt(in)];
+                    in.readFully(bytes);
+                    dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                for (int i = 0; i < size; i++) {
+                    int code = readVarInt(in);
+                    if (code >= dictionarySize) {
+                        throw new IOException("数据集缓存文件已损坏: " + file);
+                    }
+                    dataset.codes[j][i] = code;
+                }
+            }
+            dataset.size = size;
+            return dataset;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+}
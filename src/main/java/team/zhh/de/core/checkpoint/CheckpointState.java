@@ -0,0 +1,38 @@
+package team.zhh.de.core.checkpoint;
+
+import team.zhh.base.model.GenerationRequest;
+
+import java.util.Map;
+
+/**
+ * 落盘的任务检查点
+ * @param jobId 任务id
+ * @param request 生成请求，不含密码
+ * @param createdAt 任务第一次开始的时间
+ * @param updatedAt 最近一次落盘的时间
+ * @param tables 表名 -> 加载进度，还没开始的表不在其中
+ */
+public record CheckpointState(
+    String jobId,
+    GenerationRequest request,
+    long createdAt,
+    long updatedAt,
+    Map<String, TableState> tables
+) {
+    /**
+     * 一张表的加载进度，恢复时使用同一种子与同一单元划分，跳过已提交的单元
+     * @param seed 随机种子，第 i 个单元的种子为 partitionSeed(seed, i)
+     * @param resumable 引擎与写入方式是否支持续传，不支持时只记录是否完成
+     * @param complete 是否已全部写入
+     * @param unitRows 各工作单元的行数
+     * @param committed 各工作单元是否已提交
+     */
+    public record TableState(
+        long seed,
+        boolean resumable,
+        boolean complete,
+        int[] unitRows,
+        boolean[] committed
+    ) {
+    }
+}
@@ -0,0 +1,125 @@
+package team.zhh.de.core.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.base.model.GenerationRequest;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 任务检查点的保存与读取，每个任务一个 JSON 文件
+ * 任务成功后删除；失败、取消或进程退出时保留，重新提供密码后可从检查点恢复
+ */
+@Component
+public class CheckpointStore {
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointStore.class);
+    private static final String SUFFIX = ".json";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${checkpoint.enabled:false}")
+    private boolean enabled;
+
+    @Value("${checkpoint.dir:./data/checkpoints}")
+    private String checkpointDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (CheckpointState state : list()) {
+            logger.warn("Job {} ({}) was interrupted, resume it with POST /api/jobs/{}/resume",
+                state.jobId(), state.request().getTableName(), state.jobId());
+        }
+    }
+
+    /**
+     * 任务开始时调用：有检查点时从中恢复，否则新建；未开启时返回 null
+     */
+    public JobCheckpoint open(String jobId, GenerationRequest request) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        Path file = file(jobId);
+        if (Files.exists(file)) {
+            return JobCheckpoint.of(this, objectMapper.readValue(file.toFile(), CheckpointState.class));
+        }
+        return new JobCheckpoint(this, jobId, request, System.currentTimeMillis());
+    }
+
+    /**
+     * 先写临时文件再原子替换，落盘失败只记录日志，不影响正在进行的加载
+     */
+    void save(JobCheckpoint checkpoint) {
+        synchronized (checkpoint) {
+            try {
+                Path file = file(checkpoint.getJobId());
+                Files.createDirectories(file.getParent());
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                objectMapper.writeValue(tmp.toFile(), checkpoint.snapshot());
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Failed to save checkpoint of job {}: {}", checkpoint.getJobId(), e.getMessage());
+            }
+        }
+    }
+
+    public CheckpointState load(String jobId) throws IOException {
+        Path file = file(jobId);
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("任务检查点不存在: " + jobId);
+        }
+        return objectMapper.readValue(file.toFile(), CheckpointState.class);
+    }
+
+    /**
+     * 全部检查点，按最近更新时间倒序
+     */
+    public List<CheckpointState> list() throws IOException {
+        Path directory = Paths.get(checkpointDir);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<CheckpointState> states = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    states.add(objectMapper.readValue(file.toFile(), CheckpointState.class));
+                } catch (IOException e) {
+                    logger.warn("Unreadable checkpoint {}: {}", file.getFileName(), e.getMessage());
+                }
+            }
+        }
+        states.sort(Comparator.comparingLong(CheckpointState::updatedAt).reversed());
+        return states;
+    }
+
+    public boolean delete(String jobId) throws IOException {
+        try {
+            Files.delete(file(jobId));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Path file(String jobId) {
+        if (jobId == null || !jobId.matches("[\\w-]+")) {
+            throw new IllegalArgumentException("任务id只能包含字母、数字、下划线和横线: " + jobId);
+        }
+        return Paths.get(checkpointDir, jobId + SUFFIX);
+    }
+}
@@ -0,0 +1,73 @@
+package team.zhh.de.core.checkpoint;
+
+import team.zhh.base.model.GenerationRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个任务的检查点，表开始、单元提交和表完成时由 CheckpointStore 落盘
+ */
+public final class JobCheckpoint {
+    private final CheckpointStore store;
+    private final String jobId;
+    private final GenerationRequest request;
+    private final long createdAt;
+    private final Map<String, TableCheckpoint> tables = new ConcurrentHashMap<>();
+
+    JobCheckpoint(CheckpointStore store, String jobId, GenerationRequest request, long createdAt) {
+        this.store = store;
+        this.jobId = jobId;
+        // 不保存密码，恢复时由调用方重新提供
+        this.request = request.toBuilder().password(null).build();
+        this.createdAt = createdAt;
+    }
+
+    static JobCheckpoint of(CheckpointStore store, CheckpointState state) {
+        JobCheckpoint checkpoint = new JobCheckpoint(store, state.jobId(), state.request(), state.createdAt());
+        if (state.tables() != null) {
+            state.tables().forEach((table, tableState) -> checkpoint.tables.put(table, new TableCheckpoint(checkpoint, table, tableState)));
+        }
+        return checkpoint;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * 上次运行留下的表进度，没有时返回 null
+     */
+    public TableCheckpoint table(String tableName) {
+        return tables.get(tableName);
+    }
+
+    /**
+     * 开始加载一张表，先落盘种子与工作单元划分再写入数据
+     */
+    public TableCheckpoint start(String tableName, long seed, boolean resumable, int[] unitRows) {
+        TableCheckpoint table = tables.computeIfAbsent(tableName, k -> new TableCheckpoint(this, tableName,
+            new CheckpointState.TableState(seed, resumable, false, unitRows, new boolean[unitRows.length])));
+        persist();
+        return table;
+    }
+
+    public void complete(String tableName) {
+        TableCheckpoint table = tables.get(tableName);
+        if (table != null) {
+            table.complete();
+            persist();
+        }
+    }
+
+    void persist() {
+        store.save(this);
+    }
+
+    CheckpointState snapshot() {
+        Map<String, CheckpointState.TableState> states = new LinkedHashMap<>();
+        tables.forEach((table, checkpoint) -> states.put(table, checkpoint.snapshot()));
+        return new CheckpointState(jobId, request, createdAt, System.currentTimeMillis(), states);
+    }
+}
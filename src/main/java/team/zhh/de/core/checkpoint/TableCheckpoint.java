@@ -0,0 +1,98 @@
+package team.zhh.de.core.checkpoint;
+
+import team.zhh.de.core.sink.CommitMarker;
+
+import java.util.Set;
+
+/**
+ * 一张表的加载进度
+ * 每个工作单元在一个事务中写入，事务内同时写入目标库的单元标记（UnitMarkers），提交后再落盘本地记录；
+ * 恢复时以目标库中的标记校正本地记录，已提交的单元跳过、其余单元按原种子重新生成
+ */
+public final class TableCheckpoint {
+    private final JobCheckpoint job;
+    private final String tableName;
+    private final long seed;
+    private final boolean resumable;
+    private final int[] unitRows;
+    private final boolean[] committed;
+    private volatile boolean complete;
+
+    TableCheckpoint(JobCheckpoint job, String tableName, CheckpointState.TableState state) {
+        this.job = job;
+        this.tableName = tableName;
+        this.seed = state.seed();
+        this.resumable = state.resumable();
+        this.complete = state.complete();
+        this.unitRows = state.unitRows().clone();
+        this.committed = state.committed() != null && state.committed().length == unitRows.length
+            ? state.committed().clone() : new boolean[unitRows.length];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isResumable() {
+        return resumable;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int[] getUnitRows() {
+        return unitRows.clone();
+    }
+
+    public synchronized boolean isCommitted(int unit) {
+        return committed[unit];
+    }
+
+    public synchronized long committedRows() {
+        long rows = 0;
+        for (int i = 0; i < unitRows.length; i++) {
+            if (committed[i]) {
+                rows += unitRows[i];
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 单元的提交标记，写入接收端的单元事务
+     */
+    public CommitMarker marker(int unit) {
+        return UnitMarkers.marker(job.getJobId(), tableName, unit);
+    }
+
+    /**
+     * 按目标库中的单元标记校正已提交的单元并落盘
+     */
+    public void reconcile(Set<Integer> committedUnits) {
+        synchronized (this) {
+            for (int i = 0; i < committed.length; i++) {
+                committed[i] = committedUnits.contains(i);
+            }
+        }
+        job.persist();
+    }
+
+    /**
+     * 单元的事务已提交，立即落盘
+     */
+    public void commit(int unit) {
+        synchronized (this) {
+            committed[unit] = true;
+        }
+        job.persist();
+    }
+
+    void complete() {
+        complete = true;
+    }
+
+    synchronized CheckpointState.TableState snapshot() {
+        return new CheckpointState.TableState(seed, resumable, complete, unitRows.clone(), committed.clone());
+    }
+}
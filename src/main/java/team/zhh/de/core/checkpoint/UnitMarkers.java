@@ -0,0 +1,82 @@
+package team.zhh.de.core.checkpoint;
+
+import team.zhh.de.core.sink.CommitMarker;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 目标库中的工作单元提交标记
+ * 单元的数据与标记行在同一事务中提交，恢复时以标记为准判断哪些单元已写入，
+ * 提交后、本地检查点落盘前退出也不会重写已提交的单元。表加载完成并落盘后删除该表的标记
+ */
+public final class UnitMarkers {
+    static final String TABLE = "dataeden_unit_marker";
+
+    private UnitMarkers() {
+    }
+
+    /**
+     * 创建标记表（MySQL 与 PostgreSQL 均支持 IF NOT EXISTS），没有建表权限时抛出 SQLException
+     */
+    public static void ensureTable(DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (job_id VARCHAR(64) NOT NULL, table_name VARCHAR(255) NOT NULL,"
+                + " unit_no INT NOT NULL, PRIMARY KEY (job_id, table_name, unit_no))");
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+    }
+
+    /**
+     * 已提交的单元序号
+     */
+    public static Set<Integer> committedUnits(DataSource dataSource, String jobId, String tableName) throws SQLException {
+        Set<Integer> units = new HashSet<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT unit_no FROM " + TABLE + " WHERE job_id = ? AND table_name = ?")) {
+            ps.setString(1, jobId);
+            ps.setString(2, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    units.add(rs.getInt(1));
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * 单元的标记，由接收端在提交单元事务前写入；重复写入违反主键，整个单元回滚
+     */
+    static CommitMarker marker(String jobId, String tableName, int unit) {
+        return conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO " + TABLE + " (job_id, table_name, unit_no) VALUES (?, ?, ?)")) {
+                ps.setString(1, jobId);
+                ps.setString(2, tableName);
+                ps.setInt(3, unit);
+                ps.executeUpdate();
+            }
+        };
+    }
+
+    public static void clear(DataSource dataSource, String jobId, String tableName) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE job_id = ? AND table_name = ?")) {
+            ps.setString(1, jobId);
+            ps.setString(2, tableName);
+            ps.executeUpdate();
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+    }
+}
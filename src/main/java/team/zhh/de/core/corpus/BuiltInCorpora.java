@@ -0,0 +1,131 @@
+package team.zhh.de.core.corpus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * 内置语料：由 classpath:corpus/ 下的词表组合生成，固定种子，每次打包的内容相同
+ */
+final class BuiltInCorpora {
+    static final List<String> NAMES = List.of(
+        "first_name", "last_name", "name", "email", "city", "address", "company", "word",
+        "chinese_name", "chinese_city", "chinese_address", "chinese_company");
+
+    private static final String[] STREET_TYPES = {"St", "Ave", "Rd", "Blvd", "Ln", "Dr", "Way", "Ct", "Pl"};
+    private static final String[] COMPANY_SUFFIXES = {"Inc", "LLC", "Ltd", "Group", "Corp", "Co"};
+    private static final String[] EMAIL_SEPARATORS = {".", "_", ""};
+    private static final String[] CHINESE_ROAD_TYPES = {"路", "街", "大道"};
+    private static final String[] CHINESE_COMPANY_TYPES = {"有限公司", "股份有限公司", "有限责任公司"};
+
+    private BuiltInCorpora() {
+    }
+
+    /**
+     * @param maxEntries 组合生成的语料最多保留的取值数
+     */
+    static List<String> build(String name, int maxEntries) throws IOException {
+        SplittableRandom random = new SplittableRandom(name.hashCode());
+        switch (name) {
+            case "first_name":
+                return list("first_names");
+            case "last_name":
+                return list("last_names");
+            case "city":
+                return list("cities");
+            case "word":
+                return list("words");
+            case "chinese_city":
+                return list("chinese_cities");
+            case "name": {
+                List<String> first = list("first_names");
+                List<String> last = list("last_names");
+                return combine(maxEntries, r -> pick(r, first) + " " + pick(r, last), random);
+            }
+            case "email": {
+                List<String> first = list("first_names");
+                List<String> last = list("last_names");
+                List<String> domains = list("email_domains");
+                return combine(maxEntries, r -> (pick(r, first) + pick(r, EMAIL_SEPARATORS) + pick(r, last)).toLowerCase(Locale.ROOT)
+                    + (r.nextInt(3) == 0 ? "" : String.valueOf(r.nextInt(1000))) + "@" + pick(r, domains), random);
+            }
+            case "address": {
+                List<String> streets = list("streets");
+                List<String> cities = list("cities");
+                return combine(maxEntries, r -> (1 + r.nextInt(9999)) + " " + pick(r, streets) + " " + pick(r, STREET_TYPES)
+                    + " " + pick(r, cities), random);
+            }
+            case "company": {
+                List<String> words = list("company_words");
+                List<String> industries = list("company_industries");
+                return combine(maxEntries, r -> pick(r, words) + (r.nextInt(3) == 0 ? " " + pick(r, words) : "")
+                    + " " + pick(r, industries) + " " + pick(r, COMPANY_SUFFIXES), random);
+            }
+            case "chinese_name": {
+                List<String> surnames = list("chinese_surnames");
+                List<String> given = list("chinese_given");
+                return combine(maxEntries, r -> pick(r, surnames) + pick(r, given) + (r.nextInt(3) == 0 ? "" : pick(r, given)), random);
+            }
+            case "chinese_address": {
+                List<String> cities = list("chinese_cities");
+                List<String> roads = list("chinese_roads");
+                return combine(maxEntries, r -> pick(r, cities) + "市" + pick(r, roads) + pick(r, CHINESE_ROAD_TYPES)
+                    + (1 + r.nextInt(999)) + "号" + (r.nextBoolean() ? "" : (1 + r.nextInt(30)) + "栋" + (101 + r.nextInt(2000)) + "室"), random);
+            }
+            case "chinese_company": {
+                List<String> cities = list("chinese_cities");
+                List<String> words = list("chinese_company_words");
+                List<String> industries = list("chinese_industries");
+                return combine(maxEntries, r -> pick(r, cities) + pick(r, words) + pick(r, industries)
+                    + pick(r, CHINESE_COMPANY_TYPES), random);
+            }
+            default:
+                throw new IllegalArgumentException("没有内置语料: " + name);
+        }
+    }
+
+    /**
+     * 随机组合出不重复的取值，组合空间小于 maxEntries 时尝试次数用尽即停止
+     */
+    private static List<String> combine(int maxEntries, Function<SplittableRandom, String> generator, SplittableRandom random) {
+        Set<String> values = new LinkedHashSet<>();
+        for (long attempts = (long) maxEntries * 3; attempts > 0 && values.size() < maxEntries; attempts--) {
+            values.add(generator.apply(random));
+        }
+        return new ArrayList<>(values);
+    }
+
+    private static String pick(SplittableRandom random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<String> list(String resource) throws IOException {
+        try (InputStream in = BuiltInCorpora.class.getResourceAsStream("/corpus/" + resource + ".txt")) {
+            if (in == null) {
+                throw new IOException("缺少词表 corpus/" + resource + ".txt");
+            }
+            List<String> values = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.strip();
+                if (!line.isEmpty()) {
+                    values.add(line);
+                }
+            }
+            return values;
+        }
+    }
+}
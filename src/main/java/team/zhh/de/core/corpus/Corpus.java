@@ -0,0 +1,121 @@
+package team.zhh.de.core.corpus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 内存映射的语料（词典）
+ * 文件格式（小端）：魔数 "DEDICT01"、取值个数 n、保留4字节、n+1 个字符偏移（int）、全部取值的 UTF-16 字符。
+ * 映射后偏移与字符都是对映射区的只读视图，数据在堆外、由操作系统页缓存共享；按下标绝对读取，多线程并发抽样不需要同步
+ */
+public final class Corpus {
+    private static final byte[] MAGIC = "DEDICT01".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 16;
+
+    private final String name;
+    private final int size;
+    private final IntBuffer offsets;
+    private final CharBuffer chars;
+
+    private Corpus(String name, int size, IntBuffer offsets, CharBuffer chars) {
+        this.name = name;
+        this.size = size;
+        this.offsets = offsets;
+        this.chars = chars;
+    }
+
+    /**
+     * 只读映射打包好的语料文件
+     */
+    public static Corpus open(String name, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("语料文件超过2GB: " + file);
+            }
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(0, magic);
+            int size = buffer.getInt(MAGIC.length);
+            long charsStart = HEADER_SIZE + 4L * (size + 1);
+            if (!Arrays.equals(magic, MAGIC) || size <= 0 || charsStart > length) {
+                throw new IOException("不是有效的语料文件: " + file);
+            }
+            IntBuffer offsets = buffer.slice(HEADER_SIZE, 4 * (size + 1)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int charCount = offsets.get(size);
+            if (charsStart + 2L * charCount > length) {
+                throw new IOException("语料文件不完整: " + file);
+            }
+            CharBuffer chars = buffer.slice((int) charsStart, 2 * charCount).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+            return new Corpus(name, size, offsets, chars);
+        }
+    }
+
+    /**
+     * 把取值打包写入语料文件，先写临时文件再原子替换
+     */
+    public static void write(Path file, Collection<String> values) throws IOException {
+        int charCount = 0;
+        for (String value : values) {
+            charCount += value.length();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * (values.size() + 1) + 2 * charCount)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(values.size()).putInt(0);
+        int offset = 0;
+        buffer.putInt(offset);
+        for (String value : values) {
+            offset += value.length();
+            buffer.putInt(offset);
+        }
+        for (String value : values) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.putChar(value.charAt(i));
+            }
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第 index 个取值在字符视图中的起始位置
+     */
+    public int offset(int index) {
+        return offsets.get(index);
+    }
+
+    public int length(int index) {
+        return offsets.get(index + 1) - offsets.get(index);
+    }
+
+    /**
+     * 全部取值的字符视图，只能按绝对位置读取
+     */
+    public CharBuffer chars() {
+        return chars;
+    }
+}
@@ -0,0 +1,159 @@
+package team.zhh.de.core.corpus;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字符串列的语料
+ * 启动时把内置语料和语料目录下的文本语料（每行一个取值，文件名即语料名）打包为 .dict 文件并映射，
+ * 文本比打包文件新时重新打包。随机引擎按列名或备注为字符串列选择语料，备注中写 corpus:语料名 可直接指定
+ */
+@Component
+public class CorpusRegistry {
+    /** 词语语料，匹配到它的文本列由多个词组成 */
+    public static final String WORDS = "word";
+    private static final Logger logger = LoggerFactory.getLogger(CorpusRegistry.class);
+    private static final Pattern EXPLICIT = Pattern.compile("corpus:([\\w-]+)");
+    private static final Pattern CJK = Pattern.compile("\\p{IsHan}");
+
+    // 按列名（小写）匹配的规则，依次尝试，第一个匹配的生效
+    private static final List<Rule> RULES = List.of(
+        new Rule(Pattern.compile("e?mail"), Pattern.compile("邮箱|邮件"), "email", "email"),
+        new Rule(Pattern.compile("first_?name|given_?name|fore_?name"), null, "first_name", "chinese_name"),
+        new Rule(Pattern.compile("last_?name|sur_?name|family_?name"), null, "last_name", "chinese_name"),
+        new Rule(Pattern.compile("company|corp|vendor|supplier|manufacturer|employer|organi[sz]ation|org_?name"),
+            Pattern.compile("公司|单位|企业|厂商|供应商|机构"), "company", "chinese_company"),
+        new Rule(Pattern.compile("address|addr|street"), Pattern.compile("地址|住址"), "address", "chinese_address"),
+        new Rule(Pattern.compile("city"), Pattern.compile("城市|市$"), "city", "chinese_city"),
+        new Rule(Pattern.compile("^(full_?|real_?|nick_?|user_?|display_?)?name$|^(contact|patient|doctor|customer|employee|author|owner|person)(_?name)?$"),
+            Pattern.compile("姓名|名字|联系人|患者|医生|客户|员工|作者"), "name", "chinese_name"),
+        new Rule(Pattern.compile("title|desc|description|remark|comment|note|content|summary|product"),
+            Pattern.compile("描述|标题|备注|说明|内容|摘要|商品|产品"), "word", "word")
+    );
+
+    @Value("${corpus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${corpus.dir:./data/corpus}")
+    private String corpusDir;
+
+    // 组合生成的内置语料（姓名、地址、公司等）最多保留的取值数
+    @Value("${corpus.built-in-size:200000}")
+    private int builtInSize;
+
+    private final Map<String, Corpus> corpora = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Paths.get(corpusDir);
+        Files.createDirectories(directory);
+        for (String name : BuiltInCorpora.NAMES) {
+            Path file = directory.resolve(name + ".dict");
+            if (!Files.exists(file)) {
+                Corpus.write(file, BuiltInCorpora.build(name, builtInSize));
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.txt")) {
+            for (Path text : files) {
+                Path file = directory.resolve(baseName(text) + ".dict");
+                if (!Files.exists(file) || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(text)) < 0) {
+                    pack(text, file);
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.dict")) {
+            for (Path file : files) {
+                try {
+                    Corpus corpus = Corpus.open(baseName(file), file);
+                    corpora.put(corpus.name(), corpus);
+                } catch (IOException e) {
+                    logger.warn("Skipping corpus {}: {}", file.getFileName(), e.getMessage());
+                }
+            }
+        }
+        logger.info("Loaded {} corpora from {}: {}", corpora.size(), directory.toAbsolutePath(), corpora.keySet());
+    }
+
+    public Corpus get(String name) {
+        return corpora.get(name);
+    }
+
+    /**
+     * 为字符串列选择语料：备注中指定的优先，其次按列名与备注匹配，备注含中文时使用中文语料；没有匹配时返回 null
+     */
+    public Corpus match(ColumnMetadata column) {
+        String remarks = column.remarks() == null ? "" : column.remarks();
+        Matcher explicit = EXPLICIT.matcher(remarks);
+        if (explicit.find()) {
+            Corpus corpus = corpora.get(explicit.group(1));
+            if (corpus == null) {
+                logger.warn("Corpus {} specified for column {} does not exist", explicit.group(1), column.name());
+            }
+            return corpus;
+        }
+        String name = column.name().toLowerCase(Locale.ROOT);
+        boolean chinese = CJK.matcher(remarks).find();
+        for (Rule rule : RULES) {
+            if (rule.namePattern().matcher(name).find()
+                || (rule.remarksPattern() != null && rule.remarksPattern().matcher(remarks).find())) {
+                return corpora.get(chinese ? rule.chineseCorpus() : rule.corpus());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 文本语料中需要转义的取值（含分隔符、引号、反斜杠）不打包，重复的取值保留，出现次数即抽样权重
+     */
+    private static void pack(Path text, Path file) throws IOException {
+        List<String> values = Files.readAllLines(text, StandardCharsets.UTF_8).stream()
+            .map(String::strip)
+            .filter(value -> !value.isEmpty() && isPlain(value))
+            .toList();
+        if (values.isEmpty()) {
+            logger.warn("Corpus {} has no usable values", text.getFileName());
+            return;
+        }
+        Corpus.write(file, values);
+        logger.info("Packed corpus {}: {} values", text.getFileName(), values.size());
+    }
+
+    private static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case '\\', '\t', '\n', '\r', ',', '"', '\'':
+                    return false;
+                default:
+            }
+        }
+        return true;
+    }
+
+    private static String baseName(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+
+    private record Rule(Pattern namePattern, Pattern remarksPattern, String corpus, String chineseCorpus) {
+    }
+}
@@ -0,0 +1,76 @@
+package team.zhh.de.core.key;
+
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.StringVector;
+
+/**
+ * 短字符串键：start + 行号 的定宽36进制（0-9A-Z，左侧补0）
+ * 定宽时字典序与数值顺序一致，续写时可由 MAX(列) 求出起点
+ */
+public class Base36KeyGenerator implements KeyGenerator {
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final long start;
+    private final int width;
+
+    public Base36KeyGenerator(long start, int width) {
+        this.start = start;
+        this.width = width;
+    }
+
+    @Override
+    public void fill(ColumnVector vector, int row, long rowNumber) {
+        if (vector instanceof StringVector stringVector) {
+            stringVector.set(row, text(rowNumber));
+        } else {
+            vector.setText(row, text(rowNumber));
+        }
+    }
+
+    @Override
+    public String text(long rowNumber) {
+        return encode(start + rowNumber, width);
+    }
+
+    static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) Long.remainderUnsigned(value, 36)];
+            value = Long.divideUnsigned(value, 36);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 解析本生成器输出格式的键，格式不符或超过 Long.MAX_VALUE（生成器不会产生）时返回 -1
+     */
+    static long decode(String text, int width) {
+        if (text == null || text.length() != width) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 36);
+            if (digit < 0 || Character.isLowerCase(text.charAt(i))) {
+                return -1;
+            }
+            if (value > (Long.MAX_VALUE - digit) / 36) {
+                return -1;
+            }
+            value = value * 36 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * 容纳 value 所需的36进制位数
+     */
+    static int digitsFor(long value) {
+        int digits = 1;
+        while (Long.compareUnsigned(value, 36) >= 0) {
+            value = Long.divideUnsigned(value, 36);
+            digits++;
+        }
+        return digits;
+    }
+}
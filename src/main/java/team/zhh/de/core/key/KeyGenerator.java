@@ -0,0 +1,20 @@
+package team.zhh.de.core.key;
+
+import team.zhh.de.core.batch.ColumnVector;
+
+/**
+ * 主键/唯一列取值生成器
+ * 取值只由该行在整个任务中的行号决定，各分区的行号区间互不重叠，因此无需加锁或访问数据库即可保证不重复
+ */
+public interface KeyGenerator {
+
+    /**
+     * 把行号对应的键写入批次
+     */
+    void fill(ColumnVector vector, int row, long rowNumber);
+
+    /**
+     * 行号对应的键的文本形式
+     */
+    String text(long rowNumber);
+}
@@ -0,0 +1,128 @@
+package team.zhh.de.core.key;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 按列类型创建键生成器，每个任务每列只在开始时查询一次 MAX(列)
+ */
+public final class KeyGenerators {
+    private static final Logger logger = LoggerFactory.getLogger(KeyGenerators.class);
+    private static final SecureRandom SALT = new SecureRandom();
+    // long 最多需要13位36进制
+    private static final int MAX_BASE36_WIDTH = 13;
+    private static final int UUID_LENGTH = 36;
+
+    private KeyGenerators() {
+    }
+
+    /**
+     * @param rows 本次生成的行数，用于检查列的取值范围是否够用
+     * @param startAboveMax 从表中现有最大值之后开始，追加数据时不与已有的键冲突
+     * @return 不支持生成唯一值的列类型返回 null
+     */
+    public static KeyGenerator create(DataSource dataSource, String quotedTable, String quotedColumn,
+                                      ColumnMetadata column, long rows, boolean startAboveMax) throws SQLException {
+        switch (column.dataTypeCategory()) {
+            case INTEGER:
+            case FLOAT: {
+                long start = 1;
+                long limit = maxValue(column);
+                if (startAboveMax) {
+                    BigDecimal max = queryMax(dataSource, quotedTable, quotedColumn, BigDecimal.class);
+                    if (max != null && max.compareTo(BigDecimal.valueOf(limit)) >= 0) {
+                        throw new IllegalStateException("列 " + column.name() + " (" + column.typeName() + ") 的现有最大值 "
+                            + max.toPlainString() + " 已达到上限 " + limit + "，无法继续生成不重复的值");
+                    }
+                    if (max != null) {
+                        start = Math.max(start, max.longValue() + 1);
+                    }
+                }
+                // start <= limit，按剩余个数比较，避免 start + rows 溢出
+                if (rows > limit - start + 1) {
+                    throw new IllegalStateException("列 " + column.name() + " (" + column.typeName() + ") 的取值范围不足以生成 "
+                        + rows + " 个不重复的值，起点 " + start + "，上限 " + limit);
+                }
+                logger.debug("Key column {} uses sequence starting at {}", column.name(), start);
+                return new SequenceKeyGenerator(start);
+            }
+            case STRING:
+            case UNKNOWN: {
+                if ("UUID".equalsIgnoreCase(column.typeName()) || column.size() >= UUID_LENGTH) {
+                    if (rows > UuidKeyGenerator.MAX_ROWS) {
+                        throw new IllegalStateException("列 " + column.name() + " 单次最多生成 " + UuidKeyGenerator.MAX_ROWS + " 个不重复的 UUID");
+                    }
+                    return new UuidKeyGenerator(System.currentTimeMillis(), SALT.nextLong());
+                }
+                int width = column.size() > 0 ? Math.min(column.size(), MAX_BASE36_WIDTH) : MAX_BASE36_WIDTH;
+                long start = 0;
+                if (startAboveMax) {
+                    String max = queryMax(dataSource, quotedTable, quotedColumn, String.class);
+                    long decoded = Base36KeyGenerator.decode(max, width);
+                    if (decoded >= 0) {
+                        start = decoded + 1;
+                    } else if (max != null) {
+                        logger.warn("Existing keys in {}.{} are not in the generated format, new keys may collide with them", quotedTable, quotedColumn);
+                    }
+                }
+                // decode 不超过 Long.MAX_VALUE，最后一个键为 start + rows - 1
+                long last = rows > 0 ? start + rows - 1 : start;
+                if (start < 0 || last < start || Base36KeyGenerator.digitsFor(last) > width) {
+                    throw new IllegalStateException("列 " + column.name() + " 的长度 " + column.size() + " 不足以生成 " + rows + " 个不重复的值");
+                }
+                logger.debug("Key column {} uses base36 keys of width {} starting at {}", column.name(), width, start);
+                return new Base36KeyGenerator(start, width);
+            }
+            default:
+                logger.warn("Column {} ({}) cannot be given unique generated values", column.name(), column.typeName());
+                return null;
+        }
+    }
+
+    private static <T> T queryMax(DataSource dataSource, String quotedTable, String quotedColumn, Class<T> type) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(" + quotedColumn + ") FROM " + quotedTable)) {
+            return rs.next() ? rs.getObject(1, type) : null;
+        }
+    }
+
+    /**
+     * 整数/定点列可容纳的最大键
+     */
+    static long maxValue(ColumnMetadata column) {
+        String type = column.typeName() == null ? "" : column.typeName().toUpperCase();
+        switch (type) {
+            case "TINYINT":
+                return Byte.MAX_VALUE;
+            case "SMALLINT":
+            case "INT2":
+                return Short.MAX_VALUE;
+            case "INT":
+            case "INTEGER":
+            case "INT4":
+            case "SERIAL":
+                return Integer.MAX_VALUE;
+            case "DECIMAL":
+            case "NUMERIC": {
+                // 整数部分位数 = 精度 - 小数位；没有整数部分时放不下任何正整数键
+                int digits = column.size() - Math.max(0, column.decimalDigits());
+                if (digits <= 0) {
+                    return column.size() > 0 ? 0 : Long.MAX_VALUE;
+                }
+                return digits < 19 ? (long) Math.pow(10, digits) - 1 : Long.MAX_VALUE;
+            }
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package team.zhh.de.core.key;
+
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+
+/**
+ * 数值键：start + 行号
+ */
+public class SequenceKeyGenerator implements KeyGenerator {
+    private final long start;
+
+    public SequenceKeyGenerator(long start) {
+        this.start = start;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    @Override
+    public void fill(ColumnVector vector, int row, long rowNumber) {
+        long key = start + rowNumber;
+        if (vector instanceof LongVector longVector) {
+            longVector.set(row, key);
+        } else if (vector instanceof DecimalVector decimal) {
+            decimal.setUnscaled(row, Math.multiplyExact(key, pow10(decimal.scale())));
+        } else if (vector instanceof DoubleVector doubleVector) {
+            doubleVector.set(row, key);
+        } else {
+            vector.setText(row, Long.toString(key));
+        }
+    }
+
+    @Override
+    public String text(long rowNumber) {
+        return Long.toString(start + rowNumber);
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
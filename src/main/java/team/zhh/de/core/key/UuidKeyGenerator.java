@@ -0,0 +1,40 @@
+package team.zhh.de.core.key;
+
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.StringVector;
+
+import java.util.UUID;
+
+/**
+ * 时间有序的 UUID（版本7布局）
+ * 高48位为任务开始的毫秒时间戳，随后为随机的任务盐值，最低40位为行号：同一任务内按行号不重复，不同任务由时间戳和盐值区分
+ */
+public class UuidKeyGenerator implements KeyGenerator {
+    private static final long ROW_BITS = 40;
+    // 行号超过40位时回绕，单个任务的行数不能超过该值
+    static final long MAX_ROWS = 1L << ROW_BITS;
+
+    private final long mostSigBits;
+    private final long leastSigBase;
+
+    public UuidKeyGenerator(long timestampMillis, long salt) {
+        // 48位时间戳 | 版本7 | 12位盐值
+        this.mostSigBits = (timestampMillis << 16) | 0x7000L | (salt & 0x0FFFL);
+        // 变体 10 | 22位盐值 | 40位行号
+        this.leastSigBase = 0x8000000000000000L | (((salt >>> 12) & 0x3FFFFFL) << ROW_BITS);
+    }
+
+    @Override
+    public void fill(ColumnVector vector, int row, long rowNumber) {
+        if (vector instanceof StringVector stringVector) {
+            stringVector.set(row, text(rowNumber));
+        } else {
+            vector.setText(row, text(rowNumber));
+        }
+    }
+
+    @Override
+    public String text(long rowNumber) {
+        return new UUID(mostSigBits, leastSigBase | (rowNumber & (MAX_ROWS - 1))).toString();
+    }
+}
@@ -0,0 +1,47 @@
+package team.zhh.de.core.profile;
+
+import team.zhh.base.model.ColumnMetadata;
+
+import java.util.List;
+
+/**
+ * 单列的取值分布画像
+ * 高频值单独记录频率，其余取值（长尾）数值/日期列按等深直方图生成，字符串列按 Zipf 分布在 tailDistinct 个取值中抽取
+ * @param name 列名
+ * @param category 列类型分类，与目标列不一致时不使用该画像
+ * @param nullRatio 空值比例
+ * @param distinctCount 不同取值数（HyperLogLog 估计）
+ * @param topValues 高频值（文本形式，日期为 yyyy-MM-dd），按频率降序
+ * @param topFrequencies 高频值各自占全部行的比例
+ * @param histogram 长尾取值的等深直方图边界（数值、日期为 epoch day、字符串为长度），每个桶的概率相同
+ * @param zipfExponent 按高频值的频率-排名拟合的 Zipf 指数，0 表示长尾均匀分布
+ */
+public record ColumnProfile(
+    String name,
+    ColumnMetadata.DataTypeCategory category,
+    double nullRatio,
+    long distinctCount,
+    List<String> topValues,
+    double[] topFrequencies,
+    double[] histogram,
+    double zipfExponent
+) {
+
+    /**
+     * 长尾部分占全部行的比例
+     */
+    public double tailRatio() {
+        double top = 0;
+        for (double frequency : topFrequencies) {
+            top += frequency;
+        }
+        return Math.max(0, 1 - nullRatio - top);
+    }
+
+    /**
+     * 长尾部分的不同取值数
+     */
+    public long tailDistinct() {
+        return Math.max(0, distinctCount - topValues.size());
+    }
+}
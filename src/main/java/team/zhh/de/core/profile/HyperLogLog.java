@@ -0,0 +1,54 @@
+package team.zhh.de.core.profile;
+
+/**
+ * 不同取值数的近似计数，4096 个寄存器（4KB），标准误差约 1.6%
+ */
+final class HyperLogLog {
+    private static final int P = 12;
+    private static final int M = 1 << P;
+
+    private final byte[] registers = new byte[M];
+
+    void add(String value) {
+        long hash = hash64(value);
+        int index = (int) (hash >>> (64 - P));
+        int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / M);
+        double estimate = alpha * M * M / sum;
+        // 小基数时使用线性计数
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double) M / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * FNV-1a 后接 SplitMix64 混合，使高位分布均匀
+     */
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
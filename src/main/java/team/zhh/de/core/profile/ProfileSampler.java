@@ -0,0 +1,227 @@
+package team.zhh.de.core.profile;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.StringVector;
+import team.zhh.de.core.batch.TimestampVector;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 按列画像生成取值
+ * 编译时把高频值解析为列的类型化取值，并用别名表把 空值/各高频值/长尾 合成一个离散分布；
+ * 逐行生成时一次别名表抽样决定取哪一类，长尾再按直方图或 Zipf 抽取，不创建对象
+ */
+public final class ProfileSampler {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final int NULL = 0;
+
+    private final AliasTable outcomes;
+    // 高频值个数，别名表下标 1..topCount 为高频值，topCount+1 为长尾
+    private final int topCount;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    private final char[][] charValues;
+    private final String[] escapedValues;
+    private final double[] histogram;
+    private final ZipfSampler zipf;
+    private final long salt;
+    private final int maxLength;
+    private final long decimalFactor;
+    private final char[] scratch;
+
+    private ProfileSampler(AliasTable outcomes, int topCount, long[] longValues, double[] doubleValues, char[][] charValues,
+                           String[] escapedValues, double[] histogram, ZipfSampler zipf, long salt, int maxLength,
+                           long decimalFactor) {
+        this.outcomes = outcomes;
+        this.topCount = topCount;
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+        this.charValues = charValues;
+        this.escapedValues = escapedValues;
+        this.histogram = histogram;
+        this.zipf = zipf;
+        this.salt = salt;
+        this.maxLength = maxLength;
+        this.decimalFactor = decimalFactor;
+        this.scratch = new char[Math.max(1, maxLength)];
+    }
+
+    /**
+     * 为列缓冲区编译采样器，画像与列类型不一致或取值无法转换为列类型时返回 null
+     */
+    public static ProfileSampler compile(ColumnVector target, ColumnProfile profile) {
+        ColumnMetadata col = target.column();
+        if (profile == null || profile.category() != col.dataTypeCategory()) {
+            return null;
+        }
+        List<String> top = profile.topValues();
+        int n = top.size();
+        long[] longValues = null;
+        double[] doubleValues = null;
+        char[][] charValues = null;
+        String[] escapedValues = null;
+        long decimalFactor = 1;
+        try {
+            if (target instanceof LongVector || target instanceof DateVector || target instanceof TimestampVector
+                || target instanceof BooleanVector) {
+                longValues = new long[n];
+                for (int i = 0; i < n; i++) {
+                    String value = top.get(i);
+                    longValues[i] = target instanceof DateVector ? LocalDate.parse(value).toEpochDay()
+                        : target instanceof TimestampVector t ? TimestampVector.parseMicros(value, t.isTimeOnly())
+                        : target instanceof BooleanVector ? (Boolean.parseBoolean(value) ? 1 : 0)
+                        : new BigDecimal(value).longValueExact();
+                }
+            } else if (target instanceof DecimalVector decimal) {
+                decimalFactor = BigDecimal.TEN.pow(decimal.scale()).longValueExact();
+                longValues = new long[n];
+                for (int i = 0; i < n; i++) {
+                    longValues[i] = new BigDecimal(top.get(i)).setScale(decimal.scale(), RoundingMode.HALF_UP)
+                        .unscaledValue().longValueExact();
+                }
+            } else if (target instanceof DoubleVector) {
+                doubleValues = new double[n];
+                for (int i = 0; i < n; i++) {
+                    doubleValues[i] = Double.parseDouble(top.get(i));
+                }
+            } else {
+                charValues = new char[n][];
+                escapedValues = new String[n];
+                for (int i = 0; i < n; i++) {
+                    String value = truncate(top.get(i), col.size());
+                    // 含分隔符、引号等字符的值按普通字符串写入，由写出端转义
+                    if (isPlain(value)) {
+                        charValues[i] = value.toCharArray();
+                    } else {
+                        escapedValues[i] = value;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        double[] weights = new double[n + 2];
+        weights[NULL] = col.nullable() ? profile.nullRatio() : 0;
+        double[] frequencies = profile.topFrequencies();
+        for (int i = 0; i < n; i++) {
+            weights[i + 1] = frequencies[i];
+        }
+        boolean stringTail = charValues != null && profile.tailDistinct() > 0;
+        boolean numericTail = charValues == null && profile.histogram().length > 1;
+        weights[n + 1] = stringTail || numericTail ? profile.tailRatio() : 0;
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        if (total <= 0) {
+            return null;
+        }
+        ZipfSampler zipf = stringTail ? new ZipfSampler(profile.tailDistinct(), profile.zipfExponent()) : null;
+        int maxLength = col.size() > 0 && col.size() < 1000 ? col.size() : 255;
+        return new ProfileSampler(new AliasTable(weights), n, longValues, doubleValues, charValues, escapedValues,
+            profile.histogram(), zipf, HyperLogLog.hash64(col.name()), maxLength, decimalFactor);
+    }
+
+    public void fill(SplittableRandom random, ColumnVector vector, int row) {
+        int outcome = outcomes.sample(random);
+        if (outcome == NULL) {
+            vector.setNull(row);
+        } else if (outcome <= topCount) {
+            setTop(vector, row, outcome - 1);
+        } else if (zipf != null) {
+            setTailString((StringVector) vector, row, zipf.sample(random));
+        } else {
+            setTailNumber(random, vector, row);
+        }
+    }
+
+    private void setTop(ColumnVector vector, int row, int index) {
+        if (vector instanceof LongVector v) {
+            v.set(row, longValues[index]);
+        } else if (vector instanceof DecimalVector v) {
+            v.setUnscaled(row, longValues[index]);
+        } else if (vector instanceof DoubleVector v) {
+            v.set(row, doubleValues[index]);
+        } else if (vector instanceof DateVector v) {
+            v.set(row, (int) longValues[index]);
+        } else if (vector instanceof TimestampVector v) {
+            v.set(row, longValues[index]);
+        } else if (vector instanceof BooleanVector v) {
+            v.set(row, longValues[index] != 0);
+        } else if (charValues[index] != null) {
+            ((StringVector) vector).setPlain(row, charValues[index], 0, charValues[index].length);
+        } else {
+            ((StringVector) vector).set(row, escapedValues[index]);
+        }
+    }
+
+    /**
+     * 等深直方图：均匀选一个桶，在桶内均匀取值
+     */
+    private void setTailNumber(SplittableRandom random, ColumnVector vector, int row) {
+        int bucket = random.nextInt(histogram.length - 1);
+        double value = histogram[bucket] + random.nextDouble() * (histogram[bucket + 1] - histogram[bucket]);
+        if (vector instanceof LongVector v) {
+            v.set(row, Math.round(value));
+        } else if (vector instanceof DecimalVector v) {
+            v.setUnscaled(row, Math.round(value * decimalFactor));
+        } else if (vector instanceof DoubleVector v) {
+            v.set(row, value);
+        } else if (vector instanceof DateVector v) {
+            v.set(row, (int) Math.round(value));
+        } else if (vector instanceof TimestampVector v) {
+            v.set(row, Math.round(value));
+        } else {
+            ((BooleanVector) vector).set(row, random.nextBoolean());
+        }
+    }
+
+    /**
+     * 长尾字符串由排名确定：同一排名总是生成同一个值，不同取值数与画像一致；长度按长度直方图取
+     */
+    private void setTailString(StringVector vector, int row, long rank) {
+        long bits = HyperLogLog.mix(rank ^ salt);
+        int length = maxLength;
+        if (histogram.length > 1) {
+            int bucket = (int) ((bits >>> 33) % (histogram.length - 1));
+            double fraction = (bits & 0xFFFF) / 65536.0;
+            length = (int) Math.round(histogram[bucket] + fraction * (histogram[bucket + 1] - histogram[bucket]));
+        }
+        length = Math.max(1, Math.min(length, maxLength));
+        char[] chars = scratch;
+        for (int i = 0; i < length; i++) {
+            // 每个64位值产生8个字符
+            if ((i & 7) == 0) {
+                bits = HyperLogLog.mix(bits + 0x9E3779B97F4A7C15L);
+            }
+            chars[i] = ALPHABET[(int) (((bits >>> ((i & 7) * 8)) & 0xFF) % ALPHABET.length)];
+        }
+        vector.setPlain(row, chars, 0, length);
+    }
+
+    private static String truncate(String value, int size) {
+        return size > 0 && value.length() > size ? value.substring(0, size) : value;
+    }
+
+    private static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case '\\', '\t', '\n', '\r', ',', '"', '\'':
+                    return false;
+                default:
+            }
+        }
+        return true;
+    }
+}
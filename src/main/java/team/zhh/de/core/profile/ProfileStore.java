@@ -0,0 +1,94 @@
+package team.zhh.de.core.profile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据画像的保存与读取，每个画像一个 JSON 文件，读取后缓存
+ */
+@Component
+public class ProfileStore {
+    private static final String SUFFIX = ".json";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${profile.dir:./data/profiles}")
+    private String profileDir;
+
+    private final Map<String, TableProfile> cache = new ConcurrentHashMap<>();
+
+    public void save(TableProfile profile) throws IOException {
+        Path file = file(profile.name());
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), profile);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cache.put(profile.name(), profile);
+    }
+
+    public TableProfile load(String name) throws IOException {
+        TableProfile cached = cache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        Path file = file(name);
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("数据画像不存在: " + name);
+        }
+        TableProfile profile = objectMapper.readValue(file.toFile(), TableProfile.class);
+        cache.put(name, profile);
+        return profile;
+    }
+
+    public List<String> list() throws IOException {
+        Path directory = Paths.get(profileDir);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - SUFFIX.length()));
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    public boolean delete(String name) throws IOException {
+        cache.remove(name);
+        try {
+            Files.delete(file(name));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 画像名只能包含字母、数字、下划线、点和横线，避免写到画像目录之外
+     */
+    private Path file(String name) {
+        if (name == null || !name.matches("[\\w.-]+") || name.startsWith(".")) {
+            throw new IllegalArgumentException("画像名只能包含字母、数字、下划线、点和横线: " + name);
+        }
+        return Paths.get(profileDir, name + SUFFIX);
+    }
+}
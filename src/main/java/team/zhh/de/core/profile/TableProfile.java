@@ -0,0 +1,36 @@
+package team.zhh.de.core.profile;
+
+import java.util.List;
+
+/**
+ * 从现有表采样得到的数据画像，保存为 JSON 后可被多个任务复用
+ * @param name 画像名
+ * @param tableName 采样的表名
+ * @param source 采样的库（不含参数的连接url）
+ * @param scannedRows 读取的行数
+ * @param createdAt 采样时间
+ * @param columns 各列画像
+ */
+public record TableProfile(
+    String name,
+    String tableName,
+    String source,
+    long scannedRows,
+    String createdAt,
+    List<ColumnProfile> columns
+) {
+    // 生成上下文中存放画像的属性名
+    public static final String ATTRIBUTE = "tableProfile";
+
+    /**
+     * 按列名（忽略大小写）查找列画像，没有则返回 null
+     */
+    public ColumnProfile column(String columnName) {
+        for (ColumnProfile column : columns) {
+            if (column.name().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
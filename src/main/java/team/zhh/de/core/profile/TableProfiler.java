@@ -0,0 +1,277 @@
+package team.zhh.de.core.profile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.TimestampVector;
+import team.zhh.de.dialect.SqlDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * 流式读取现有表生成数据画像，内存占用与表大小无关
+ * 每列维护：空值计数、高频值（Misra-Gries 频繁项）、不同取值数（HyperLogLog）和取值的蓄水池样本（用于直方图）
+ */
+public final class TableProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(TableProfiler.class);
+
+    private final int topK;
+    private final int histogramBuckets;
+    private final int reservoirSize;
+    private final long maxRows;
+    private final int fetchSize;
+
+    /**
+     * @param topK 每列记录的高频值个数
+     * @param histogramBuckets 直方图桶数
+     * @param reservoirSize 每列用于构建直方图的样本数
+     * @param maxRows 最多读取的行数，0 表示读取全表
+     * @param fetchSize 流式读取的 fetchSize
+     */
+    public TableProfiler(int topK, int histogramBuckets, int reservoirSize, long maxRows, int fetchSize) {
+        this.topK = topK;
+        this.histogramBuckets = histogramBuckets;
+        this.reservoirSize = reservoirSize;
+        this.maxRows = maxRows;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param columns 需要采样的列，二进制和未知类型的列不采样
+     */
+    public TableProfile profile(DataSource dataSource, SqlDialect dialect, String source, String tableName,
+                                List<ColumnMetadata> columns, String name) throws SQLException {
+        List<ColumnMetadata> sampled = columns.stream()
+            .filter(c -> c.dataTypeCategory() != ColumnMetadata.DataTypeCategory.BINARY
+                && c.dataTypeCategory() != ColumnMetadata.DataTypeCategory.UNKNOWN)
+            .toList();
+        if (sampled.isEmpty()) {
+            throw new IllegalArgumentException("No columns to profile in table: " + tableName);
+        }
+        String sql = "SELECT " + dialect.quoteColumns(sampled) + " FROM " + dialect.quote(tableName);
+        ColumnAccumulator[] accumulators = new ColumnAccumulator[sampled.size()];
+        SplittableRandom random = new SplittableRandom();
+        for (int j = 0; j < accumulators.length; j++) {
+            accumulators[j] = new ColumnAccumulator(sampled.get(j), topK, reservoirSize, random.split());
+        }
+
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            // PostgreSQL 只在事务内按 fetchSize 分批读取
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(dialect.streamingFetchSize(fetchSize));
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while ((maxRows <= 0 || rows < maxRows) && rs.next()) {
+                        for (int j = 0; j < accumulators.length; j++) {
+                            accumulators[j].add(key(rs, j + 1, sampled.get(j)));
+                        }
+                        rows++;
+                    }
+                    // MySQL 流式结果集关闭前会读完剩余的行，提前结束时取消查询
+                    if (maxRows > 0 && rows >= maxRows) {
+                        stmt.cancel();
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+
+        List<ColumnProfile> profiles = new ArrayList<>(accumulators.length);
+        for (ColumnAccumulator accumulator : accumulators) {
+            profiles.add(accumulator.build(rows, histogramBuckets));
+        }
+        logger.info("Profiled {}: {} rows, {} columns in {} ms", tableName, rows, profiles.size(), System.currentTimeMillis() - start);
+        return new TableProfile(name, tableName, source, rows, LocalDateTime.now().toString(), profiles);
+    }
+
+    /**
+     * 取值的文本形式，作为计数的键；空值返回 null
+     */
+    private static String key(ResultSet rs, int index, ColumnMetadata column) throws SQLException {
+        switch (column.dataTypeCategory()) {
+            case DATE: {
+                // 时间戳与 TIME 保留时间部分，与生成时的列缓冲区一致
+                if (TimestampVector.isTime(column)) {
+                    LocalTime time = rs.getObject(index, LocalTime.class);
+                    return time == null ? null : time.toString();
+                }
+                if (TimestampVector.isTimestamp(column)) {
+                    LocalDateTime timestamp = rs.getObject(index, LocalDateTime.class);
+                    return timestamp == null ? null : timestamp.toString();
+                }
+                Date date = rs.getDate(index);
+                return date == null ? null : date.toLocalDate().toString();
+            }
+            case BOOLEAN: {
+                boolean value = rs.getBoolean(index);
+                return rs.wasNull() ? null : String.valueOf(value);
+            }
+            default:
+                return rs.getString(index);
+        }
+    }
+
+    private static final class ColumnAccumulator {
+        private final ColumnMetadata column;
+        private final int topK;
+        private final SplittableRandom random;
+        private final HyperLogLog distinct = new HyperLogLog();
+        // 频繁项计数，超过容量时所有计数减去中位数并删除不大于0的项（批量 Misra-Gries），每项误差不超过 行数/容量
+        private final Map<String, long[]> counts = new HashMap<>();
+        private final int capacity;
+        private final String[] reservoir;
+        private long values;
+        private long nulls;
+
+        ColumnAccumulator(ColumnMetadata column, int topK, int reservoirSize, SplittableRandom random) {
+            this.column = column;
+            this.topK = topK;
+            this.capacity = Math.max(64, topK * 8);
+            this.reservoir = new String[reservoirSize];
+            this.random = random;
+        }
+
+        void add(String key) {
+            if (key == null) {
+                nulls++;
+                return;
+            }
+            distinct.add(key);
+            long[] count = counts.get(key);
+            if (count != null) {
+                count[0]++;
+            } else {
+                counts.put(key, new long[]{1});
+                if (counts.size() > capacity * 2) {
+                    prune();
+                }
+            }
+            // 蓄水池抽样
+            if (values < reservoir.length) {
+                reservoir[(int) values] = key;
+            } else {
+                long slot = random.nextLong(values + 1);
+                if (slot < reservoir.length) {
+                    reservoir[(int) slot] = key;
+                }
+            }
+            values++;
+        }
+
+        private void prune() {
+            long[] sorted = counts.values().stream().mapToLong(c -> c[0]).sorted().toArray();
+            long threshold = sorted[sorted.length - capacity];
+            counts.values().removeIf(c -> (c[0] -= threshold) <= 0);
+        }
+
+        ColumnProfile build(long rows, int buckets) {
+            List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+            entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+            long distinctCount = Math.max(distinct.estimate(), Math.min(entries.size(), values));
+            // 不同取值不多于 topK 时全部作为高频值，否则只保留频率明显高于平均的值
+            boolean exhaustive = distinctCount <= topK && entries.size() <= topK;
+            double average = distinctCount == 0 ? 0 : (double) values / distinctCount;
+            List<String> topValues = new ArrayList<>();
+            List<Double> frequencies = new ArrayList<>();
+            for (Map.Entry<String, long[]> entry : entries) {
+                long count = entry.getValue()[0];
+                if (topValues.size() >= topK || (!exhaustive && count < average * 2)) {
+                    break;
+                }
+                topValues.add(entry.getKey());
+                frequencies.add(rows == 0 ? 0 : (double) count / rows);
+            }
+            double[] topFrequencies = frequencies.stream().mapToDouble(Double::doubleValue).toArray();
+
+            // 直方图只描述高频值以外的长尾
+            Set<String> top = new HashSet<>(topValues);
+            int sampleSize = (int) Math.min(values, reservoir.length);
+            double[] tail = new double[sampleSize];
+            Map<String, Integer> tailCounts = new HashMap<>();
+            int n = 0;
+            for (int i = 0; i < sampleSize; i++) {
+                if (!top.contains(reservoir[i])) {
+                    tailCounts.merge(reservoir[i], 1, Integer::sum);
+                    double value = numeric(reservoir[i]);
+                    if (!Double.isNaN(value)) {
+                        tail[n++] = value;
+                    }
+                }
+            }
+            double[] histogram = equiDepth(Arrays.copyOf(tail, n), buckets);
+            return new ColumnProfile(column.name(), column.dataTypeCategory(),
+                rows == 0 ? 0 : (double) nulls / rows, distinctCount, topValues, topFrequencies, histogram,
+                zipfExponent(tailCounts));
+        }
+
+        private double numeric(String key) {
+            try {
+                return switch (column.dataTypeCategory()) {
+                    case INTEGER, FLOAT -> Double.parseDouble(key);
+                    case DATE -> TimestampVector.isTimestamp(column)
+                        ? TimestampVector.parseMicros(key, TimestampVector.isTime(column)) : LocalDate.parse(key).toEpochDay();
+                    case BOOLEAN -> Double.NaN;
+                    default -> key.length();
+                };
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+
+        /**
+         * 按长尾样本中取值的频率-排名做双对数线性回归估计 Zipf 指数
+         * 出现次数太少的取值主要是抽样噪声，不参与拟合；能参与拟合的取值不足时视为均匀分布
+         */
+        private static double zipfExponent(Map<String, Integer> tailCounts) {
+            int[] counts = tailCounts.values().stream().mapToInt(Integer::intValue).filter(c -> c >= 5)
+                .boxed().sorted((a, b) -> b - a).mapToInt(Integer::intValue).toArray();
+            int n = counts.length;
+            if (n < 2) {
+                return 0;
+            }
+            double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+            for (int i = 0; i < n; i++) {
+                double x = Math.log(i + 1);
+                double y = Math.log(counts[i]);
+                sumX += x;
+                sumY += y;
+                sumXX += x * x;
+                sumXY += x * y;
+            }
+            double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+            return Math.max(0, Math.min(5, -slope));
+        }
+
+        private static double[] equiDepth(double[] sample, int buckets) {
+            if (sample.length == 0) {
+                return new double[0];
+            }
+            Arrays.sort(sample);
+            int count = Math.min(buckets, sample.length);
+            double[] edges = new double[count + 1];
+            for (int i = 0; i <= count; i++) {
+                edges[i] = sample[(int) ((long) i * (sample.length - 1) / count)];
+            }
+            return edges;
+        }
+    }
+}
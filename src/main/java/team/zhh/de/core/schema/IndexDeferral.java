@@ -0,0 +1,288 @@
+package team.zhh.de.core.schema;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.de.dialect.IndexDefinition;
+import team.zhh.de.dialect.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * 延迟索引与约束的加载
+ * 加载前删除表上的二级索引，加载连接上关闭外键检查与触发器；加载结束（包括失败和取消）后并行重建索引并更新统计信息。
+ * 删除前索引定义先写入恢复日志，进程中途退出时由下一次加载该表时补建
+ */
+public final class IndexDeferral implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(IndexDeferral.class);
+
+    private final DataSource dataSource;
+    private final SqlDialect dialect;
+    private final IndexJournal journal;
+    private final String url;
+    private final String tableName;
+    private final List<IndexDefinition> indexes;
+    private final int parallelism;
+    private final DataSource loadDataSource;
+    private boolean closed;
+
+    private IndexDeferral(DataSource dataSource, SqlDialect dialect, IndexJournal journal, String url, String tableName,
+                          List<IndexDefinition> indexes, int parallelism, List<String> disableChecks) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.journal = journal;
+        this.url = url;
+        this.tableName = tableName;
+        this.indexes = indexes;
+        this.parallelism = parallelism;
+        this.loadDataSource = disableChecks.isEmpty() ? dataSource
+            : sessionDataSource(dataSource, disableChecks, dialect.enableChecksSql());
+    }
+
+    /**
+     * 按恢复日志补建上次中断的加载删除的索引
+     */
+    public static void recover(DataSource dataSource, SqlDialect dialect, IndexJournal journal, String url,
+                               String tableName, int parallelism) throws Exception {
+        List<IndexDefinition> pending = journal.pending(url, tableName);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.warn("Rebuilding {} index(es) on {} left dropped by an interrupted load", pending.size(), tableName);
+        rebuild(dataSource, dialect, tableName, pending, parallelism);
+        journal.clear(url, tableName);
+    }
+
+    /**
+     * 删除二级索引并返回加载使用的句柄，加载结束后必须调用 close
+     * @param parallelism 重建索引同时使用的连接数
+     */
+    public static IndexDeferral begin(DataSource dataSource, SqlDialect dialect, IndexJournal journal, String url,
+                                      String tableName, int parallelism) throws Exception {
+        recover(dataSource, dialect, journal, url, tableName, parallelism);
+        List<IndexDefinition> indexes;
+        List<String> disableChecks = dialect.disableChecksSql();
+        try (Connection conn = dataSource.getConnection()) {
+            indexes = dialect.deferrableIndexes(conn, tableName);
+            if (!disableChecks.isEmpty() && !trySession(conn, disableChecks, dialect.enableChecksSql())) {
+                disableChecks = List.of();
+            }
+        }
+        IndexDeferral deferral = new IndexDeferral(dataSource, dialect, journal, url, tableName, indexes, parallelism, disableChecks);
+        if (indexes.isEmpty()) {
+            logger.info("No deferrable indexes on {}", tableName);
+            return deferral;
+        }
+        journal.record(url, tableName, indexes);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String sql : dialect.dropIndexesSql(dialect.quote(tableName), indexes)) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            // 部分索引可能已删除，立即补建
+            try {
+                deferral.close();
+            } catch (Exception restoreError) {
+                e.addSuppressed(restoreError);
+            }
+            throw e;
+        }
+        logger.info("Dropped {} index(es) on {} for loading: {}", indexes.size(), tableName,
+            indexes.stream().map(IndexDefinition::name).collect(Collectors.joining(", ")));
+        return deferral;
+    }
+
+    /**
+     * 加载使用的数据源，取出的连接已关闭外键检查与触发器，归还时恢复
+     */
+    public DataSource getDataSource() {
+        return loadDataSource;
+    }
+
+    /**
+     * 重建索引、更新统计信息并删除恢复日志
+     * 任务取消时线程带有中断标记，重建期间暂时清除，避免获取连接失败
+     */
+    @Override
+    public void close() throws Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = Thread.interrupted();
+        try {
+            long start = System.currentTimeMillis();
+            if (!indexes.isEmpty()) {
+                rebuild(dataSource, dialect, tableName, indexes, parallelism);
+            }
+            String analyze = dialect.analyzeSql(dialect.quote(tableName));
+            if (analyze != null) {
+                execute(dataSource, analyze);
+            }
+            journal.clear(url, tableName);
+            logger.info("Rebuilt {} index(es) and analyzed {} in {} ms", indexes.size(), tableName,
+                System.currentTimeMillis() - start);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 只重建当前不存在的索引，重建到一半失败后再次执行不会重复创建
+     */
+    private static void rebuild(DataSource dataSource, SqlDialect dialect, String tableName, List<IndexDefinition> indexes,
+                                int parallelism) throws Exception {
+        Set<String> existing;
+        try (Connection conn = dataSource.getConnection()) {
+            existing = dialect.deferrableIndexes(conn, tableName).stream().map(IndexDefinition::name).collect(Collectors.toSet());
+        }
+        List<IndexDefinition> missing = indexes.stream().filter(index -> !existing.contains(index.name())).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<String> statements = dialect.createIndexesSql(dialect.quote(tableName), missing);
+        if (statements.size() == 1 || parallelism <= 1) {
+            for (String sql : statements) {
+                execute(dataSource, sql);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, statements.size()),
+            r -> new Thread(r, "index-" + tableName));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String sql : statements) {
+                futures.add(executor.submit(() -> {
+                    execute(dataSource, sql);
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ex ? ex : e;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+        logger.debug("{} took {} ms", sql, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 在一个连接上试执行会话语句，没有权限时退回只延迟索引
+     */
+    private static boolean trySession(Connection conn, List<String> enter, List<String> exit) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : enter) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            logger.warn("Cannot disable constraint checks and triggers, they stay enabled during the load: {}", e.getMessage());
+            return false;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : exit) {
+                stmt.execute(sql);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 包装数据源：取出连接时执行 enter 语句，归还前执行 exit 语句；恢复失败的连接从连接池中剔除，不会带着关闭的检查被其他任务复用
+     */
+    private static DataSource sessionDataSource(DataSource dataSource, List<String> enter, List<String> exit) {
+        return (DataSource) Proxy.newProxyInstance(IndexDeferral.class.getClassLoader(), new Class<?>[]{DataSource.class},
+            (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                if (!method.getName().equals("getConnection")) {
+                    return result;
+                }
+                Connection conn = (Connection) result;
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : enter) {
+                        stmt.execute(sql);
+                    }
+                } catch (SQLException e) {
+                    conn.close();
+                    throw e;
+                }
+                return sessionConnection(dataSource, conn, exit);
+            });
+    }
+
+    private static Connection sessionConnection(DataSource dataSource, Connection conn, List<String> exit) {
+        return (Connection) Proxy.newProxyInstance(IndexDeferral.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("close") || method.getParameterCount() != 0) {
+                    return invoke(conn, method, args);
+                }
+                if (conn.isClosed()) {
+                    return null;
+                }
+                try {
+                    // 先回滚未提交的数据（中止的单元不能被提交），再以自动提交执行恢复语句，
+                    // 避免 PostgreSQL 的 SET 随连接归还时的回滚一起撤销
+                    if (!conn.getAutoCommit()) {
+                        conn.rollback();
+                        conn.setAutoCommit(true);
+                    }
+                    try (Statement stmt = conn.createStatement()) {
+                        for (String sql : exit) {
+                            stmt.execute(sql);
+                        }
+                    }
+                } catch (SQLException e) {
+                    logger.warn("Failed to restore session settings, evicting connection: {}", e.getMessage());
+                    if (dataSource instanceof HikariDataSource hikari) {
+                        hikari.evictConnection(conn);
+                        return null;
+                    }
+                }
+                conn.close();
+                return null;
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
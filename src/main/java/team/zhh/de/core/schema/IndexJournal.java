@@ -0,0 +1,113 @@
+package team.zhh.de.core.schema;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.de.dialect.IndexDefinition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 延迟索引的恢复日志
+ * 删除索引前先把索引定义落盘，全部重建成功后才删除日志。进程在加载中途退出时日志保留下来，
+ * 下一次加载同一张表时先按日志补建索引。日志中不保存密码，只能在有人再次提交该表的任务时恢复
+ */
+@Component
+public class IndexJournal {
+    private static final Logger logger = LoggerFactory.getLogger(IndexJournal.class);
+    private static final String SUFFIX = ".journal";
+
+    @Value("${index-deferral.journal-dir:./data/index-journal}")
+    private String journalDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path directory = Paths.get(journalDir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                List<String> header = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .filter(line -> line.startsWith("-- ")).toList();
+                logger.warn("Indexes dropped by an interrupted load are not rebuilt yet ({}), they will be rebuilt "
+                    + "on the next load of the table: {}", file.getFileName(), String.join(", ", header));
+            }
+        }
+    }
+
+    /**
+     * 记录即将删除的索引，先写临时文件再原子替换
+     */
+    public void record(String url, String tableName, List<IndexDefinition> indexes) throws IOException {
+        Path file = file(url, tableName);
+        Files.createDirectories(file.getParent());
+        List<String> lines = new ArrayList<>();
+        // url 中可能带密码参数，只保存到库名为止
+        lines.add("-- url: " + url.replaceFirst("[?;].*$", ""));
+        lines.add("-- table: " + tableName);
+        for (IndexDefinition index : indexes) {
+            lines.add(escape(index.name()) + "\t" + escape(index.definition()));
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 尚未重建的索引，没有日志时为空
+     */
+    public List<IndexDefinition> pending(String url, String tableName) throws IOException {
+        Path file = file(url, tableName);
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        List<IndexDefinition> indexes = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (line.startsWith("-- ") || tab < 0) {
+                continue;
+            }
+            indexes.add(new IndexDefinition(unescape(line.substring(0, tab)), unescape(line.substring(tab + 1))));
+        }
+        return indexes;
+    }
+
+    public void clear(String url, String tableName) throws IOException {
+        Files.deleteIfExists(file(url, tableName));
+    }
+
+    private Path file(String url, String tableName) {
+        String key = UUID.nameUUIDFromBytes((url + "|" + tableName).getBytes(StandardCharsets.UTF_8)).toString();
+        return Paths.get(journalDir, tableName.replaceAll("[^\\w.-]", "_") + "-" + key + SUFFIX);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package team.zhh.de.core.schema;
+
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.StringVector;
+
+import java.util.SplittableRandom;
+
+/**
+ * 父表键值池，构建后只读，子表各分区以各自的随机流（SplittableRandom）并发抽样，每次抽样 O(1)
+ */
+public interface KeyPool {
+
+    /**
+     * 外键列无法取得父表键（自引用或循环依赖）且允许为空时使用，始终写入 NULL
+     */
+    KeyPool NULLS = new KeyPool() {
+        @Override
+        public long size() {
+            return 0;
+        }
+
+        @Override
+        public long sampleLong(SplittableRandom random) {
+            // sampleInto 直接写入 NULL，不会走到这里
+            throw new IllegalStateException("空键池没有可抽样的整数键，外键列只能写入 NULL");
+        }
+
+        @Override
+        public String sampleText(SplittableRandom random) {
+            return null;
+        }
+
+        @Override
+        public void sampleInto(SplittableRandom random, ColumnVector vector, int row) {
+            vector.setNull(row);
+        }
+    };
+
+    long size();
+
+    /**
+     * 随机取一个整数键，仅整数键池支持
+     */
+    long sampleLong(SplittableRandom random);
+
+    /**
+     * 随机取一个键的文本形式
+     */
+    String sampleText(SplittableRandom random);
+
+    /**
+     * 随机取一个键写入批次
+     */
+    default void sampleInto(SplittableRandom random, ColumnVector vector, int row) {
+        vector.clear(row);
+        if (vector instanceof LongVector longVector) {
+            longVector.set(row, sampleLong(random));
+        } else if (vector instanceof StringVector stringVector) {
+            stringVector.set(row, sampleText(random));
+        } else {
+            vector.setText(row, sampleText(random));
+        }
+    }
+}
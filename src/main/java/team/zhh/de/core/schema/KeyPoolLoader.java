@@ -0,0 +1,111 @@
+package team.zhh.de.core.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 从父表流式读取被引用列的全部取值构建键值池，每个父表列只查询一次
+ * 整数键连续时压缩为区间；键数超过上限时按蓄水池抽样保留均匀的子集，抽到的键仍然都有效
+ */
+public final class KeyPoolLoader {
+    private static final Logger logger = LoggerFactory.getLogger(KeyPoolLoader.class);
+
+    private KeyPoolLoader() {
+    }
+
+    /**
+     * @param quotedTable 已加引号的父表名
+     * @param quotedColumn 已加引号的被引用列名
+     * @param integerKey 被引用列是否为整数类型
+     * @param maxKeys 最多保留的键数
+     * @param fetchSize 流式读取的 fetchSize（MySQL 为 Integer.MIN_VALUE）
+     * @return 键值池，父表为空时返回 null
+     */
+    public static KeyPool load(DataSource dataSource, String quotedTable, String quotedColumn, boolean integerKey,
+                               int maxKeys, int fetchSize) throws SQLException {
+        String sql = "SELECT " + quotedColumn + " FROM " + quotedTable + " WHERE " + quotedColumn + " IS NOT NULL";
+        long start = System.currentTimeMillis();
+        try (Connection conn = dataSource.getConnection()) {
+            // PostgreSQL 只在事务内按 fetchSize 分批读取
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    KeyPool pool = integerKey ? loadLongs(rs, maxKeys) : loadStrings(rs, maxKeys);
+                    logger.info("Loaded key pool {}.{}: {} keys ({}) in {} ms", quotedTable, quotedColumn,
+                        pool == null ? 0 : pool.size(), pool == null ? "empty" : pool.getClass().getSimpleName(),
+                        System.currentTimeMillis() - start);
+                    return pool;
+                }
+            } finally {
+                conn.commit();
+            }
+        }
+    }
+
+    private static KeyPool loadLongs(ResultSet rs, int maxKeys) throws SQLException {
+        long[] keys = new long[1024];
+        int size = 0;
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        SplittableRandom random = new SplittableRandom();
+        while (rs.next()) {
+            long key = rs.getLong(1);
+            total++;
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+            if (size < maxKeys) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, (int) Math.min((long) keys.length * 2, maxKeys));
+                }
+                keys[size++] = key;
+            } else {
+                // 蓄水池抽样
+                long slot = random.nextLong(total);
+                if (slot < maxKeys) {
+                    keys[(int) slot] = key;
+                }
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        // 被引用列唯一，个数等于跨度即为连续区间
+        if (max - min + 1 == total) {
+            return new RangeKeyPool(min, max);
+        }
+        return new LongKeyPool(keys, size);
+    }
+
+    private static KeyPool loadStrings(ResultSet rs, int maxKeys) throws SQLException {
+        String[] keys = new String[1024];
+        int size = 0;
+        long total = 0;
+        SplittableRandom random = new SplittableRandom();
+        while (rs.next()) {
+            String key = rs.getString(1);
+            total++;
+            if (size < maxKeys) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, (int) Math.min((long) keys.length * 2, maxKeys));
+                }
+                keys[size++] = key;
+            } else {
+                long slot = random.nextLong(total);
+                if (slot < maxKeys) {
+                    keys[(int) slot] = key;
+                }
+            }
+        }
+        return total == 0 ? null : new StringKeyPool(keys, size);
+    }
+}
@@ -0,0 +1,33 @@
+package team.zhh.de.core.schema;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 不连续的整数键，保存在 long[] 中（每个键8字节，不装箱）
+ */
+public class LongKeyPool implements KeyPool {
+    private final long[] keys;
+
+    public LongKeyPool(long[] keys, int size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("Empty key pool");
+        }
+        this.keys = size == keys.length ? keys : Arrays.copyOf(keys, size);
+    }
+
+    @Override
+    public long size() {
+        return keys.length;
+    }
+
+    @Override
+    public long sampleLong(SplittableRandom random) {
+        return keys[random.nextInt(keys.length)];
+    }
+
+    @Override
+    public String sampleText(SplittableRandom random) {
+        return Long.toString(sampleLong(random));
+    }
+}
@@ -0,0 +1,36 @@
+package team.zhh.de.core.schema;
+
+import java.util.SplittableRandom;
+
+/**
+ * 连续整数键 [min, max]，只保存两个端点
+ */
+public class RangeKeyPool implements KeyPool {
+    private final long min;
+    private final long max;
+
+    public RangeKeyPool(long min, long max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Empty key range [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public long size() {
+        return max - min + 1;
+    }
+
+    @Override
+    public long sampleLong(SplittableRandom random) {
+        long size = size();
+        // 区间跨度超过 long 范围时 size 为非正数，直接取随机 long
+        return size > 0 ? min + random.nextLong(size) : random.nextLong();
+    }
+
+    @Override
+    public String sampleText(SplittableRandom random) {
+        return Long.toString(sampleLong(random));
+    }
+}
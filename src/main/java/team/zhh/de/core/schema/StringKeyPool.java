@@ -0,0 +1,33 @@
+package team.zhh.de.core.schema;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 非整数键（字符串、UUID等）
+ */
+public class StringKeyPool implements KeyPool {
+    private final String[] keys;
+
+    public StringKeyPool(String[] keys, int size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("Empty key pool");
+        }
+        this.keys = size == keys.length ? keys : Arrays.copyOf(keys, size);
+    }
+
+    @Override
+    public long size() {
+        return keys.length;
+    }
+
+    @Override
+    public long sampleLong(SplittableRandom random) {
+        return Long.parseLong(sampleText(random));
+    }
+
+    @Override
+    public String sampleText(SplittableRandom random) {
+        return keys[random.nextInt(keys.length)];
+    }
+}
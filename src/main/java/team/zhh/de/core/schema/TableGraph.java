@@ -0,0 +1,103 @@
+package team.zhh.de.core.schema;
+
+import team.zhh.base.model.ForeignKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多表任务的外键依赖图
+ * 只包含任务内的表之间的依赖；自引用和循环依赖中的边被断开，这些外键列无法在生成时取得父表键
+ */
+public class TableGraph {
+    // 表 -> 任务内需要先生成的父表
+    private final Map<String, Set<String>> parents = new LinkedHashMap<>();
+    // 父表在前的生成顺序
+    private final List<String> order = new ArrayList<>();
+    // 被断开的边：子表 -> 父表
+    private final Map<String, Set<String>> brokenEdges = new HashMap<>();
+
+    /**
+     * @param tables 任务中的表
+     * @param foreignKeys 各表的外键
+     */
+    public static TableGraph build(Collection<String> tables, Map<String, List<ForeignKey>> foreignKeys) {
+        TableGraph graph = new TableGraph();
+        Set<String> tableSet = new LinkedHashSet<>(tables);
+        for (String table : tableSet) {
+            Set<String> tableParents = new LinkedHashSet<>();
+            for (ForeignKey fk : foreignKeys.getOrDefault(table, List.of())) {
+                String parent = fk.referencedTable();
+                if (parent.equals(table)) {
+                    graph.brokenEdges.computeIfAbsent(table, k -> new HashSet<>()).add(parent);
+                } else if (tableSet.contains(parent)) {
+                    tableParents.add(parent);
+                }
+            }
+            graph.parents.put(table, tableParents);
+        }
+        graph.sort();
+        return graph;
+    }
+
+    /**
+     * 拓扑排序（Kahn），剩余的表都有未满足的依赖时沿依赖找到一个环，断开环上的一条边后继续
+     */
+    private void sort() {
+        Map<String, Set<String>> remaining = new LinkedHashMap<>();
+        parents.forEach((table, deps) -> remaining.put(table, new HashSet<>(deps)));
+        while (!remaining.isEmpty()) {
+            String next = null;
+            for (Map.Entry<String, Set<String>> entry : remaining.entrySet()) {
+                if (entry.getValue().isEmpty()) {
+                    next = entry.getKey();
+                    break;
+                }
+            }
+            if (next == null) {
+                List<String> path = new ArrayList<>();
+                String current = remaining.keySet().iterator().next();
+                while (!path.contains(current)) {
+                    path.add(current);
+                    current = remaining.get(current).iterator().next();
+                }
+                // path 的最后一个表依赖 current，这条边在环上
+                String child = path.get(path.size() - 1);
+                remaining.get(child).remove(current);
+                parents.get(child).remove(current);
+                brokenEdges.computeIfAbsent(child, k -> new HashSet<>()).add(current);
+                continue;
+            }
+            remaining.remove(next);
+            order.add(next);
+            for (Set<String> deps : remaining.values()) {
+                deps.remove(next);
+            }
+        }
+    }
+
+    public List<String> getOrder() {
+        return order;
+    }
+
+    /**
+     * 必须在该表之前完成的表
+     */
+    public Set<String> getParents(String table) {
+        return parents.getOrDefault(table, Set.of());
+    }
+
+    /**
+     * 子表到父表的边是否因自引用或循环依赖被断开
+     */
+    public boolean isBroken(String table, String parent) {
+        return brokenEdges.getOrDefault(table, Set.of()).contains(parent);
+    }
+}
@@ -0,0 +1,270 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.GenerationMonitor;
+import team.zhh.de.core.RowSink;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批次接收端基类
+ * 生成线程填充批次后放入有界队列，后台写入线程逐批写出并把批次放回空闲池复用。
+ * 批次总数固定为 队列深度 + 2，内存占用与总行数无关，写入与生成并行进行
+ */
+public abstract class AbstractBatchSink implements RowSink, AutoCloseable {
+
+    // 结束标记，写入线程取到后退出
+    private static final RowBatch END = new RowBatch(Collections.emptyList(), 0);
+
+    protected final List<ColumnMetadata> columns;
+    private final int batchSize;
+    private final int maxBatches;
+    private final BlockingQueue<RowBatch> pending;
+    private final BlockingQueue<RowBatch> free;
+    private final AtomicLong writtenRows = new AtomicLong();
+
+    private GenerationMonitor monitor = GenerationMonitor.NONE;
+    private SinkMetrics metrics = SinkMetrics.NONE;
+    private boolean singleTransaction;
+    private CommitMarker commitMarker;
+    private Thread writer;
+    private int createdBatches;
+    // 文本行所在的当前批次
+    private RowBatch textBatch;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    protected AbstractBatchSink(List<ColumnMetadata> columns, int batchSize, int queueDepth) {
+        this.columns = columns;
+        this.batchSize = Math.max(1, batchSize);
+        int depth = Math.max(1, queueDepth);
+        this.maxBatches = depth + 2;
+        this.pending = new ArrayBlockingQueue<>(depth + 1);
+        this.free = new ArrayBlockingQueue<>(maxBatches);
+    }
+
+    @Override
+    public void accept(String[] row) throws Exception {
+        if (textBatch == null) {
+            textBatch = newBatch();
+        }
+        textBatch.setText(textBatch.nextRow(), row);
+        if (textBatch.isFull()) {
+            RowBatch full = textBatch;
+            textBatch = null;
+            accept(full);
+        }
+    }
+
+    @Override
+    public RowBatch newBatch() throws Exception {
+        checkFailure();
+        ensureStarted();
+        RowBatch batch = free.poll();
+        if (batch != null) {
+            return batch;
+        }
+        if (createdBatches < maxBatches) {
+            createdBatches++;
+            return new RowBatch(columns, batchSize);
+        }
+        // 所有批次都在等待写入，等写入线程归还
+        long waitStart = System.nanoTime();
+        while (batch == null) {
+            checkFailure();
+            batch = free.poll(100, TimeUnit.MILLISECONDS);
+        }
+        metrics.recordWait(System.nanoTime() - waitStart);
+        return batch;
+    }
+
+    @Override
+    public void accept(RowBatch batch) throws Exception {
+        checkFailure();
+        // 并行模式下其他分区失败时会中断本线程
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("数据生成已中断");
+        }
+        if (monitor.isCancelled()) {
+            throw new CancellationException("任务已取消");
+        }
+        if (batch.size() == 0) {
+            recycle(batch);
+            return;
+        }
+        monitor.onGenerated(batch.size());
+        if (!pending.offer(batch)) {
+            long waitStart = System.nanoTime();
+            pending.put(batch);
+            metrics.recordWait(System.nanoTime() - waitStart);
+        }
+    }
+
+    /**
+     * 写入剩余数据并等待写入线程结束，写入过程中的异常在此抛出
+     */
+    @Override
+    public void close() throws Exception {
+        if (closed) return;
+        if (textBatch != null) {
+            RowBatch last = textBatch;
+            textBatch = null;
+            accept(last);
+        }
+        closed = true;
+        ensureStarted();
+        pending.put(END);
+        writer.join();
+        checkFailure();
+    }
+
+    /**
+     * 放弃未写入的数据并停止写入线程，用于生成失败时
+     */
+    public void abort() {
+        if (closed) return;
+        closed = true;
+        textBatch = null;
+        if (writer == null) return;
+        writer.interrupt();
+        pending.clear();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 设置进度监视器，需在写入前调用
+     */
+    public void setMonitor(GenerationMonitor monitor) {
+        this.monitor = monitor == null ? GenerationMonitor.NONE : monitor;
+    }
+
+    /**
+     * 设置耗时记录，需在写入前调用
+     */
+    public void setMetrics(SinkMetrics metrics) {
+        this.metrics = metrics == null ? SinkMetrics.NONE : metrics;
+    }
+
+    /**
+     * 整个接收端在一个事务中写入，全部写出后才提交，失败时不留下部分数据；需在写入前调用
+     */
+    public void setSingleTransaction(boolean singleTransaction) {
+        this.singleTransaction = singleTransaction;
+    }
+
+    protected boolean isSingleTransaction() {
+        return singleTransaction;
+    }
+
+    /**
+     * 单事务模式下提交前写入的标记（如检查点的单元标记）；需在写入前调用
+     */
+    public void setCommitMarker(CommitMarker commitMarker) {
+        this.commitMarker = commitMarker;
+    }
+
+    /**
+     * 由写入数据库的接收端在单事务提交前调用
+     */
+    protected void writeCommitMarker(Connection conn) throws SQLException {
+        if (commitMarker != null) {
+            commitMarker.write(conn);
+        }
+    }
+
+    /**
+     * 已写出的行数
+     */
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    /**
+     * 在写入线程中打开目标资源（连接、文件等）
+     */
+    protected abstract void open() throws Exception;
+
+    /**
+     * 在写入线程中写出一个批次
+     */
+    protected abstract void write(RowBatch batch) throws Exception;
+
+    /**
+     * 所有批次写出成功后调用
+     */
+    protected void finish() throws Exception {
+    }
+
+    /**
+     * 释放目标资源，无论成功失败都会调用
+     */
+    protected abstract void release();
+
+    private void ensureStarted() {
+        if (writer != null) return;
+        writer = new Thread(this::writeLoop, Thread.currentThread().getName() + "-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void recycle(RowBatch batch) {
+        batch.reset();
+        free.offer(batch);
+    }
+
+    private void writeLoop() {
+        try {
+            open();
+            while (true) {
+                RowBatch batch = pending.take();
+                if (batch == END) break;
+                long start = System.nanoTime();
+                write(batch);
+                metrics.recordWrite(batch.size(), System.nanoTime() - start);
+                writtenRows.addAndGet(batch.size());
+                monitor.onWritten(batch.size());
+                recycle(batch);
+            }
+            finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure = e;
+            // 失败后继续消费队列，避免生成线程阻塞
+            drainUntilEnd();
+        } finally {
+            release();
+        }
+    }
+
+    private void drainUntilEnd() {
+        try {
+            RowBatch batch;
+            while ((batch = pending.take()) != END) {
+                recycle(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() throws Exception {
+        Throwable t = failure;
+        if (t == null) return;
+        if (t instanceof Exception e) throw e;
+        throw new IllegalStateException("批量写入失败: " + t.getMessage(), t);
+    }
+}
@@ -0,0 +1,17 @@
+package team.zhh.de.core.sink;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 可复用的字节缓冲区，直接暴露内部数组，避免 toByteArray 复制
+ */
+class BatchBuffer extends ByteArrayOutputStream {
+
+    BatchBuffer(int size) {
+        super(size);
+    }
+
+    byte[] array() {
+        return buf;
+    }
+}
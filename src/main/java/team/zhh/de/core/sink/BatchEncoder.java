@@ -0,0 +1,21 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.de.core.batch.RowBatch;
+
+/**
+ * 把批次编码为文件内容
+ */
+interface BatchEncoder {
+
+    /**
+     * 每个文件开头写入的内容（如列名行）
+     */
+    default byte[] header() {
+        return new byte[0];
+    }
+
+    /**
+     * 返回的缓冲区由编码器复用，下次调用前有效
+     */
+    BatchBuffer encode(RowBatch batch);
+}
@@ -0,0 +1,12 @@
+package team.zhh.de.core.sink;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 单事务模式下提交前在同一连接、同一事务中写入的标记，数据与标记要么一起提交要么一起回滚
+ */
+@FunctionalInterface
+public interface CommitMarker {
+    void write(Connection conn) throws SQLException;
+}
@@ -0,0 +1,76 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 把批次编码为 CSV：逗号分隔，含逗号、引号、换行的值加双引号，空值为空字段
+ */
+class CsvRowEncoder implements BatchEncoder {
+    private final byte[] header;
+    private final StringBuilder text = new StringBuilder(64 * 1024);
+    private final BatchBuffer buffer = new BatchBuffer(64 * 1024);
+
+    CsvRowEncoder(List<ColumnMetadata> columns) {
+        StringBuilder names = new StringBuilder();
+        for (ColumnMetadata column : columns) {
+            if (names.length() > 0) names.append(',');
+            int start = names.length();
+            names.append(column.name());
+            quoteFrom(names, start);
+        }
+        this.header = names.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] header() {
+        return header;
+    }
+
+    @Override
+    public BatchBuffer encode(RowBatch batch) {
+        text.setLength(0);
+        int columnCount = batch.columnCount();
+        for (int row = 0; row < batch.size(); row++) {
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) text.append(',');
+                ColumnVector vector = batch.vector(j);
+                if (vector.isNull(row)) {
+                    continue;
+                }
+                int start = text.length();
+                vector.appendText(text, row);
+                if (vector.needsEscape(row)) {
+                    quoteFrom(text, start);
+                }
+            }
+            text.append('\n');
+        }
+        buffer.reset();
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        return buffer;
+    }
+
+    /**
+     * 值中有逗号、引号或换行时整体加引号，内部引号双写
+     */
+    private static void quoteFrom(StringBuilder out, int start) {
+        boolean quote = false;
+        for (int i = start; i < out.length() && !quote; i++) {
+            char c = out.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return;
+        for (int i = start; i < out.length(); i++) {
+            if (out.charAt(i) == '"') {
+                out.insert(i++, '"');
+            }
+        }
+        out.insert(start, '"').append('"');
+    }
+}
@@ -0,0 +1,41 @@
+package team.zhh.de.core.sink;
+
+import java.util.Locale;
+
+/**
+ * 文件导出格式
+ */
+public enum ExportFormat {
+    // 逗号分隔，带表头，RFC 4180 引号转义
+    CSV("csv"),
+    // 制表符分隔、反斜杠转义、\N 表示空值，可直接用于 COPY / LOAD DATA
+    TSV("tsv"),
+    // 多行 INSERT 语句，每个批次一条
+    SQL("sql"),
+    // 列式 Parquet 文件
+    PARQUET("parquet");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return 为空时返回 null，表示直接写入数据库
+     */
+    public static ExportFormat of(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的导出格式: " + name);
+        }
+    }
+}
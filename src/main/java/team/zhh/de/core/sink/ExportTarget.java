@@ -0,0 +1,41 @@
+package team.zhh.de.core.sink;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 导出文件的位置与滚动规则
+ * 每个分区写自己的文件，文件名为 前缀-序号.扩展名，并行分区之间不争用同一个文件
+ * @param directory 输出目录
+ * @param prefix 文件名前缀（表名与分区号）
+ * @param compression none / gzip / zstd
+ * @param maxFileBytes 单个文件的大小上限，达到后在批次边界滚动到新文件，0 表示不滚动
+ */
+public record ExportTarget(Path directory, String prefix, String compression, long maxFileBytes) {
+
+    public ExportTarget {
+        compression = compression == null || compression.isBlank() ? "none" : compression.trim().toLowerCase(Locale.ROOT);
+        if (!compression.equals("none") && !compression.equals("gzip") && !compression.equals("zstd")) {
+            throw new IllegalArgumentException("不支持的压缩方式: " + compression);
+        }
+    }
+
+    public Path file(int index, String extension) {
+        return directory.resolve(String.format("%s-%05d.%s", prefix, index, extension));
+    }
+
+    public boolean isFull(long fileBytes) {
+        return maxFileBytes > 0 && fileBytes >= maxFileBytes;
+    }
+
+    /**
+     * 压缩后的文件扩展名后缀
+     */
+    String compressionSuffix() {
+        return switch (compression) {
+            case "gzip" -> ".gz";
+            case "zstd" -> ".zst";
+            default -> "";
+        };
+    }
+}
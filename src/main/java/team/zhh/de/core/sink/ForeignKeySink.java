@@ -0,0 +1,53 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.de.core.RowSink;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.schema.KeyPool;
+
+import java.util.SplittableRandom;
+
+/**
+ * 外键列填充：在行交给实际接收端之前，用父表键值池中抽样的键覆盖外键列的值
+ * 与引擎无关，随机引擎、AI引擎、扩增引擎生成的外键列都以父表真实存在的键写入
+ */
+public class ForeignKeySink implements RowSink {
+    private final RowSink delegate;
+    // 外键列在需要生成的列中的下标及对应键值池
+    private final int[] columnIndexes;
+    private final KeyPool[] pools;
+    private final SplittableRandom random;
+
+    public ForeignKeySink(RowSink delegate, int[] columnIndexes, KeyPool[] pools, long seed) {
+        this.delegate = delegate;
+        this.columnIndexes = columnIndexes;
+        this.pools = pools;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void accept(String[] row) throws Exception {
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (columnIndexes[i] < row.length) {
+                row[columnIndexes[i]] = pools[i].sampleText(random);
+            }
+        }
+        delegate.accept(row);
+    }
+
+    @Override
+    public RowBatch newBatch() throws Exception {
+        return delegate.newBatch();
+    }
+
+    @Override
+    public void accept(RowBatch batch) throws Exception {
+        for (int i = 0; i < columnIndexes.length; i++) {
+            KeyPool pool = pools[i];
+            int column = columnIndexes[i];
+            for (int row = 0; row < batch.size(); row++) {
+                pool.sampleInto(random, batch.vector(column), row);
+            }
+        }
+        delegate.accept(batch);
+    }
+}
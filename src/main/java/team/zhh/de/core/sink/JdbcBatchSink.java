@@ -0,0 +1,138 @@
+package team.zhh.de.core.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.dialect.SqlDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 分块批量插入的接收端
+ * 写入线程独占一个连接并复用同一个 PreparedStatement，按列类型直接绑定批次中的值，每批提交一次事务。
+ * 语句形状由方言决定：驱动能合并批量时每条语句一行，否则每条语句包含多行 VALUES
+ */
+public class JdbcBatchSink extends AbstractBatchSink {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchSink.class);
+
+    private final DataSource dataSource;
+    private final SqlDialect dialect;
+    private final String quotedTable;
+    private final String quotedColumns;
+    private final int rowsPerStatement;
+
+    private Connection conn;
+    private PreparedStatement ps;
+    // 批次大小不是 rowsPerStatement 的整数倍时，每个满批次剩余的行数相同，尾部语句按行数缓存复用
+    private PreparedStatement tail;
+    private int tailRows;
+
+    /**
+     * @param quotedTable 已加引号的表名
+     */
+    public JdbcBatchSink(DataSource dataSource, SqlDialect dialect, String quotedTable, List<ColumnMetadata> columnsToGenerate,
+                         int batchSize, int queueDepth) {
+        super(columnsToGenerate, batchSize, queueDepth);
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.quotedTable = quotedTable;
+        this.quotedColumns = dialect.quoteColumns(columnsToGenerate);
+        this.rowsPerStatement = dialect.rowsPerStatement(columnsToGenerate.size(), batchSize);
+    }
+
+    @Override
+    protected void open() throws SQLException {
+        conn = dataSource.getConnection();
+        conn.setAutoCommit(false);
+        ps = conn.prepareStatement(dialect.insertSql(quotedTable, quotedColumns, columns.size(), rowsPerStatement));
+        logger.debug("Inserting into {} with {} row(s) per statement", quotedTable, rowsPerStatement);
+    }
+
+    @Override
+    protected void write(RowBatch batch) throws SQLException {
+        int size = batch.size();
+        int row = 0;
+        try {
+            for (; row + rowsPerStatement <= size; row += rowsPerStatement) {
+                bindRows(ps, batch, row, rowsPerStatement);
+                ps.addBatch();
+            }
+            if (row > 0) {
+                ps.executeBatch();
+            }
+            if (row < size) {
+                PreparedStatement statement = tailStatement(size - row);
+                bindRows(statement, batch, row, size - row);
+                statement.executeUpdate();
+            }
+            if (!isSingleTransaction()) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            ps.clearBatch();
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * 不足 rowsPerStatement 的剩余行使用的语句，行数与上次相同时复用，否则重新准备（如最后一个不满的批次）
+     */
+    private PreparedStatement tailStatement(int rows) throws SQLException {
+        if (tail == null || tailRows != rows) {
+            if (tail != null) {
+                tail.close();
+                tail = null;
+            }
+            tail = conn.prepareStatement(dialect.insertSql(quotedTable, quotedColumns, columns.size(), rows));
+            tailRows = rows;
+        }
+        return tail;
+    }
+
+    private static void bindRows(PreparedStatement statement, RowBatch batch, int firstRow, int rows) throws SQLException {
+        int columnCount = batch.columnCount();
+        int index = 1;
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            for (int j = 0; j < columnCount; j++) {
+                batch.vector(j).bind(statement, index++, row);
+            }
+        }
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        if (isSingleTransaction()) {
+            writeCommitMarker(conn);
+            conn.commit();
+        }
+    }
+
+    @Override
+    protected void release() {
+        try {
+            if (ps != null) ps.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close statement: {}", e.getMessage());
+        }
+        try {
+            if (tail != null) tail.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close statement: {}", e.getMessage());
+        }
+        try {
+            if (conn != null) {
+                // 单事务模式下中止的单元不能随连接归还被提交
+                conn.rollback();
+                conn.close();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to close connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.de.core.RowSink;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.key.KeyGenerator;
+
+/**
+ * 主键/唯一列赋值：按行号用键生成器覆盖这些列的值
+ * 每个分区一个实例，行号从分区的起始行号开始递增，分区之间不需要同步
+ */
+public class KeyAssigningSink implements RowSink {
+    private final RowSink delegate;
+    // 键列在需要生成的列中的下标及对应生成器
+    private final int[] columnIndexes;
+    private final KeyGenerator[] generators;
+    private long nextRowNumber;
+
+    public KeyAssigningSink(RowSink delegate, int[] columnIndexes, KeyGenerator[] generators, long firstRowNumber) {
+        this.delegate = delegate;
+        this.columnIndexes = columnIndexes;
+        this.generators = generators;
+        this.nextRowNumber = firstRowNumber;
+    }
+
+    @Override
+    public void accept(String[] row) throws Exception {
+        long rowNumber = nextRowNumber++;
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (columnIndexes[i] < row.length) {
+                row[columnIndexes[i]] = generators[i].text(rowNumber);
+            }
+        }
+        delegate.accept(row);
+    }
+
+    @Override
+    public RowBatch newBatch() throws Exception {
+        return delegate.newBatch();
+    }
+
+    @Override
+    public void accept(RowBatch batch) throws Exception {
+        for (int row = 0; row < batch.size(); row++) {
+            long rowNumber = nextRowNumber++;
+            for (int i = 0; i < columnIndexes.length; i++) {
+                ColumnVector vector = batch.vector(columnIndexes[i]);
+                vector.clear(row);
+                generators[i].fill(vector, row, rowNumber);
+            }
+        }
+        delegate.accept(batch);
+    }
+}
@@ -0,0 +1,103 @@
+package team.zhh.de.core.sink;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.RowBatch;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MySQL LOAD DATA LOCAL INFILE 接收端
+ * 每个批次编码为内存中的制表符分隔文本，通过驱动的 LocalInfileInputStream 发送，不落地临时文件。
+ * 需要连接开启 allowLoadLocalInfile。被服务端跳过的行（LOCAL 隐含 IGNORE）会使该批次失败，不会静默少写
+ */
+public class MySqlLoadDataSink extends AbstractBatchSink {
+    private static final Logger logger = LoggerFactory.getLogger(MySqlLoadDataSink.class);
+
+    private final DataSource dataSource;
+    private final String loadSql;
+    private final TextRowEncoder encoder = new TextRowEncoder();
+
+    private Connection conn;
+    private Statement stmt;
+    private JdbcStatement mysqlStmt;
+
+    /**
+     * @param quotedTable 已加引号的表名
+     * @param quotedColumns 已加引号、逗号分隔的列名
+     */
+    public MySqlLoadDataSink(DataSource dataSource, String quotedTable, String quotedColumns, List<ColumnMetadata> columnsToGenerate,
+                             int batchSize, int queueDepth) {
+        super(columnsToGenerate, batchSize, queueDepth);
+        this.dataSource = dataSource;
+        // 文件名只是占位，实际数据来自 setLocalInfileInputStream
+        this.loadSql = "LOAD DATA LOCAL INFILE 'dataeden.tsv' INTO TABLE " + quotedTable
+            + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+            + " (" + quotedColumns + ")";
+    }
+
+    @Override
+    protected void open() throws SQLException {
+        conn = dataSource.getConnection();
+        conn.setAutoCommit(false);
+        stmt = conn.createStatement();
+        mysqlStmt = stmt.unwrap(JdbcStatement.class);
+    }
+
+    @Override
+    protected void write(RowBatch batch) throws SQLException {
+        BatchBuffer buffer = encoder.encode(batch);
+        try {
+            // 驱动在语句执行后会清空该输入流，每批都要重新设置
+            mysqlStmt.setLocalInfileInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.size()));
+            stmt.execute(loadSql);
+            // LOCAL 模式隐含 IGNORE：重复键、转换失败的行只产生警告而被跳过，行数不符时按失败处理
+            int loaded = stmt.getUpdateCount();
+            if (loaded != batch.size()) {
+                SQLWarning warning = stmt.getWarnings();
+                throw new SQLException("LOAD DATA 只写入了 " + loaded + "/" + batch.size() + " 行"
+                    + (warning != null ? "：" + warning.getMessage() : ""));
+            }
+            if (!isSingleTransaction()) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        if (isSingleTransaction()) {
+            writeCommitMarker(conn);
+            conn.commit();
+        }
+    }
+
+    @Override
+    protected void release() {
+        try {
+            if (stmt != null) stmt.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close statement: {}", e.getMessage());
+        }
+        try {
+            if (conn != null) {
+                // 单事务模式下中止的单元不能随连接归还被提交
+                conn.rollback();
+                conn.close();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to close connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package team.zhh.de.core.sink;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.batch.StringVector;
+import team.zhh.de.core.batch.TimestampVector;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Parquet 文件导出接收端
+ * 按列类型映射为 Parquet 物理类型（整数 INT64、浮点 DOUBLE、NUMERIC 定点 DECIMAL、日期 DATE、时间戳与时间 TIMESTAMP/TIME 微秒、字符串 UTF8），
+ * 写入时直接从批次的类型化缓冲区读取，不经过字符串。文件数据量达到上限后滚动到新文件
+ */
+public class ParquetFileSink extends AbstractBatchSink {
+    private static final Logger logger = LoggerFactory.getLogger(ParquetFileSink.class);
+    // long 能容纳的最大十进制精度
+    private static final int MAX_LONG_PRECISION = 18;
+    private static final int MAX_PRECISION = 38;
+
+    private final ExportTarget target;
+    private final long rowGroupSize;
+    private final BatchWriteSupport writeSupport;
+    private final RowCursor cursor = new RowCursor();
+
+    private ParquetWriter<RowCursor> writer;
+    private int fileIndex;
+
+    public ParquetFileSink(List<ColumnMetadata> columnsToGenerate, ExportTarget target, long rowGroupSize, int batchSize, int queueDepth) {
+        super(columnsToGenerate, batchSize, queueDepth);
+        this.target = target;
+        this.rowGroupSize = rowGroupSize;
+        this.writeSupport = new BatchWriteSupport(columnsToGenerate);
+    }
+
+    @Override
+    protected void open() {
+        // 文件在第一次写入时创建
+    }
+
+    @Override
+    protected void write(RowBatch batch) throws IOException {
+        if (writer == null) {
+            writer = openWriter();
+        }
+        cursor.batch = batch;
+        for (int row = 0; row < batch.size(); row++) {
+            cursor.row = row;
+            writer.write(cursor);
+        }
+        if (target.isFull(writer.getDataSize())) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    @Override
+    protected void release() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close parquet file: {}", e.getMessage());
+        }
+        writer = null;
+    }
+
+    private ParquetWriter<RowCursor> openWriter() throws IOException {
+        OutputFile file = new LocalOutputFile(target.file(fileIndex++, ExportFormat.PARQUET.getExtension()));
+        return new Builder(file, writeSupport)
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .withCompressionCodec(codec(target.compression()))
+            .withRowGroupSize(rowGroupSize)
+            .build();
+    }
+
+    private static CompressionCodecName codec(String compression) {
+        return switch (compression) {
+            case "gzip" -> CompressionCodecName.GZIP;
+            case "zstd" -> CompressionCodecName.ZSTD;
+            default -> CompressionCodecName.UNCOMPRESSED;
+        };
+    }
+
+    /**
+     * 当前写出的行，整个接收端只有一个实例，避免每行创建记录对象
+     */
+    private static final class RowCursor {
+        private RowBatch batch;
+        private int row;
+    }
+
+    private static final class Builder extends ParquetWriter.Builder<RowCursor, Builder> {
+        private final WriteSupport<RowCursor> writeSupport;
+
+        Builder(OutputFile file, WriteSupport<RowCursor> writeSupport) {
+            super(file);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<RowCursor> getWriteSupport(Configuration conf) {
+            return writeSupport;
+        }
+    }
+
+    /**
+     * 按列逐个写出当前行的值，空值和无法解析的原始文本不写（OPTIONAL 字段即为空）
+     */
+    private static final class BatchWriteSupport extends WriteSupport<RowCursor> {
+        private final MessageType schema;
+        private final String[] names;
+        // 精度超过18位的 NUMERIC 以二进制补码写出
+        private final boolean[] wideDecimal;
+        private RecordConsumer consumer;
+
+        BatchWriteSupport(List<ColumnMetadata> columns) {
+            Types.MessageTypeBuilder builder = Types.buildMessage();
+            names = new String[columns.size()];
+            wideDecimal = new boolean[columns.size()];
+            for (int i = 0; i < names.length; i++) {
+                ColumnMetadata column = columns.get(i);
+                names[i] = column.name();
+                switch (column.dataTypeCategory()) {
+                    case INTEGER -> builder.optional(PrimitiveTypeName.INT64).named(column.name());
+                    case FLOAT -> {
+                        if (DecimalVector.isDecimal(column)) {
+                            int precision = column.size() > 0 && column.size() <= MAX_PRECISION ? column.size() : MAX_PRECISION;
+                            int scale = Math.min(Math.max(0, column.decimalDigits()), precision);
+                            wideDecimal[i] = precision > MAX_LONG_PRECISION;
+                            builder.optional(wideDecimal[i] ? PrimitiveTypeName.BINARY : PrimitiveTypeName.INT64)
+                                .as(LogicalTypeAnnotation.decimalType(scale, precision))
+                                .named(column.name());
+                        } else {
+                            builder.optional(PrimitiveTypeName.DOUBLE).named(column.name());
+                        }
+                    }
+                    case DATE -> {
+                        if (TimestampVector.isTime(column)) {
+                            builder.optional(PrimitiveTypeName.INT64)
+                                .as(LogicalTypeAnnotation.timeType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named(column.name());
+                        } else if (TimestampVector.isTimestamp(column)) {
+                            builder.optional(PrimitiveTypeName.INT64)
+                                .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named(column.name());
+                        } else {
+                            builder.optional(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.dateType()).named(column.name());
+                        }
+                    }
+                    case BOOLEAN -> builder.optional(PrimitiveTypeName.BOOLEAN).named(column.name());
+                    default -> builder.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(column.name());
+                }
+            }
+            this.schema = builder.named("record");
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(RowCursor cursor) {
+            RowBatch batch = cursor.batch;
+            int row = cursor.row;
+            consumer.startMessage();
+            for (int j = 0; j < names.length; j++) {
+                ColumnVector vector = batch.vector(j);
+                if (vector.isNull(row) || (vector.rawText(row) != null && !(vector instanceof StringVector))) {
+                    continue;
+                }
+                if (vector instanceof DecimalVector v && !wideDecimal[j] && v.getOverflow(row) != null) {
+                    // 超出 long 的值也超出了列精度
+                    continue;
+                }
+                consumer.startField(names[j], j);
+                writeValue(vector, row, j);
+                consumer.endField(names[j], j);
+            }
+            consumer.endMessage();
+        }
+
+        private void writeValue(ColumnVector vector, int row, int column) {
+            if (vector instanceof LongVector v) {
+                consumer.addLong(v.get(row));
+            } else if (vector instanceof DoubleVector v) {
+                consumer.addDouble(v.get(row));
+            } else if (vector instanceof DecimalVector v) {
+                if (!wideDecimal[column]) {
+                    consumer.addLong(v.getUnscaled(row));
+                } else {
+                    BigDecimal overflow = v.getOverflow(row);
+                    BigInteger unscaled = overflow != null
+                        ? overflow.setScale(v.scale(), RoundingMode.HALF_UP).unscaledValue()
+                        : BigInteger.valueOf(v.getUnscaled(row));
+                    consumer.addBinary(Binary.fromConstantByteArray(unscaled.toByteArray()));
+                }
+            } else if (vector instanceof DateVector v) {
+                consumer.addInteger(v.get(row));
+            } else if (vector instanceof TimestampVector v) {
+                consumer.addLong(v.get(row));
+            } else if (vector instanceof BooleanVector v) {
+                consumer.addBoolean(v.get(row));
+            } else {
+                consumer.addBinary(Binary.fromString(((StringVector) vector).get(row)));
+            }
+        }
+    }
+}
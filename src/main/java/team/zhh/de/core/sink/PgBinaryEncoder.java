@@ -0,0 +1,209 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.batch.StringVector;
+import team.zhh.de.core.batch.TimestampVector;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * PostgreSQL COPY 二进制格式编码
+ * 二进制格式要求字段宽度与列类型严格一致，只有全部列类型都受支持时才能使用
+ */
+class PgBinaryEncoder {
+    static final byte[] HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    static final byte[] TRAILER = {(byte) 0xFF, (byte) 0xFF};
+
+    // 2000-01-01 的 epoch day，PostgreSQL 日期时间的纪元
+    private static final int PG_EPOCH_DAY = 10957;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    private static final Set<String> INT2 = Set.of("int2", "smallint", "smallserial");
+    private static final Set<String> INT4 = Set.of("int4", "int", "integer", "serial");
+    private static final Set<String> INT8 = Set.of("int8", "bigint", "bigserial");
+    private static final Set<String> FLOAT4 = Set.of("float4", "real");
+    private static final Set<String> FLOAT8 = Set.of("float8", "double precision", "float", "double");
+    private static final Set<String> NUMERIC = Set.of("numeric", "decimal");
+    private static final Set<String> DATE = Set.of("date");
+    private static final Set<String> TIMESTAMP = Set.of("timestamp", "timestamptz");
+    private static final Set<String> TIME = Set.of("time");
+    private static final Set<String> BOOL = Set.of("bool", "boolean");
+    private static final Set<String> TEXT = Set.of("varchar", "text", "bpchar", "char", "name", "character varying");
+
+    private final BatchBuffer buffer = new BatchBuffer(64 * 1024);
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final String[] types;
+
+    PgBinaryEncoder(List<ColumnMetadata> columns) {
+        this.types = new String[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = typeOf(columns.get(i));
+        }
+    }
+
+    /**
+     * 列的类型与其缓冲区类型是否都能以二进制格式写出
+     */
+    static boolean supports(List<ColumnMetadata> columns) {
+        for (ColumnMetadata column : columns) {
+            String type = typeOf(column);
+            ColumnVector probe = ColumnVector.forColumn(column, 1);
+            boolean ok;
+            if (probe instanceof LongVector) {
+                ok = INT2.contains(type) || INT4.contains(type) || INT8.contains(type);
+            } else if (probe instanceof DoubleVector) {
+                ok = FLOAT4.contains(type) || FLOAT8.contains(type);
+            } else if (probe instanceof DecimalVector) {
+                ok = NUMERIC.contains(type);
+            } else if (probe instanceof DateVector) {
+                ok = DATE.contains(type) || TIMESTAMP.contains(type);
+            } else if (probe instanceof TimestampVector) {
+                // timestamptz 的二进制值按 UTC 解释，而文本按会话时区解释，只能走文本格式
+                ok = "timestamp".equals(type) || TIME.contains(type);
+            } else if (probe instanceof BooleanVector) {
+                ok = BOOL.contains(type);
+            } else {
+                ok = TEXT.contains(type);
+            }
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    BatchBuffer encode(RowBatch batch) throws IOException {
+        buffer.reset();
+        int columnCount = batch.columnCount();
+        for (int row = 0; row < batch.size(); row++) {
+            out.writeShort(columnCount);
+            for (int j = 0; j < columnCount; j++) {
+                writeField(batch.vector(j), types[j], row);
+            }
+        }
+        out.flush();
+        return buffer;
+    }
+
+    private void writeField(ColumnVector vector, String type, int row) throws IOException {
+        if (vector.isNull(row)) {
+            out.writeInt(-1);
+            return;
+        }
+        String raw = vector.rawText(row);
+        if (raw != null) {
+            // 无法解析的原始文本按字节写出，由服务端报告类型错误
+            writeBytes(raw.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (vector instanceof LongVector v) {
+            long value = v.get(row);
+            if (INT2.contains(type)) {
+                out.writeInt(2);
+                out.writeShort((short) value);
+            } else if (INT4.contains(type)) {
+                out.writeInt(4);
+                out.writeInt((int) value);
+            } else {
+                out.writeInt(8);
+                out.writeLong(value);
+            }
+        } else if (vector instanceof DoubleVector v) {
+            if (FLOAT4.contains(type)) {
+                out.writeInt(4);
+                out.writeFloat((float) v.get(row));
+            } else {
+                out.writeInt(8);
+                out.writeDouble(v.get(row));
+            }
+        } else if (vector instanceof DecimalVector v) {
+            BigDecimal overflow = v.getOverflow(row);
+            if (overflow != null) {
+                writeNumeric(overflow.unscaledValue().abs().toString(), overflow.signum() < 0, v.scale());
+            } else {
+                long unscaled = v.getUnscaled(row);
+                writeNumeric(Long.toUnsignedString(Math.abs(unscaled)), unscaled < 0, v.scale());
+            }
+        } else if (vector instanceof DateVector v) {
+            long days = v.get(row) - PG_EPOCH_DAY;
+            if (DATE.contains(type)) {
+                out.writeInt(4);
+                out.writeInt((int) days);
+            } else {
+                out.writeInt(8);
+                out.writeLong(days * MICROS_PER_DAY);
+            }
+        } else if (vector instanceof TimestampVector v) {
+            // time 为当天的微秒数，timestamp 为自 2000-01-01 起的微秒数
+            out.writeInt(8);
+            out.writeLong(v.isTimeOnly() ? v.get(row) : v.get(row) - PG_EPOCH_DAY * MICROS_PER_DAY);
+        } else if (vector instanceof BooleanVector v) {
+            out.writeInt(1);
+            out.writeByte(v.get(row) ? 1 : 0);
+        } else {
+            writeBytes(((StringVector) vector).get(row).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * numeric 二进制格式：ndigits、weight、sign、dscale 之后是以10000为基的各位数字
+     * @param digits 非标度值的十进制数字（不含符号）
+     */
+    private void writeNumeric(String digits, boolean negative, int scale) throws IOException {
+        // 拆成整数部分与小数部分
+        int intLen = digits.length() - scale;
+        String intPart = intLen > 0 ? digits.substring(0, intLen) : "";
+        StringBuilder frac = new StringBuilder(scale);
+        for (int i = intLen; i < 0; i++) frac.append('0');
+        frac.append(intLen > 0 ? digits.substring(intLen) : digits);
+        // 整数部分左侧补零、小数部分右侧补零到4的倍数
+        int intPad = (4 - intPart.length() % 4) % 4;
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < intPad; i++) all.append('0');
+        all.append(intPart);
+        int intGroups = all.length() / 4;
+        all.append(frac);
+        while (all.length() % 4 != 0) all.append('0');
+
+        short[] groups = new short[all.length() / 4];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = Short.parseShort(all.substring(i * 4, i * 4 + 4));
+        }
+        // 去掉首尾的零组
+        int first = 0;
+        while (first < groups.length && groups[first] == 0) first++;
+        int last = groups.length - 1;
+        while (last >= first && groups[last] == 0) last--;
+
+        int ndigits = Math.max(0, last - first + 1);
+        int weight = ndigits == 0 ? 0 : intGroups - 1 - first;
+        out.writeInt(8 + ndigits * 2);
+        out.writeShort(ndigits);
+        out.writeShort(weight);
+        out.writeShort(ndigits == 0 || !negative ? 0x0000 : 0x4000);
+        out.writeShort(scale);
+        for (int i = first; i <= last; i++) {
+            out.writeShort(groups[i]);
+        }
+    }
+
+    private static String typeOf(ColumnMetadata column) {
+        return column.typeName() == null ? "" : column.typeName().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,98 @@
+package team.zhh.de.core.sink;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.RowBatch;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * PostgreSQL COPY FROM STDIN 接收端
+ * 整个接收端只执行一条 COPY，批次编码后持续写入，全部写完后提交
+ */
+public class PgCopySink extends AbstractBatchSink {
+    private static final Logger logger = LoggerFactory.getLogger(PgCopySink.class);
+
+    private final DataSource dataSource;
+    private final String copySql;
+    private final boolean binary;
+    private final TextRowEncoder textEncoder;
+    private final PgBinaryEncoder binaryEncoder;
+
+    private Connection conn;
+    private CopyIn copyIn;
+
+    /**
+     * @param quotedTable 已加引号的表名
+     * @param quotedColumns 已加引号、逗号分隔的列名
+     * @param binary 是否使用二进制格式，列类型不支持时自动退回文本格式
+     */
+    public PgCopySink(DataSource dataSource, String quotedTable, String quotedColumns, List<ColumnMetadata> columnsToGenerate,
+                      boolean binary, int batchSize, int queueDepth) {
+        super(columnsToGenerate, batchSize, queueDepth);
+        this.dataSource = dataSource;
+        this.binary = binary && PgBinaryEncoder.supports(columnsToGenerate);
+        if (binary && !this.binary) {
+            logger.info("Binary COPY not supported for all columns of {}, using text format", quotedTable);
+        }
+        this.copySql = "COPY " + quotedTable + " (" + quotedColumns + ") FROM STDIN" + (this.binary ? " (FORMAT binary)" : "");
+        this.textEncoder = this.binary ? null : new TextRowEncoder();
+        this.binaryEncoder = this.binary ? new PgBinaryEncoder(columnsToGenerate) : null;
+    }
+
+    @Override
+    protected void open() throws SQLException {
+        conn = dataSource.getConnection();
+        conn.setAutoCommit(false);
+        CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+        copyIn = copyManager.copyIn(copySql);
+        if (binary) {
+            copyIn.writeToCopy(PgBinaryEncoder.HEADER, 0, PgBinaryEncoder.HEADER.length);
+        }
+    }
+
+    @Override
+    protected void write(RowBatch batch) throws Exception {
+        BatchBuffer buffer = binary ? binaryEncoder.encode(batch) : textEncoder.encode(batch);
+        copyIn.writeToCopy(buffer.array(), 0, buffer.size());
+    }
+
+    @Override
+    protected void finish() throws SQLException {
+        if (binary) {
+            copyIn.writeToCopy(PgBinaryEncoder.TRAILER, 0, PgBinaryEncoder.TRAILER.length);
+        }
+        long rows = copyIn.endCopy();
+        if (isSingleTransaction()) {
+            writeCommitMarker(conn);
+        }
+        conn.commit();
+        logger.debug("COPY finished, {} rows", rows);
+    }
+
+    @Override
+    protected void release() {
+        try {
+            if (copyIn != null && copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to cancel COPY: {}", e.getMessage());
+        }
+        try {
+            if (conn != null) {
+                conn.rollback();
+                conn.close();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to close connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package team.zhh.de.core.sink;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按大小滚动的输出文件
+ * 不压缩时直接写 FileChannel；压缩时在 FileChannel 之上套 gzip / zstd 流。
+ * 大小按写入的未压缩字节计，只在批次边界滚动，每个文件都以表头开始，可单独加载
+ */
+class RollingFileOutput implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RollingFileOutput.class);
+    private static final int STREAM_BUFFER = 64 * 1024;
+
+    private final ExportTarget target;
+    private final String extension;
+    private final byte[] header;
+
+    private FileChannel channel;
+    private OutputStream compressed;
+    private int fileIndex;
+    private long fileBytes;
+
+    RollingFileOutput(ExportTarget target, String extension, byte[] header) {
+        this.target = target;
+        this.extension = extension + target.compressionSuffix();
+        this.header = header;
+    }
+
+    void write(byte[] bytes, int offset, int length) throws IOException {
+        if (channel == null) {
+            openNext();
+        }
+        if (compressed != null) {
+            compressed.write(bytes, offset, length);
+        } else {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        fileBytes += length;
+    }
+
+    /**
+     * 当前文件达到大小上限时关闭，下次写入时打开新文件
+     */
+    void rollIfFull() throws IOException {
+        if (channel != null && target.isFull(fileBytes)) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        try {
+            if (compressed != null) {
+                compressed.close();
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            compressed = null;
+        }
+    }
+
+    private void openNext() throws IOException {
+        Files.createDirectories(target.directory());
+        Path path = target.file(fileIndex++, extension);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream raw = Channels.newOutputStream(channel);
+        compressed = switch (target.compression()) {
+            case "gzip" -> new GZIPOutputStream(raw, STREAM_BUFFER);
+            case "zstd" -> new ZstdOutputStream(raw);
+            default -> null;
+        };
+        fileBytes = 0;
+        logger.debug("Writing {}", path);
+        if (header.length > 0) {
+            write(header, 0, header.length);
+        }
+    }
+}
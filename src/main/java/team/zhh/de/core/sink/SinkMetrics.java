@@ -0,0 +1,21 @@
+package team.zhh.de.core.sink;
+
+/**
+ * 接收端耗时记录
+ */
+public interface SinkMetrics {
+    SinkMetrics NONE = new SinkMetrics() {
+    };
+
+    /**
+     * 写入线程写出一个批次的耗时
+     */
+    default void recordWrite(int rows, long nanos) {
+    }
+
+    /**
+     * 生成线程因写入跟不上而阻塞等待的时间
+     */
+    default void recordWait(long nanos) {
+    }
+}
@@ -0,0 +1,84 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.de.core.batch.BooleanVector;
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.DoubleVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把批次编码为一条多行 INSERT 语句
+ * 数值与布尔值不加引号，字符串、日期及无法解析的原始文本以单引号字面量写出
+ */
+class SqlRowEncoder implements BatchEncoder {
+    private final String insertPrefix;
+    // MySQL 默认把字符串中的反斜杠当作转义符
+    private final boolean escapeBackslash;
+    private final StringBuilder text = new StringBuilder(64 * 1024);
+    private final BatchBuffer buffer = new BatchBuffer(64 * 1024);
+
+    /**
+     * @param quotedTable 已加引号的表名
+     * @param quotedColumns 已加引号、逗号分隔的列名
+     */
+    SqlRowEncoder(String quotedTable, String quotedColumns, boolean escapeBackslash) {
+        this.insertPrefix = "INSERT INTO " + quotedTable + " (" + quotedColumns + ") VALUES\n";
+        this.escapeBackslash = escapeBackslash;
+    }
+
+    @Override
+    public BatchBuffer encode(RowBatch batch) {
+        text.setLength(0);
+        text.append(insertPrefix);
+        int columnCount = batch.columnCount();
+        for (int row = 0; row < batch.size(); row++) {
+            text.append(row > 0 ? ",\n(" : "(");
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) text.append(", ");
+                appendLiteral(batch.vector(j), row);
+            }
+            text.append(')');
+        }
+        text.append(";\n");
+        buffer.reset();
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        return buffer;
+    }
+
+    private void appendLiteral(ColumnVector vector, int row) {
+        if (vector.isNull(row)) {
+            text.append("NULL");
+            return;
+        }
+        if (vector.rawText(row) == null) {
+            if (vector instanceof BooleanVector v) {
+                text.append(v.get(row) ? "TRUE" : "FALSE");
+                return;
+            }
+            if (vector instanceof LongVector || vector instanceof DoubleVector || vector instanceof DecimalVector) {
+                vector.appendText(text, row);
+                return;
+            }
+        }
+        text.append('\'');
+        int start = text.length();
+        vector.appendText(text, row);
+        if (vector.needsEscape(row)) {
+            escapeFrom(start);
+        }
+        text.append('\'');
+    }
+
+    private void escapeFrom(int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || (c == '\\' && escapeBackslash)) {
+                text.insert(i++, c);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package team.zhh.de.core.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 文本文件导出接收端（CSV / TSV / SQL）
+ * 写入线程把批次编码后写入按大小滚动的文件，编码缓冲区在批次间复用
+ */
+public class TextFileSink extends AbstractBatchSink {
+    private static final Logger logger = LoggerFactory.getLogger(TextFileSink.class);
+
+    private final BatchEncoder encoder;
+    private final RollingFileOutput output;
+
+    private TextFileSink(List<ColumnMetadata> columnsToGenerate, ExportTarget target, String extension, BatchEncoder encoder,
+                         int batchSize, int queueDepth) {
+        super(columnsToGenerate, batchSize, queueDepth);
+        this.encoder = encoder;
+        this.output = new RollingFileOutput(target, extension, encoder.header());
+    }
+
+    public static TextFileSink csv(List<ColumnMetadata> columnsToGenerate, ExportTarget target, int batchSize, int queueDepth) {
+        return new TextFileSink(columnsToGenerate, target, ExportFormat.CSV.getExtension(), new CsvRowEncoder(columnsToGenerate),
+            batchSize, queueDepth);
+    }
+
+    public static TextFileSink tsv(List<ColumnMetadata> columnsToGenerate, ExportTarget target, int batchSize, int queueDepth) {
+        return new TextFileSink(columnsToGenerate, target, ExportFormat.TSV.getExtension(), new TextRowEncoder(),
+            batchSize, queueDepth);
+    }
+
+    /**
+     * @param quotedTable 已加引号的表名
+     * @param quotedColumns 已加引号、逗号分隔的列名
+     * @param escapeBackslash 字符串中的反斜杠是否需要转义（MySQL）
+     */
+    public static TextFileSink sql(List<ColumnMetadata> columnsToGenerate, ExportTarget target, String quotedTable, String quotedColumns,
+                                   boolean escapeBackslash, int batchSize, int queueDepth) {
+        return new TextFileSink(columnsToGenerate, target, ExportFormat.SQL.getExtension(),
+            new SqlRowEncoder(quotedTable, quotedColumns, escapeBackslash), batchSize, queueDepth);
+    }
+
+    @Override
+    protected void open() {
+        // 文件在第一次写入时创建，没有数据的分区不产生空文件
+    }
+
+    @Override
+    protected void write(RowBatch batch) throws IOException {
+        BatchBuffer buffer = encoder.encode(batch);
+        output.write(buffer.array(), 0, buffer.size());
+        output.rollIfFull();
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        output.close();
+    }
+
+    @Override
+    protected void release() {
+        try {
+            output.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close export file: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package team.zhh.de.core.sink;
+
+import team.zhh.de.core.batch.ColumnVector;
+import team.zhh.de.core.batch.RowBatch;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把批次编码为制表符分隔、反斜杠转义、\N 表示空值的文本，
+ * 即 PostgreSQL COPY 文本格式，同时也是 MySQL LOAD DATA 的默认格式（也用于 TSV 导出）
+ */
+class TextRowEncoder implements BatchEncoder {
+    private final StringBuilder text = new StringBuilder(64 * 1024);
+    private final BatchBuffer buffer = new BatchBuffer(64 * 1024);
+
+    @Override
+    public BatchBuffer encode(RowBatch batch) {
+        text.setLength(0);
+        int columnCount = batch.columnCount();
+        for (int row = 0; row < batch.size(); row++) {
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) text.append('\t');
+                ColumnVector vector = batch.vector(j);
+                if (vector.isNull(row)) {
+                    text.append("\\N");
+                    continue;
+                }
+                int start = text.length();
+                vector.appendText(text, row);
+                if (vector.needsEscape(row)) {
+                    escapeFrom(start);
+                }
+            }
+            text.append('\n');
+        }
+        buffer.reset();
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        return buffer;
+    }
+
+    private void escapeFrom(int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char escaped = switch (c) {
+                case '\\' -> '\\';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                default -> 0;
+            };
+            if (escaped != 0) {
+                text.setCharAt(i, '\\');
+                text.insert(++i, escaped);
+            }
+        }
+    }
+}
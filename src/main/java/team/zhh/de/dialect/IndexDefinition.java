@@ -0,0 +1,9 @@
+package team.zhh.de.dialect;
+
+/**
+ * 加载期间暂时删除、加载后重建的二级索引
+ * @param name 索引名（PostgreSQL 为带模式名、已加引号的名称）
+ * @param definition 重建所需的定义，格式由方言决定
+ */
+public record IndexDefinition(String name, String definition) {
+}
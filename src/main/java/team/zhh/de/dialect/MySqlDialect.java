@@ -0,0 +1,177 @@
+package team.zhh.de.dialect;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL：开启 rewriteBatchedStatements 后驱动按 max_allowed_packet 把批量单行插入合并为多行语句
+ */
+public class MySqlDialect extends SqlDialect {
+    static final MySqlDialect INSTANCE = new MySqlDialect();
+
+    @Override
+    public String name() {
+        return "mysql";
+    }
+
+    @Override
+    public String driverClassName() {
+        return "com.mysql.cj.jdbc.Driver";
+    }
+
+    @Override
+    protected char openQuote() {
+        return '`';
+    }
+
+    @Override
+    protected char closeQuote() {
+        return '`';
+    }
+
+    @Override
+    protected int maxParameters() {
+        return 65535;
+    }
+
+    @Override
+    protected boolean driverBatchesRows() {
+        return true;
+    }
+
+    @Override
+    public void configure(HikariConfig config, boolean bulkLoad) {
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // 改写依赖客户端预处理语句
+        config.addDataSourceProperty("useServerPrepStmts", "false");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        if (bulkLoad) {
+            config.addDataSourceProperty("allowLoadLocalInfile", "true");
+        }
+    }
+
+    @Override
+    public int streamingFetchSize(int fetchSize) {
+        // MySQL 驱动只有 fetchSize 为 Integer.MIN_VALUE 时才逐行流式读取
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public boolean escapesBackslash() {
+        return true;
+    }
+
+    @Override
+    public List<String> disableChecksSql() {
+        // MySQL 不能按会话关闭触发器
+        return List.of("SET foreign_key_checks = 0");
+    }
+
+    @Override
+    public List<String> enableChecksSql() {
+        return List.of("SET foreign_key_checks = 1");
+    }
+
+    /**
+     * 外键要求引用列与被引用列上有索引，首列为这类列的索引不能删除；函数索引不删除
+     */
+    @Override
+    public List<IndexDefinition> deferrableIndexes(Connection conn, String tableName) throws SQLException {
+        Set<String> foreignKeyColumns = new HashSet<>();
+        String keySql = "SELECT COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND REFERENCED_TABLE_NAME IS NOT NULL"
+            + " UNION SELECT REFERENCED_COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE"
+            + " WHERE REFERENCED_TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME = ?";
+        try (PreparedStatement ps = conn.prepareStatement(keySql)) {
+            ps.setString(1, tableName);
+            ps.setString(2, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    foreignKeyColumns.add(rs.getString(1));
+                }
+            }
+        }
+
+        String sql = "SELECT INDEX_NAME, INDEX_TYPE, COLUMN_NAME, SUB_PART, COLLATION FROM information_schema.STATISTICS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 1"
+            + " ORDER BY INDEX_NAME, SEQ_IN_INDEX";
+        Map<String, List<String>> parts = new LinkedHashMap<>();
+        Map<String, String> types = new LinkedHashMap<>();
+        Set<String> skipped = new HashSet<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    String column = rs.getString(3);
+                    List<String> columns = parts.computeIfAbsent(name, k -> new ArrayList<>());
+                    if (column == null || (columns.isEmpty() && foreignKeyColumns.contains(column))) {
+                        skipped.add(name);
+                        continue;
+                    }
+                    types.putIfAbsent(name, rs.getString(2));
+                    long subPart = rs.getLong(4);
+                    String part = quote(column) + (rs.wasNull() ? "" : "(" + subPart + ")");
+                    columns.add("D".equals(rs.getString(5)) ? part + " DESC" : part);
+                }
+            }
+        }
+
+        List<IndexDefinition> indexes = new ArrayList<>();
+        parts.forEach((name, columns) -> {
+            if (skipped.contains(name)) {
+                return;
+            }
+            String type = types.get(name);
+            String kind = "FULLTEXT".equals(type) ? "FULLTEXT INDEX " : "SPATIAL".equals(type) ? "SPATIAL INDEX " : "INDEX ";
+            indexes.add(new IndexDefinition(name, kind + quote(name) + " (" + String.join(", ", columns) + ")"));
+        });
+        return indexes;
+    }
+
+    @Override
+    public List<String> dropIndexesSql(String quotedTable, List<IndexDefinition> indexes) {
+        if (indexes.isEmpty()) {
+            return List.of();
+        }
+        return List.of("ALTER TABLE " + quotedTable + " "
+            + indexes.stream().map(index -> "DROP INDEX " + quote(index.name())).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * 普通索引合并为一条 ALTER，InnoDB 只扫描一次表并排序构建全部索引；全文索引每条语句只能建一个
+     */
+    @Override
+    public List<String> createIndexesSql(String quotedTable, List<IndexDefinition> indexes) {
+        List<String> statements = new ArrayList<>();
+        List<String> clauses = new ArrayList<>();
+        for (IndexDefinition index : indexes) {
+            if (index.definition().startsWith("FULLTEXT")) {
+                statements.add("ALTER TABLE " + quotedTable + " ADD " + index.definition());
+            } else {
+                clauses.add("ADD " + index.definition());
+            }
+        }
+        if (!clauses.isEmpty()) {
+            statements.add(0, "ALTER TABLE " + quotedTable + " " + String.join(", ", clauses));
+        }
+        return statements;
+    }
+
+    @Override
+    public String analyzeSql(String quotedTable) {
+        return "ANALYZE TABLE " + quotedTable;
+    }
+}
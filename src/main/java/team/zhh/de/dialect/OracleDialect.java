@@ -0,0 +1,38 @@
+package team.zhh.de.dialect;
+
+/**
+ * Oracle：不支持多行 VALUES，驱动把 executeBatch 作为数组绑定一次发送，单行语句即为最快形状
+ */
+public class OracleDialect extends SqlDialect {
+    static final OracleDialect INSTANCE = new OracleDialect();
+
+    @Override
+    public String name() {
+        return "oracle";
+    }
+
+    @Override
+    public String driverClassName() {
+        return "oracle.jdbc.OracleDriver";
+    }
+
+    @Override
+    protected char openQuote() {
+        return '"';
+    }
+
+    @Override
+    protected char closeQuote() {
+        return '"';
+    }
+
+    @Override
+    protected int maxParameters() {
+        return 65535;
+    }
+
+    @Override
+    protected boolean driverBatchesRows() {
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package team.zhh.de.dialect;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL：驱动的 reWriteBatchedInserts 每条最多合并128行，自行拼接多行 VALUES 可以用满协议的参数上限
+ */
+public class PostgreSqlDialect extends SqlDialect {
+    static final PostgreSqlDialect INSTANCE = new PostgreSqlDialect();
+
+    @Override
+    public String name() {
+        return "postgresql";
+    }
+
+    @Override
+    public String driverClassName() {
+        return "org.postgresql.Driver";
+    }
+
+    @Override
+    protected char openQuote() {
+        return '"';
+    }
+
+    @Override
+    protected char closeQuote() {
+        return '"';
+    }
+
+    @Override
+    protected int maxParameters() {
+        // Bind 消息的参数个数为 int16
+        return 32767;
+    }
+
+    @Override
+    protected boolean driverBatchesRows() {
+        return false;
+    }
+
+    @Override
+    public void configure(HikariConfig config, boolean bulkLoad) {
+        // 单行语句的批量执行也由驱动合并
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+    }
+
+    @Override
+    public List<String> disableChecksSql() {
+        // replica 角色下外键约束触发器与普通触发器都不触发（需要超级用户权限）
+        return List.of("SET session_replication_role = replica");
+    }
+
+    @Override
+    public List<String> enableChecksSql() {
+        return List.of("SET session_replication_role = DEFAULT");
+    }
+
+    @Override
+    public List<IndexDefinition> deferrableIndexes(Connection conn, String tableName) throws SQLException {
+        String sql = "SELECT quote_ident(n.nspname) || '.' || quote_ident(i.relname), pg_get_indexdef(x.indexrelid)"
+            + " FROM pg_index x"
+            + " JOIN pg_class i ON i.oid = x.indexrelid"
+            + " JOIN pg_namespace n ON n.oid = i.relnamespace"
+            + " WHERE x.indrelid = CAST(CAST(? AS text) AS regclass) AND NOT x.indisprimary AND NOT x.indisunique"
+            + " AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = x.indexrelid)"
+            + " ORDER BY 1";
+        List<IndexDefinition> indexes = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, quote(tableName));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    indexes.add(new IndexDefinition(rs.getString(1), rs.getString(2)));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public String analyzeSql(String quotedTable) {
+        return "ANALYZE " + quotedTable;
+    }
+}
@@ -0,0 +1,160 @@
+package team.zhh.de.dialect;
+
+import com.zaxxer.hikari.HikariConfig;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 数据库方言：标识符引号、插入语句的形状与驱动的批量参数
+ * 批量插入有两种形状：驱动能把 executeBatch 改写为多行语句或数组绑定时使用单行语句；
+ * 否则由方言拼接多行 VALUES，每条语句的行数受数据库参数个数上限约束
+ */
+public abstract class SqlDialect {
+
+    /**
+     * 按连接url识别数据库类型
+     */
+    public static SqlDialect forUrl(String url) {
+        if (url.contains("mysql")) return MySqlDialect.INSTANCE;
+        if (url.contains("postgresql")) return PostgreSqlDialect.INSTANCE;
+        if (url.contains("oracle")) return OracleDialect.INSTANCE;
+        if (url.contains("sqlserver")) return SqlServerDialect.INSTANCE;
+        throw new IllegalArgumentException("Could not detect database type from URL");
+    }
+
+    /**
+     * 数据库类型名（mysql / postgresql / oracle / sqlserver）
+     */
+    public abstract String name();
+
+    public abstract String driverClassName();
+
+    protected abstract char openQuote();
+
+    protected abstract char closeQuote();
+
+    /**
+     * 单条语句允许的绑定参数个数上限
+     */
+    protected abstract int maxParameters();
+
+    /**
+     * 单条 VALUES 允许的行数上限
+     */
+    protected int maxRowsPerStatement() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 驱动是否会自行合并批量的单行插入（改写为多行语句或数组绑定）
+     */
+    protected abstract boolean driverBatchesRows();
+
+    /**
+     * 设置驱动的批量相关属性
+     * @param bulkLoad 是否使用原生批量导入（COPY / LOAD DATA）
+     */
+    public void configure(HikariConfig config, boolean bulkLoad) {
+    }
+
+    /**
+     * 给标识符加引号，标识符中的结束引号双写
+     */
+    public String quote(String identifier) {
+        String close = String.valueOf(closeQuote());
+        return openQuote() + identifier.replace(close, close + close) + closeQuote();
+    }
+
+    /**
+     * 已加引号、逗号分隔的列名
+     */
+    public String quoteColumns(List<ColumnMetadata> columns) {
+        return columns.stream().map(col -> quote(col.name())).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 每条插入语句包含的行数，驱动自行合并批量时为1
+     */
+    public int rowsPerStatement(int columnCount, int batchSize) {
+        if (driverBatchesRows()) {
+            return 1;
+        }
+        int byParameters = Math.max(1, maxParameters() / Math.max(1, columnCount));
+        return Math.max(1, Math.min(batchSize, Math.min(byParameters, maxRowsPerStatement())));
+    }
+
+    /**
+     * 含 rows 行占位符的 INSERT 语句
+     */
+    public String insertSql(String quotedTable, String quotedColumns, int columnCount, int rows) {
+        StringBuilder sql = new StringBuilder(32 + rows * (columnCount * 3 + 4))
+            .append("INSERT INTO ").append(quotedTable).append(" (").append(quotedColumns).append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) sql.append(", ");
+            sql.append('(');
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) sql.append(", ");
+                sql.append('?');
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 逐行流式读取大结果集使用的 fetchSize
+     */
+    public int streamingFetchSize(int fetchSize) {
+        return fetchSize;
+    }
+
+    /**
+     * 字符串字面量中的反斜杠是否为转义符
+     */
+    public boolean escapesBackslash() {
+        return false;
+    }
+
+    /**
+     * 加载期间关闭外键检查与触发器的会话语句，为空表示不支持
+     */
+    public List<String> disableChecksSql() {
+        return List.of();
+    }
+
+    /**
+     * 恢复外键检查与触发器的会话语句
+     */
+    public List<String> enableChecksSql() {
+        return List.of();
+    }
+
+    /**
+     * 表上可以在加载期间删除、加载后重建的二级索引：非唯一、不支撑主键/唯一/外键约束
+     */
+    public List<IndexDefinition> deferrableIndexes(Connection conn, String tableName) throws SQLException {
+        return List.of();
+    }
+
+    public List<String> dropIndexesSql(String quotedTable, List<IndexDefinition> indexes) {
+        return indexes.stream().map(index -> "DROP INDEX " + index.name()).toList();
+    }
+
+    /**
+     * 重建索引的语句，各语句在独立连接上并行执行
+     */
+    public List<String> createIndexesSql(String quotedTable, List<IndexDefinition> indexes) {
+        return indexes.stream().map(IndexDefinition::definition).toList();
+    }
+
+    /**
+     * 加载后更新统计信息的语句，null 表示不需要
+     */
+    public String analyzeSql(String quotedTable) {
+        return null;
+    }
+}
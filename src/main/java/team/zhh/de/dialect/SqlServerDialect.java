@@ -0,0 +1,44 @@
+package team.zhh.de.dialect;
+
+/**
+ * SQL Server：驱动逐行执行批量插入，使用多行 VALUES，受每条语句2100个参数和1000行的限制
+ */
+public class SqlServerDialect extends SqlDialect {
+    static final SqlServerDialect INSTANCE = new SqlServerDialect();
+
+    @Override
+    public String name() {
+        return "sqlserver";
+    }
+
+    @Override
+    public String driverClassName() {
+        return "com.microsoft.sqlserver.jdbc.SQLServerDriver";
+    }
+
+    @Override
+    protected char openQuote() {
+        return '[';
+    }
+
+    @Override
+    protected char closeQuote() {
+        return ']';
+    }
+
+    @Override
+    protected int maxParameters() {
+        // 2100 个参数中驱动自身会占用少量
+        return 2098;
+    }
+
+    @Override
+    protected int maxRowsPerStatement() {
+        return 1000;
+    }
+
+    @Override
+    protected boolean driverBatchesRows() {
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package team.zhh.de.exception;
+
+/**
+ * AI 接口限流或繁忙（HTTP 429/503），可在等待后重试
+ */
+public class AiRateLimitException extends DeepSeekException {
+    // 服务端建议的等待时间（Retry-After），未提供时为 0
+    private final long retryAfterMillis;
+
+    public AiRateLimitException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public AiRateLimitException(String message, long retryAfterMillis, Throwable cause) {
+        super(message, cause);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,158 @@
+package team.zhh.de.job;
+
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.base.model.JobStatus;
+import team.zhh.de.core.GenerationMonitor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步生成任务
+ * 作为 GenerationMonitor 接收各分区的进度回调，并按采样计算写入速度与剩余时间
+ */
+public class GenerationJob implements GenerationMonitor {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    // 速度平滑系数，越大越偏向最近一次采样
+    private static final double RATE_ALPHA = 0.3;
+
+    private final String id;
+    private final GenerationRequest request;
+    private final long createdAt = System.currentTimeMillis();
+    private final AtomicLong generatedRows = new AtomicLong();
+    private final AtomicLong insertedRows = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String message;
+    private volatile Future<?> future;
+    private volatile int workers;
+
+    // 速度采样
+    private long lastSampleTime;
+    private long lastSampleRows;
+    private volatile double rowsPerSecond;
+
+    public GenerationJob(String id, GenerationRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GenerationRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * 提交人，未指定时为数据库用户名，排队时按提交人轮转
+     */
+    public String getSubmitter() {
+        String submitter = request.getSubmitter();
+        return submitter != null && !submitter.isBlank() ? submitter : String.valueOf(request.getUsername());
+    }
+
+    public int getPriority() {
+        return request.getPriority();
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    @Override
+    public void onGenerated(long rows) {
+        generatedRows.addAndGet(rows);
+    }
+
+    @Override
+    public void onWritten(long rows) {
+        insertedRows.addAndGet(rows);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /**
+     * 请求取消：设置取消标记并中断执行线程，生成与写入在下一个批次处停止
+     */
+    public boolean cancel() {
+        if (state.isTerminal()) {
+            return false;
+        }
+        cancelRequested = true;
+        Future<?> f = future;
+        if (f != null) {
+            f.cancel(true);
+        }
+        // 尚未开始执行的任务直接结束
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED, "任务已取消");
+        }
+        return true;
+    }
+
+    public void markRunning() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+    }
+
+    public synchronized void finish(State finalState, String finalMessage) {
+        if (state.isTerminal()) return;
+        finishedAt = System.currentTimeMillis();
+        message = finalMessage;
+        state = finalState;
+    }
+
+    /**
+     * 采样写入速度，由定时任务调用
+     */
+    public synchronized void sample(long now) {
+        long rows = insertedRows.get();
+        if (lastSampleTime > 0 && now > lastSampleTime) {
+            double instant = (rows - lastSampleRows) * 1000.0 / (now - lastSampleTime);
+            rowsPerSecond = rowsPerSecond == 0 ? instant : RATE_ALPHA * instant + (1 - RATE_ALPHA) * rowsPerSecond;
+        }
+        lastSampleTime = now;
+        lastSampleRows = rows;
+    }
+
+    public JobStatus snapshot() {
+        long inserted = insertedRows.get();
+        double rate = state == State.RUNNING ? rowsPerSecond : 0;
+        long eta = -1;
+        if (state == State.RUNNING && rate > 0) {
+            eta = (long) Math.ceil(Math.max(0, request.getRows() - inserted) / rate);
+        } else if (state.isTerminal()) {
+            eta = 0;
+        }
+        return new JobStatus(
+            id, request.getTableName(), request.getEngineType(), state.name(),
+            request.getRows(), generatedRows.get(), inserted,
+            rate, eta, createdAt, startedAt, finishedAt, message,
+            getSubmitter(), getPriority(), state == State.RUNNING ? workers : 0
+        );
+    }
+}
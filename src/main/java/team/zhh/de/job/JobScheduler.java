@@ -0,0 +1,312 @@
+package team.zhh.de.job;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import team.zhh.de.core.WorkerBudget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 全局任务调度
+ * 排队：优先级高的先执行，同优先级时正在执行任务少的提交人先执行，再按提交顺序；
+ * 工作槽：全局工作线程数、每个目标库的连接数、批次缓冲的堆内存三项预算，任务运行中按需领取，
+ * 单个任务可用满全部工作槽，有任务在等待时超过公平份额（总槽数 / 活跃任务数）的任务逐个让出
+ */
+@Slf4j
+@Component
+public class JobScheduler {
+
+    // 同时执行的任务数
+    @Value("${job.max-concurrent:2}")
+    private int maxConcurrent;
+    // 排队等待的任务数上限
+    @Value("${job.queue-capacity:16}")
+    private int queueCapacity;
+    // 全部任务合计的工作线程数，0 表示使用CPU核数
+    @Value("${scheduler.max-workers:0}")
+    private int maxWorkersConfig;
+    // 同一目标库合计占用的连接数，0 表示使用连接池上限
+    @Value("${scheduler.target-connections:0}")
+    private int targetConnectionsConfig;
+    @Value("${datasource.pool.max-size:20}")
+    private int poolMaxSize;
+    // 批次缓冲合计可占用的最大堆比例
+    @Value("${scheduler.heap-fraction:0.5}")
+    private double heapFraction;
+
+    private final List<Entry> queue = new ArrayList<>();
+    private final List<JobBudget> running = new ArrayList<>();
+    private final Map<String, Integer> runningBySubmitter = new HashMap<>();
+    private final Map<String, Integer> connectionsByTarget = new HashMap<>();
+    private int maxWorkers;
+    private int targetConnections;
+    private long heapBudget;
+    private int workersInUse;
+    private long heapInUse;
+    private long sequence;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        maxWorkers = maxWorkersConfig > 0 ? maxWorkersConfig : Runtime.getRuntime().availableProcessors();
+        targetConnections = targetConnectionsConfig > 0 ? targetConnectionsConfig : poolMaxSize;
+        heapBudget = (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxConcurrent, r -> new Thread(r, "job-" + threadIndex.incrementAndGet()));
+        log.info("Job scheduler: {} concurrent jobs, {} workers, {} connections per target, {} MB buffer heap",
+            maxConcurrent, maxWorkers, targetConnections, heapBudget >> 20);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 任务排队，轮到时在任务线程中以该任务的工作线程预算执行
+     * @throws IllegalStateException 排队任务已满
+     */
+    public synchronized void submit(GenerationJob job, Consumer<WorkerBudget> task) {
+        purgeCancelled();
+        if (queue.size() >= queueCapacity) {
+            throw new IllegalStateException("任务队列已满，请稍后重试");
+        }
+        queue.add(new Entry(job, task, sequence++));
+        dispatch();
+    }
+
+    private void dispatch() {
+        purgeCancelled();
+        while (running.size() < maxConcurrent && !queue.isEmpty()) {
+            Entry next = queue.get(0);
+            for (Entry entry : queue) {
+                if (compare(entry, next) < 0) {
+                    next = entry;
+                }
+            }
+            queue.remove(next);
+            JobBudget budget = new JobBudget(next.job);
+            running.add(budget);
+            runningBySubmitter.merge(budget.submitter, 1, Integer::sum);
+            Entry entry = next;
+            entry.job.setFuture(executor.submit(() -> {
+                try {
+                    entry.task.accept(budget);
+                } finally {
+                    finished(budget);
+                }
+            }));
+        }
+    }
+
+    private int compare(Entry a, Entry b) {
+        int byPriority = Integer.compare(b.job.getPriority(), a.job.getPriority());
+        if (byPriority != 0) {
+            return byPriority;
+        }
+        int bySubmitter = Integer.compare(runningBySubmitter.getOrDefault(a.job.getSubmitter(), 0),
+            runningBySubmitter.getOrDefault(b.job.getSubmitter(), 0));
+        return bySubmitter != 0 ? bySubmitter : Long.compare(a.sequence, b.sequence);
+    }
+
+    // 排队中被取消的任务已经结束，不再占用队列
+    private void purgeCancelled() {
+        queue.removeIf(entry -> entry.job.getState().isTerminal());
+    }
+
+    private synchronized void finished(JobBudget budget) {
+        for (JobLease lease : new ArrayList<>(budget.leases)) {
+            lease.close();
+        }
+        running.remove(budget);
+        runningBySubmitter.computeIfPresent(budget.submitter, (k, n) -> n > 1 ? n - 1 : null);
+        notifyAll();
+        dispatch();
+    }
+
+    /**
+     * 有工作槽的任务与等待工作槽的任务都算作活跃任务
+     */
+    private int fairShare() {
+        int active = 0;
+        for (JobBudget budget : running) {
+            if (budget.held > 0 || budget.waiting > 0) {
+                active++;
+            }
+        }
+        return Math.max(1, maxWorkers / Math.max(1, active));
+    }
+
+    private boolean othersWaiting(JobBudget self) {
+        for (JobBudget budget : running) {
+            if (budget != self && budget.waiting > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int grant(JobLease lease, int wanted) {
+        JobBudget budget = lease.budget;
+        // 有其他任务等待时不超过公平份额，但每个任务至少保留一个工作槽
+        int limit = othersWaiting(budget) ? Math.max(1, fairShare()) : maxWorkers;
+        int granted = 0;
+        while (granted < wanted && lease.held < lease.maxWorkers
+            && workersInUse < maxWorkers
+            && (budget.held < limit || budget.held == 0)
+            && (!lease.usesConnection || connectionsByTarget.getOrDefault(budget.target, 0) < targetConnections)
+            // 单个工作线程的缓冲超过预算时，整个JVM只允许这一个工作线程
+            && (heapInUse + lease.bytesPerWorker <= heapBudget || workersInUse == 0)) {
+            lease.held++;
+            budget.held++;
+            workersInUse++;
+            heapInUse += lease.bytesPerWorker;
+            if (lease.usesConnection) {
+                connectionsByTarget.merge(budget.target, 1, Integer::sum);
+            }
+            granted++;
+        }
+        budget.job.setWorkers(budget.held);
+        return granted;
+    }
+
+    private void releaseOne(JobLease lease) {
+        JobBudget budget = lease.budget;
+        lease.held--;
+        budget.held--;
+        if (budget.yielding > 0) {
+            budget.yielding--;
+        }
+        workersInUse--;
+        heapInUse -= lease.bytesPerWorker;
+        if (lease.usesConnection) {
+            connectionsByTarget.computeIfPresent(budget.target, (k, n) -> n > 1 ? n - 1 : null);
+        }
+        budget.job.setWorkers(budget.held);
+        notifyAll();
+    }
+
+    /**
+     * 目标库以去掉参数的连接url区分，不同用户连接同一个库共用连接预算
+     */
+    static String target(String url) {
+        if (url == null) {
+            return "";
+        }
+        int end = url.length();
+        for (char c : new char[]{'?', ';'}) {
+            int index = url.indexOf(c, url.indexOf("//") + 1);
+            if (index > 0) {
+                end = Math.min(end, index);
+            }
+        }
+        return url.substring(0, end);
+    }
+
+    private record Entry(GenerationJob job, Consumer<WorkerBudget> task, long sequence) {
+    }
+
+    private final class JobBudget implements WorkerBudget {
+        private final GenerationJob job;
+        private final String submitter;
+        private final String target;
+        private final List<JobLease> leases = new ArrayList<>();
+        private int held;
+        // 已决定让出、尚未归还的工作槽
+        private int yielding;
+        private int waiting;
+
+        JobBudget(GenerationJob job) {
+            this.job = job;
+            this.submitter = job.getSubmitter();
+            this.target = target(job.getRequest().getUrl());
+        }
+
+        @Override
+        public Lease lease(int maxWorkers, boolean usesConnection, long bytesPerWorker) {
+            synchronized (JobScheduler.this) {
+                JobLease lease = new JobLease(this, maxWorkers, usesConnection, bytesPerWorker);
+                leases.add(lease);
+                return lease;
+            }
+        }
+    }
+
+    private final class JobLease implements WorkerBudget.Lease {
+        private final JobBudget budget;
+        private final int maxWorkers;
+        private final boolean usesConnection;
+        private final long bytesPerWorker;
+        private int held;
+
+        JobLease(JobBudget budget, int maxWorkers, boolean usesConnection, long bytesPerWorker) {
+            this.budget = budget;
+            this.maxWorkers = Math.max(1, maxWorkers);
+            this.usesConnection = usesConnection;
+            this.bytesPerWorker = bytesPerWorker;
+        }
+
+        @Override
+        public int acquire(int wanted) throws InterruptedException {
+            synchronized (JobScheduler.this) {
+                budget.waiting++;
+                try {
+                    int granted;
+                    while ((granted = grant(this, wanted)) == 0) {
+                        JobScheduler.this.wait();
+                    }
+                    return granted;
+                } finally {
+                    budget.waiting--;
+                }
+            }
+        }
+
+        @Override
+        public int tryAcquire(int wanted) {
+            synchronized (JobScheduler.this) {
+                return grant(this, wanted);
+            }
+        }
+
+        @Override
+        public void release() {
+            synchronized (JobScheduler.this) {
+                if (held > 0) {
+                    releaseOne(this);
+                }
+            }
+        }
+
+        @Override
+        public boolean shouldYield() {
+            synchronized (JobScheduler.this) {
+                if (budget.held - budget.yielding > fairShare() && othersWaiting(budget)) {
+                    budget.yielding++;
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (JobScheduler.this) {
+                while (held > 0) {
+                    releaseOne(this);
+                }
+                budget.leases.remove(this);
+            }
+        }
+    }
+}
@@ -4,19 +4,58 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import team.zhh.base.model.ColumnMetadata;
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.de.core.GenerationContext;
+import team.zhh.de.core.GenerationMetrics;
+import team.zhh.de.core.GenerationMonitor;
 import team.zhh.de.core.IDataEngine;
+import team.zhh.de.core.RowSink;
 import team.zhh.de.core.TempDatasourcePool;
+import team.zhh.de.core.WorkerBudget;
+import team.zhh.de.core.checkpoint.JobCheckpoint;
+import team.zhh.de.core.checkpoint.TableCheckpoint;
+import team.zhh.de.core.checkpoint.UnitMarkers;
+import team.zhh.de.core.key.KeyGenerator;
+import team.zhh.de.core.key.KeyGenerators;
+import team.zhh.de.core.key.SequenceKeyGenerator;
+import team.zhh.de.core.profile.TableProfile;
+import team.zhh.de.core.schema.IndexDeferral;
+import team.zhh.de.core.schema.IndexJournal;
+import team.zhh.de.core.schema.KeyPool;
+import team.zhh.de.core.schema.RangeKeyPool;
+import team.zhh.de.core.sink.AbstractBatchSink;
+import team.zhh.de.core.sink.ExportFormat;
+import team.zhh.de.core.sink.ExportTarget;
+import team.zhh.de.core.sink.ForeignKeySink;
+import team.zhh.de.core.sink.JdbcBatchSink;
+import team.zhh.de.core.sink.KeyAssigningSink;
+import team.zhh.de.core.sink.MySqlLoadDataSink;
+import team.zhh.de.core.sink.ParquetFileSink;
+import team.zhh.de.core.sink.PgCopySink;
+import team.zhh.de.core.sink.TextFileSink;
+import team.zhh.de.dialect.SqlDialect;
 
 import javax.sql.DataSource;
-import java.sql.PreparedStatement;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,140 +71,480 @@ public class DataGenerationService {
     @Autowired
     private TempDatasourcePool tempDatasourcePool;
 
+    @Autowired
+    private GenerationMetrics generationMetrics;
+
+    @Autowired
+    private IndexJournal indexJournal;
+
+    @Autowired
+    private ProfileService profileService;
+
+    // 每次批量插入的行数
+    @Value("${generation.batch-size:1000}")
+    private int batchSize;
+    // 等待写入的块数上限，决定生成线程最多领先写入线程多少
+    @Value("${generation.queue-depth:4}")
+    private int queueDepth;
+    // 默认并行度，0 表示使用CPU核数
+    @Value("${generation.parallelism:0}")
+    private int defaultParallelism;
+    // 并行生成时每个工作单元的行数，工作线程在单元之间增减
+    @Value("${generation.unit-rows:1000000}")
+    private int unitRows;
+    // PostgreSQL/MySQL 默认使用 COPY / LOAD DATA 批量导入
+    @Value("${generation.bulk-load:true}")
+    private boolean defaultBulkLoad;
+    // COPY 使用二进制格式（列类型不支持时自动退回文本格式）
+    @Value("${generation.copy-binary:false}")
+    private boolean copyBinary;
+    // 加载期间删除二级索引并关闭外键检查与触发器，加载后重建
+    @Value("${index-deferral.enabled:false}")
+    private boolean defaultDeferIndexes;
+    @Value("${index-deferral.rebuild-parallelism:4}")
+    private int indexRebuildParallelism;
+    // 主键/唯一列从表中现有最大值之后开始编号
+    @Value("${keys.start-above-max:true}")
+    private boolean keysStartAboveMax;
+    // 文件导出根目录、默认压缩方式、单文件大小上限（未压缩字节，0 不滚动）
+    @Value("${export.base-dir:./export}")
+    private String exportBaseDir;
+    @Value("${export.compression:none}")
+    private String exportCompression;
+    @Value("${export.max-file-size:1073741824}")
+    private long exportMaxFileSize;
+    @Value("${export.parquet.row-group-size:134217728}")
+    private long parquetRowGroupSize;
+
     private static final Logger logger = LoggerFactory.getLogger(DataGenerationService.class);
 
     /**
      * 生成数据并插入表
-     * @param url 数据库连接url
-     * @param username 用户名
-     * @param password 密码
-     * @param tableName 表名
-     * @param rows 行数
-     * @param engineType 引擎类型（"AI" 或 "RANDOM"）
+     * 引擎逐行推送，接收端按块写入，内存占用与行数无关。
+     * 引擎支持分区时把行数拆成多个工作单元，每个单元独立的随机流，多个工作线程各用一个连接并行写入
+     * @param request 生成请求（连接信息、表名、行数、引擎、并行度等）
+     * @param monitor 进度监视器，取消时抛出 CancellationException
      */
-    public void generateData(String url, String username, String password, String tableName, int rows, String engineType) throws Exception {
+    public void generateData(GenerationRequest request, GenerationMonitor monitor) throws Exception {
+        generateData(request, monitor, Map.of(), WorkerBudget.UNLIMITED, null);
+    }
+
+    /**
+     * 生成数据并插入表，外键列的值从父表键值池抽样，主键/唯一列按行号生成不重复的值
+     * @param foreignKeyPools 外键列名 -> 父表键值池
+     * @param budget 工作线程预算，工作线程数不超过并行度，运行中按预算增减
+     * @param checkpoint 任务检查点，为 null 时不记录；有上次的进度时跳过已提交的工作单元
+     * @return 本次写入的整数键区间，列名 -> 键值池，子表可直接使用而不必回读数据库
+     */
+    public Map<String, KeyPool> generateData(GenerationRequest request, GenerationMonitor monitor,
+                             Map<String, KeyPool> foreignKeyPools, WorkerBudget budget,
+                             JobCheckpoint checkpoint) throws Exception {
+        // 整个生成期间持有目标库连接池，准备阶段和工作单元之间没有活动连接时也不会被回收
+        try (TempDatasourcePool.Lease lease = tempDatasourcePool.lease(request.getUrl(), request.getUsername(), request.getPassword())) {
+            return generateData(request, monitor, foreignKeyPools, budget, checkpoint, lease.getDataSource());
+        }
+    }
+
+    private Map<String, KeyPool> generateData(GenerationRequest request, GenerationMonitor monitor,
+                             Map<String, KeyPool> foreignKeyPools, WorkerBudget budget,
+                             JobCheckpoint checkpoint, DataSource dataSource) throws Exception {
+        String url = request.getUrl();
+        String username = request.getUsername();
+        String password = request.getPassword();
+        String tableName = request.getTableName();
+        int rows = request.getRows();
+        String engineType = request.getEngineType();
+        Boolean bulkLoad = request.getBulkLoad();
+
+        TableCheckpoint previous = checkpoint == null ? null : checkpoint.table(tableName);
+        if (previous != null && previous.isComplete()) {
+            logger.info("Table {} was loaded completely before the interruption, skipped", tableName);
+            if (monitor != null) {
+                monitor.onGenerated(rows);
+                monitor.onWritten(rows);
+            }
+            return Map.of();
+        }
+        if (previous != null && !previous.isResumable()) {
+            throw new IllegalStateException("表 " + tableName + " 中断前已写入部分数据，其引擎或导出方式不支持断点续传，无法恢复");
+        }
+
         List<ColumnMetadata> columns = databaseService.getTableColumns(url, username, password, tableName);
 
         // 选择数据生成引擎
         IDataEngine dataEngine = (IDataEngine) applicationContext.getBean(engineType);
 
-        // 获取数据源并创建JdbcTemplate
-        DataSource dataSource = tempDatasourcePool.getDataSource(url, username, password);
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        // 准备SQL
-        String sql = prepareInsertSql(tableName, columns, url);
-        logger.debug("Generated SQL = {}", sql);
+        SqlDialect dialect = SqlDialect.forUrl(url);
         logger.debug("Columns requiring generation = {}", columns.stream().filter(ColumnMetadata::requiresGeneration).map(ColumnMetadata::name).collect(Collectors.joining(", ")));
-        
-        List<String[]> dataList = dataEngine.generateAndInsertData(tableName, rows, columns);
-        logger.debug("Generated {} rows of data", dataList.size());
-        
-        // 打印前几行数据用于调试
-        if (!dataList.isEmpty()) {
-            logger.debug("First row data = {}", String.join(", ", dataList.get(0)));
-        }else{
-            throw new Exception("无数据生成");
-        }
-        
-        // 生成并插入数据
+
         List<ColumnMetadata> columnsToGenerate = columns.stream()
             .filter(ColumnMetadata::requiresGeneration)
             .collect(Collectors.toList());
-            
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                String[] values = dataList.get(i);
-                for (int j = 0; j < values.length; j++) {
-                    setValueWithTypeConversion(ps, j + 1, values[j], columnsToGenerate.get(j));
-                }
+        if (columnsToGenerate.isEmpty()) {
+            throw new IllegalStateException("No columns require generation for table: " + tableName);
+        }
+        ExportFormat exportFormat = ExportFormat.of(request.getExportFormat());
+        boolean deferIndexes = exportFormat == null
+            && (request.getDeferIndexes() != null ? request.getDeferIndexes() : defaultDeferIndexes);
+        ForeignKeyColumns foreignKeys = ForeignKeyColumns.of(columnsToGenerate, foreignKeyPools);
+        // 导出文件时目标表中的现有数据与导出结果无关；恢复时键必须排在已写入的行之后
+        KeyColumns keys = KeyColumns.of(columnsToGenerate, rows, dataSource, tableName, dialect,
+            (keysStartAboveMax || previous != null) && exportFormat == null);
+
+        TableProfile profile = profileService.resolve(request.getProfile(), tableName);
+        GenerationContext context = GenerationContext.builder()
+            .tableName(tableName)
+            .columns(columns)
+            .rowCount(rows)
+            .rowOffset(0)
+            .partition(0)
+            .seed(previous != null ? previous.getSeed() : ThreadLocalRandom.current().nextLong())
+            .fresh(request.isFresh())
+            .monitor(generationMetrics.monitor(monitor == null ? GenerationMonitor.NONE : monitor, engineType, tableName))
+            .attributes(profile == null ? Map.of() : Map.of(TableProfile.ATTRIBUTE, profile))
+            .build();
+        context = dataEngine.prepare(context);
+        int workers = dataEngine.supportsPartitioning() ? resolveParallelism(request.getParallelism(), rows, exportFormat == null) : 1;
+        // 同一种子的工作单元生成的行相同，写入数据库时可以按单元续传
+        boolean resumable = checkpoint != null && exportFormat == null && dataEngine.supportsPartitioning();
+        if (previous != null) {
+            // 本地记录可能落后于目标库的提交，以目标库中的单元标记为准
+            previous.reconcile(UnitMarkers.committedUnits(dataSource, checkpoint.getJobId(), tableName));
+        } else if (resumable) {
+            try {
+                UnitMarkers.ensureTable(dataSource);
+            } catch (SQLException e) {
+                logger.warn("Cannot create the unit marker table, {} will not be resumable: {}", tableName, e.getMessage());
+                resumable = false;
             }
+        }
+        int[] unitSizes = previous != null ? previous.getUnitRows()
+            : unitSizes(rows, workers == 1 && !resumable ? 1 : Math.max(workers, (int) Math.ceil((double) rows / Math.max(1, unitRows))));
+        List<GenerationContext> units = splitUnits(context, unitSizes);
+        TableCheckpoint tableCheckpoint = previous != null ? previous
+            : checkpoint != null ? checkpoint.start(tableName, context.getSeed(), resumable, unitSizes) : null;
+        long resumedRows = previous != null ? previous.committedRows() : 0;
+        if (resumedRows > 0) {
+            logger.info("Resuming {}: {} of {} rows were committed before the interruption", tableName, resumedRows, rows);
+            if (monitor != null) {
+                monitor.onGenerated(resumedRows);
+                monitor.onWritten(resumedRows);
+            }
+        }
+        logger.debug("Generating {} rows with up to {} worker(s) in {} unit(s)", rows, workers, units.size());
+        // 每个工作线程的批次缓冲：生成中、等待写入和写入中的批次，按每个值约32字节估计
+        long bytesPerWorker = (long) batchSize * (queueDepth + 2) * columnsToGenerate.size() * 32;
 
-            @Override
-            public int getBatchSize() {
-                return rows;
+        if (exportFormat == null && !deferIndexes) {
+            // 上次中断的延迟索引加载留下的索引先补建
+            IndexDeferral.recover(dataSource, dialect, indexJournal, url, tableName, indexRebuildParallelism);
+        }
+        IndexDeferral deferral = deferIndexes
+            ? IndexDeferral.begin(dataSource, dialect, indexJournal, url, tableName, indexRebuildParallelism) : null;
+        long generated;
+        try (WorkerBudget.Lease lease = budget.lease(workers, exportFormat == null, bytesPerWorker)) {
+            SinkFactory sinkFactory = exportFormat != null
+                ? createExportSinkFactory(request, dialect, exportFormat, columnsToGenerate)
+                : createSinkFactory(dialect, tableName, columnsToGenerate, deferral != null ? deferral.getDataSource() : dataSource,
+                    bulkLoad != null ? bulkLoad : defaultBulkLoad);
+            // 生成并分块插入数据
+            generated = runUnits(dataEngine, units, workers, sinkFactory, foreignKeys, keys, lease,
+                resumable ? tableCheckpoint : null);
+        } catch (Exception e) {
+            // 失败或取消时同样重建索引，重建失败时恢复日志保留
+            if (deferral != null) {
+                try {
+                    deferral.close();
+                } catch (Exception restoreError) {
+                    e.addSuppressed(restoreError);
+                }
             }
-        });
+            throw e;
+        }
+        if (deferral != null) {
+            deferral.close();
+        }
+        if (checkpoint != null) {
+            checkpoint.complete(tableName);
+            // 完成状态落盘后才删除标记，之间退出时只留下无用的标记行
+            if (resumable) {
+                try {
+                    UnitMarkers.clear(dataSource, checkpoint.getJobId(), tableName);
+                } catch (SQLException e) {
+                    logger.warn("Failed to clear unit markers of {}: {}", tableName, e.getMessage());
+                }
+            }
+        }
+
+        if (generated + resumedRows == 0) {
+            throw new Exception("无数据生成");
+        }
+        return keys.ranges(columnsToGenerate, generated == rows ? rows : 0);
     }
 
-    private String prepareInsertSql(String tableName, List<ColumnMetadata> columns, String url) {
-        List<ColumnMetadata> columnsToGenerate = columns.stream()
-            .filter(ColumnMetadata::requiresGeneration)
-            .collect(Collectors.toList());
-        
-        if (columnsToGenerate.isEmpty()) {
-            throw new IllegalStateException("No columns require generation for table: " + tableName);
+    private int resolveParallelism(int requested, int rows, boolean usesConnections) {
+        int parallelism = requested > 0 ? requested
+            : defaultParallelism > 0 ? defaultParallelism
+            : Runtime.getRuntime().availableProcessors();
+        // 每个分区至少一个完整批次，避免小任务开过多连接
+        int maxByRows = Math.max(1, rows / Math.max(1, batchSize));
+        // 每个分区独占一个连接，不能超过连接池上限；导出文件时不占用连接
+        int maxByPool = usesConnections ? tempDatasourcePool.getMaxPoolSize() : Integer.MAX_VALUE;
+        return Math.max(1, Math.min(parallelism, Math.min(maxByRows, maxByPool)));
+    }
+
+    private static int[] unitSizes(int rows, int unitCount) {
+        int[] sizes = new int[unitCount];
+        for (int i = 0; i < unitCount; i++) {
+            sizes[i] = rows / unitCount + (i < rows % unitCount ? 1 : 0);
+        }
+        return sizes;
+    }
+
+    private List<GenerationContext> splitUnits(GenerationContext context, int[] unitSizes) {
+        List<GenerationContext> units = new ArrayList<>(unitSizes.length);
+        long offset = 0;
+        for (int i = 0; i < unitSizes.length; i++) {
+            units.add(context.toBuilder()
+                .rowCount(unitSizes[i])
+                .rowOffset(offset)
+                .partition(i)
+                .seed(GenerationContext.partitionSeed(context.getSeed(), i))
+                .build());
+            offset += unitSizes[i];
+        }
+        return units;
+    }
+
+    /**
+     * 按数据库类型选择写入方式：PostgreSQL 使用 COPY，MySQL 使用 LOAD DATA，其余或关闭批量导入时使用批量INSERT
+     */
+    private SinkFactory createSinkFactory(SqlDialect dialect, String tableName, List<ColumnMetadata> columnsToGenerate,
+                                          DataSource dataSource, boolean bulkLoad) {
+        String dbType = dialect.name();
+        String quotedTable = dialect.quote(tableName);
+        if (bulkLoad) {
+            String quotedColumns = dialect.quoteColumns(columnsToGenerate);
+            if ("postgresql".equals(dbType)) {
+                logger.debug("Using COPY ({}) for {}", copyBinary ? "binary" : "text", tableName);
+                return worker -> new PgCopySink(dataSource, quotedTable, quotedColumns, columnsToGenerate, copyBinary, batchSize, queueDepth);
+            }
+            if ("mysql".equals(dbType)) {
+                logger.debug("Using LOAD DATA LOCAL INFILE for {}", tableName);
+                return worker -> new MySqlLoadDataSink(dataSource, quotedTable, quotedColumns, columnsToGenerate, batchSize, queueDepth);
+            }
         }
-        
-        String dbType = detectDbTypeFromUrl(url);
-        String quoteChar = getQuoteChar(dbType);
-        
-        String columnNames = columnsToGenerate.stream()
-            .map(col -> quoteChar + col.name() + quoteChar)
-            .collect(Collectors.joining(", "));
-        String placeholders = columnsToGenerate.stream()
-            .map(c -> "?")
-            .collect(Collectors.joining(", "));
-        
-        return String.format("INSERT INTO %s%s%s (%s) VALUES (%s)", 
-            quoteChar, tableName, quoteChar, columnNames, placeholders);
+        return worker -> new JdbcBatchSink(dataSource, dialect, quotedTable, columnsToGenerate, batchSize, queueDepth);
     }
-    
-    private String detectDbTypeFromUrl(String url) {
-        if (url.contains("mysql")) return "mysql";
-        if (url.contains("postgresql")) return "postgresql";
-        if (url.contains("oracle")) return "oracle";
-        if (url.contains("sqlserver")) return "sqlserver";
-        return "mysql"; // 默认
+
+    /**
+     * 导出到文件：每个工作线程写自己的一组文件（表名-p工作线程号-序号），并行写入互不争用
+     */
+    private SinkFactory createExportSinkFactory(GenerationRequest request, SqlDialect dialect, ExportFormat format,
+                                                List<ColumnMetadata> columnsToGenerate) {
+        Path directory = resolveExportDirectory(request.getExportPath());
+        String compression = request.getExportCompression() != null && !request.getExportCompression().isBlank()
+            ? request.getExportCompression() : exportCompression;
+        String tableName = request.getTableName();
+        String quotedTable = dialect.quote(tableName);
+        String quotedColumns = dialect.quoteColumns(columnsToGenerate);
+        String prefix = tableName.replaceAll("[^\\w.-]", "_");
+        logger.info("Exporting {} as {} ({}) to {}", tableName, format, compression, directory);
+        return worker -> {
+            ExportTarget target = new ExportTarget(directory, prefix + "-p" + worker, compression, exportMaxFileSize);
+            return switch (format) {
+                case CSV -> TextFileSink.csv(columnsToGenerate, target, batchSize, queueDepth);
+                case TSV -> TextFileSink.tsv(columnsToGenerate, target, batchSize, queueDepth);
+                case SQL -> TextFileSink.sql(columnsToGenerate, target, quotedTable, quotedColumns, dialect.escapesBackslash(),
+                    batchSize, queueDepth);
+                case PARQUET -> new ParquetFileSink(columnsToGenerate, target, parquetRowGroupSize, batchSize, queueDepth);
+            };
+        };
     }
-    
-    private String getQuoteChar(String dbType) {
-        switch (dbType.toLowerCase()) {
-            case "postgresql":
-            case "oracle":
-                return "\"";
-            case "sqlserver":
-                return "[";
-            default: // mysql
-                return "`";
+
+    /**
+     * 导出目录只能位于导出根目录之下
+     */
+    private Path resolveExportDirectory(String exportPath) {
+        Path base = Paths.get(exportBaseDir).toAbsolutePath().normalize();
+        Path directory = exportPath == null || exportPath.isBlank() ? base : base.resolve(exportPath).normalize();
+        if (!directory.startsWith(base)) {
+            throw new IllegalArgumentException("导出目录必须位于 " + base + " 之下");
         }
+        return directory;
     }
-    
 
-    
-    private void setValueWithTypeConversion(PreparedStatement ps, int index, String value, ColumnMetadata column) throws SQLException {
-        if (value == null || value.trim().isEmpty()) {
-            ps.setNull(index, java.sql.Types.NULL);
-            return;
+    /**
+     * 工作线程从共享计数器依次领取工作单元，每个工作线程一个接收端（一个连接），各单元按行号偏移分配键、独立抽取外键；
+     * 还有未领取的单元时，每秒向预算追加工作线程，预算要求让出时工作线程在当前单元结束后退出
+     * @param checkpoint 为 null 时不记录；否则跳过已提交的单元，每个单元单独一个事务，提交后记录
+     */
+    private long runUnits(IDataEngine dataEngine, List<GenerationContext> units, int maxWorkers, SinkFactory sinkFactory,
+                          ForeignKeyColumns foreignKeys, KeyColumns keys, WorkerBudget.Lease lease,
+                          TableCheckpoint checkpoint) throws Exception {
+        String tableName = units.get(0).getTableName();
+        List<GenerationContext> pending = checkpoint == null ? units
+            : units.stream().filter(unit -> !checkpoint.isCommitted(unit.getPartition())).toList();
+        AtomicInteger nextUnit = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(
+            r -> new Thread(r, "gen-" + tableName + "-" + threadIndex.getAndIncrement()));
+        ExecutorCompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+        int workerIndex = 0;
+        int running = 0;
+        long generated = 0;
+        try {
+            while (running > 0 || nextUnit.get() < pending.size()) {
+                int wanted = Math.min(maxWorkers - running, pending.size() - nextUnit.get());
+                if (wanted > 0) {
+                    // 没有工作线程时阻塞等待预算，否则只取当前空闲的
+                    int granted = running == 0 ? lease.acquire(wanted) : lease.tryAcquire(wanted);
+                    for (int i = 0; i < granted; i++) {
+                        int worker = workerIndex++;
+                        completionService.submit(() -> runWorker(worker, dataEngine, pending, nextUnit, sinkFactory,
+                            foreignKeys, keys, lease, checkpoint));
+                        running++;
+                    }
+                }
+                Future<Long> done = completionService.poll(1, TimeUnit.SECONDS);
+                if (done == null) {
+                    continue;
+                }
+                running--;
+                try {
+                    generated += done.get();
+                } catch (ExecutionException e) {
+                    // 任一工作线程失败则中断其余工作线程
+                    executor.shutdownNow();
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+            return generated;
+        } finally {
+            executor.shutdownNow();
         }
-        
+    }
+
+    private long runWorker(int worker, IDataEngine dataEngine, List<GenerationContext> units, AtomicInteger nextUnit,
+                           SinkFactory sinkFactory, ForeignKeyColumns foreignKeys, KeyColumns keys,
+                           WorkerBudget.Lease lease, TableCheckpoint checkpoint) throws Exception {
+        AbstractBatchSink sink = null;
+        long generated = 0;
+        long inserted = 0;
+        int unitCount = 0;
         try {
-            switch (column.dataTypeCategory()) {
-                case INTEGER:
-                    ps.setInt(index, Integer.parseInt(value));
-                    break;
-                case FLOAT:
-                    // 特殊处理NUMERIC/DECIMAL类型
-                    if ("NUMERIC".equalsIgnoreCase(column.typeName()) || "DECIMAL".equalsIgnoreCase(column.typeName())) {
-                        ps.setBigDecimal(index, new java.math.BigDecimal(value));
-                    } else {
-                        ps.setDouble(index, Double.parseDouble(value));
+            int next;
+            while ((next = nextUnit.getAndIncrement()) < units.size()) {
+                GenerationContext context = units.get(next);
+                if (sink == null) {
+                    sink = sinkFactory.create(worker);
+                    sink.setMonitor(context.getMonitor());
+                    sink.setMetrics(generationMetrics.sink(sink.getClass().getSimpleName(), context.getTableName()));
+                    sink.setSingleTransaction(checkpoint != null);
+                    if (checkpoint != null) {
+                        // 检查点模式下每个单元一个接收端，单元标记与数据在同一事务中提交
+                        sink.setCommitMarker(checkpoint.marker(context.getPartition()));
                     }
+                }
+                RowSink target = foreignKeys.indexes().length == 0 ? sink
+                    : new ForeignKeySink(sink, foreignKeys.indexes(), foreignKeys.pools(), ~context.getSeed());
+                // 行号从单元起始偏移开始，各单元的键互不重叠
+                if (keys.indexes().length > 0) {
+                    target = new KeyAssigningSink(target, keys.indexes(), keys.generators(), context.getRowOffset());
+                }
+                generated += dataEngine.generateAndInsertData(context, target);
+                unitCount++;
+                if (checkpoint != null) {
+                    // 单元与其标记已一起提交，本地记录之前退出时恢复会按标记跳过该单元
+                    sink.close();
+                    inserted += sink.getWrittenRows();
+                    sink = null;
+                    checkpoint.commit(context.getPartition());
+                }
+                if (lease.shouldYield()) {
                     break;
-                case DATE:
-                    ps.setDate(index, java.sql.Date.valueOf(value));
-                    break;
-                case BOOLEAN:
-                    ps.setBoolean(index, Boolean.parseBoolean(value));
-                    break;
-                default: // STRING, BINARY, UNKNOWN
-                    ps.setString(index, value);
-                    break;
+                }
+            }
+            if (sink != null) {
+                sink.close();
+                inserted += sink.getWrittenRows();
+            }
+        } catch (Exception e) {
+            if (sink != null) {
+                sink.abort();
+            }
+            throw e;
+        } finally {
+            lease.release();
+        }
+        logger.debug("Worker {} generated {} rows in {} unit(s), inserted {} rows", worker, generated, unitCount, inserted);
+        return generated;
+    }
+
+    /**
+     * 外键列在需要生成的列中的下标及其键值池
+     */
+    private record ForeignKeyColumns(int[] indexes, KeyPool[] pools) {
+        static ForeignKeyColumns of(List<ColumnMetadata> columnsToGenerate, Map<String, KeyPool> foreignKeyPools) {
+            List<Integer> indexes = new ArrayList<>();
+            List<KeyPool> pools = new ArrayList<>();
+            for (int i = 0; i < columnsToGenerate.size(); i++) {
+                KeyPool pool = foreignKeyPools.get(columnsToGenerate.get(i).name());
+                if (pool != null) {
+                    indexes.add(i);
+                    pools.add(pool);
+                }
+            }
+            return new ForeignKeyColumns(indexes.stream().mapToInt(Integer::intValue).toArray(), pools.toArray(new KeyPool[0]));
+        }
+    }
+
+    /**
+     * 主键/唯一列在需要生成的列中的下标及其键生成器
+     */
+    private record KeyColumns(int[] indexes, KeyGenerator[] generators) {
+        static KeyColumns of(List<ColumnMetadata> columnsToGenerate, long rows, DataSource dataSource,
+                             String tableName, SqlDialect dialect, boolean startAboveMax) throws Exception {
+            List<Integer> indexes = new ArrayList<>();
+            List<KeyGenerator> generators = new ArrayList<>();
+            String quotedTable = dialect.quote(tableName);
+            for (int i = 0; i < columnsToGenerate.size(); i++) {
+                ColumnMetadata column = columnsToGenerate.get(i);
+                if (!column.requiresUniqueKey()) {
+                    continue;
+                }
+                KeyGenerator generator = KeyGenerators.create(dataSource, quotedTable, dialect.quote(column.name()),
+                    column, rows, startAboveMax);
+                if (generator != null) {
+                    indexes.add(i);
+                    generators.add(generator);
+                }
             }
-        } catch (NumberFormatException e) {
-            // 如果类型转换失败，尝试作为字符串处理
-            logger.warn("Failed to convert value '{}' to {} for column {}. Using as string.", value, column.dataTypeCategory(), column.name());
-            ps.setString(index, value);
+            return new KeyColumns(indexes.stream().mapToInt(Integer::intValue).toArray(), generators.toArray(new KeyGenerator[0]));
         }
+
+        /**
+         * 顺序整数键写入的区间
+         * @param rows 实际写入的行数，行数不完整时区间不可信，返回空
+         */
+        Map<String, KeyPool> ranges(List<ColumnMetadata> columnsToGenerate, long rows) {
+            Map<String, KeyPool> ranges = new HashMap<>();
+            for (int i = 0; i < indexes.length && rows > 0; i++) {
+                if (generators[i] instanceof SequenceKeyGenerator sequence) {
+                    ranges.put(columnsToGenerate.get(indexes[i]).name(),
+                        new RangeKeyPool(sequence.getStart(), sequence.getStart() + rows - 1));
+                }
+            }
+            return ranges;
+        }
+    }
+
+    /**
+     * 每个工作线程创建自己的接收端
+     */
+    @FunctionalInterface
+    private interface SinkFactory {
+        AbstractBatchSink create(int worker);
     }
-}
\ No newline at end of file
+}
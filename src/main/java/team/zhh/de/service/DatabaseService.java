@@ -4,8 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
+import team.zhh.de.core.MetadataCache;
 import team.zhh.de.core.TempDatasourcePool;
 import team.zhh.base.model.ColumnMetadata;
+import team.zhh.base.model.ForeignKey;
 
 import javax.sql.DataSource;
 import java.net.URLDecoder;
@@ -21,6 +23,8 @@ public class DatabaseService {
     @Autowired
     private TempDatasourcePool tempDatasourcePool;
 
+    @Autowired
+    private MetadataCache metadataCache;
 
     public boolean connect(String url, String username, String password) {
         try {
@@ -48,47 +52,97 @@ public class DatabaseService {
         return null;
     }
 
-    private String getCurrentSchema(DataSource dataSource, String url) throws SQLException {
+    private String getCurrentSchema(Connection conn, String url) throws SQLException {
         String schema = extractSchemaFromUrl(url);
         if (schema != null) return schema;
-        try (Connection conn = dataSource.getConnection()) {
-            schema = conn.getCatalog();
-            if (schema == null) {
-                schema = conn.getSchema();
-            }
-            log.debug("Debug: Extracted schema = " + schema);
+        schema = conn.getCatalog();
+        if (schema == null) {
+            schema = conn.getSchema();
         }
+        log.debug("Debug: Extracted schema = " + schema);
         return schema;
     }
 
+    /**
+     * 当前schema，URL中未指定时需要连接查询，结果缓存
+     */
+    private String getSchema(String url, String username, String password, DataSource dataSource) throws SQLException {
+        return metadataCache.getSchema(url, username, password, () -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return getCurrentSchema(conn, url);
+            }
+        });
+    }
+
     public List<String> getTables(String url, String username, String password) {
-        List<String> tables = new ArrayList<>();
         DataSource dataSource = tempDatasourcePool.getDataSource(url, username, password);
         try {
-            String schema = getCurrentSchema(dataSource, url);
-            try (Connection conn = dataSource.getConnection();
-                 ResultSet rs = conn.getMetaData().getTables(null, schema, null, new String[]{"TABLE"})) {
-                while (rs.next()) {
-                    tables.add(rs.getString("TABLE_NAME"));
+            String schema = getSchema(url, username, password, dataSource);
+            return metadataCache.getTables(url, username, password, schema, () -> {
+                List<String> tables = new ArrayList<>();
+                try (Connection conn = dataSource.getConnection();
+                     ResultSet rs = conn.getMetaData().getTables(null, schema, null, new String[]{"TABLE"})) {
+                    while (rs.next()) {
+                        tables.add(rs.getString("TABLE_NAME"));
+                    }
                 }
-            }
+                return tables;
+            });
         } catch (SQLException e) {
             log.error(e.getMessage(),e);
         }
-        return tables;
+        return new ArrayList<>();
     }
 
     public List<ColumnMetadata> getTableColumns(String url, String username, String password, String tableName) {
-        List<ColumnMetadata> columns = new ArrayList<>();
         DataSource dataSource = tempDatasourcePool.getDataSource(url, username, password);
         try {
-            String schema = getCurrentSchema(dataSource, url);
+            String schema = getSchema(url, username, password, dataSource);
+            return metadataCache.getColumns(url, username, password, schema, tableName, () -> loadTableColumns(dataSource, schema, tableName));
+        } catch (SQLException e) {
+            log.error("Error getting table columns: " + e.getMessage(),e);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * 表的外键（被引用表、列），没有外键时返回空列表
+     */
+    public List<ForeignKey> getForeignKeys(String url, String username, String password, String tableName) {
+        DataSource dataSource = tempDatasourcePool.getDataSource(url, username, password);
+        try {
+            String schema = getSchema(url, username, password, dataSource);
+            return metadataCache.getForeignKeys(url, username, password, schema, tableName, () -> {
+                try (Connection conn = dataSource.getConnection()) {
+                    return loadForeignKeys(conn, schema, tableName);
+                }
+            });
+        } catch (SQLException e) {
+            log.error("Error getting foreign keys: " + e.getMessage(),e);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * 使元数据缓存失效，表结构变更后调用
+     */
+    public int invalidateMetadata(String url, String tableName) {
+        return metadataCache.invalidate(url, tableName);
+    }
+
+    private List<ColumnMetadata> loadTableColumns(DataSource dataSource, String schema, String tableName) throws SQLException {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
             log.debug("Debug: Schema = " + schema + ", Table = " + tableName);
             
-            try (Connection conn = dataSource.getConnection();
-                 ResultSet rs = conn.getMetaData().getColumns(null, schema, tableName, null)) {
+            try (ResultSet rs = conn.getMetaData().getColumns(null, schema, tableName, null)) {
                 List<String> primaryKeys = getPrimaryKeys(conn, schema, tableName);
                 log.debug("Debug: Primary keys = " + primaryKeys);
+                Set<String> foreignKeyColumns = new HashSet<>();
+                for (ForeignKey fk : loadForeignKeys(conn, schema, tableName)) {
+                    foreignKeyColumns.add(fk.column());
+                }
+                Set<String> uniqueColumns = getUniqueColumns(conn, schema, tableName);
                 
                 while (rs.next()) {
                     String colName = rs.getString("COLUMN_NAME");
@@ -103,18 +157,61 @@ public class DatabaseService {
 
                     log.debug("Debug: Column = " + colName + ", Type = " + typeName + ", Size = " + size + ", Digits = " + digit);
                     
-                    columns.add(new ColumnMetadata(
+                    ColumnMetadata column = new ColumnMetadata(
                         colName, typeName, size, digit,
                         isPrimaryKey, isAutoIncrement, isNullable,remarks
-                    ));
+                    );
+                    if (foreignKeyColumns.contains(colName)) {
+                        column = column.asForeignKey();
+                    }
+                    if (uniqueColumns.contains(colName)) {
+                        column = column.asUnique();
+                    }
+                    columns.add(column);
                 }
             }
-        } catch (SQLException e) {
-            log.error("Error getting table columns: " + e.getMessage(),e);
         }
         return columns;
     }
 
+    private List<ForeignKey> loadForeignKeys(Connection conn, String schema, String tableName) throws SQLException {
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        try (ResultSet rs = conn.getMetaData().getImportedKeys(null, schema, tableName)) {
+            while (rs.next()) {
+                foreignKeys.add(new ForeignKey(
+                    rs.getString("FK_NAME"),
+                    rs.getString("FKCOLUMN_NAME"),
+                    rs.getString("PKTABLE_NAME"),
+                    rs.getString("PKCOLUMN_NAME"),
+                    rs.getInt("KEY_SEQ")
+                ));
+            }
+        }
+        return foreignKeys;
+    }
+
+    /**
+     * 单列唯一索引的列（多列唯一索引中的单列取值可以重复）
+     */
+    private Set<String> getUniqueColumns(Connection conn, String schema, String tableName) throws SQLException {
+        Map<String, List<String>> indexes = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, schema, tableName, true, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String columnName = rs.getString("COLUMN_NAME");
+                if (indexName == null || columnName == null || rs.getBoolean("NON_UNIQUE")) continue;
+                indexes.computeIfAbsent(indexName, k -> new ArrayList<>()).add(columnName);
+            }
+        }
+        Set<String> uniqueColumns = new HashSet<>();
+        for (List<String> indexColumns : indexes.values()) {
+            if (indexColumns.size() == 1) {
+                uniqueColumns.add(indexColumns.get(0));
+            }
+        }
+        return uniqueColumns;
+    }
+
     private List<String> getPrimaryKeys(Connection conn, String schema, String tableName) throws SQLException {
         List<String> primaryKeys = new ArrayList<>();
         try (ResultSet rs = conn.getMetaData().getPrimaryKeys(null, schema, tableName)) {
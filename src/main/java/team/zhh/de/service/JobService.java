@@ -0,0 +1,286 @@
+package team.zhh.de.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import team.zhh.base.model.CheckpointInfo;
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.base.model.JobStatus;
+import team.zhh.de.core.WorkerBudget;
+import team.zhh.de.core.checkpoint.CheckpointState;
+import team.zhh.de.core.checkpoint.CheckpointStore;
+import team.zhh.de.core.checkpoint.JobCheckpoint;
+import team.zhh.de.job.GenerationJob;
+import team.zhh.de.job.JobScheduler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 异步生成任务管理
+ * 任务由 JobScheduler 排队执行而不是占用Tomcat请求线程，进度通过查询接口或SSE推送获取
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    @Autowired
+    private DataGenerationService dataGenerationService;
+
+    @Autowired
+    private SchemaGenerationService schemaGenerationService;
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private CheckpointStore checkpointStore;
+
+    // 保留的已结束任务数
+    @Value("${job.history-size:100}")
+    private int historySize;
+    // SSE 连接超时（毫秒）
+    @Value("${job.sse-timeout:1800000}")
+    private long sseTimeout;
+
+    private final Map<String, GenerationJob> jobs = new LinkedHashMap<>();
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    public void destroy() {
+        synchronized (jobs) {
+            jobs.values().forEach(GenerationJob::cancel);
+        }
+    }
+
+    /**
+     * 提交生成任务，立即返回任务id
+     */
+    public String submit(GenerationRequest request) {
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), request);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            trimHistory();
+        }
+        enqueue(job);
+        log.info("Job {} submitted: table={}, rows={}, engine={}, submitter={}, priority={}", job.getId(), request.getTableName(),
+            request.getRows(), request.getEngineType(), job.getSubmitter(), job.getPriority());
+        return job.getId();
+    }
+
+    /**
+     * 从检查点恢复中断的任务，沿用原任务id，已提交的工作单元不再写入
+     * 检查点中不保存密码，需要重新提供
+     */
+    public String resume(String jobId, String password) throws IOException {
+        CheckpointState state = checkpointStore.load(jobId);
+        GenerationJob job = new GenerationJob(jobId, state.request().toBuilder().password(password).build());
+        synchronized (jobs) {
+            GenerationJob existing = jobs.get(jobId);
+            if (existing != null && !existing.getState().isTerminal()) {
+                throw new IllegalStateException("任务仍在执行: " + jobId);
+            }
+            // 重新放到末尾，按提交顺序清理历史
+            jobs.remove(jobId);
+            jobs.put(jobId, job);
+            trimHistory();
+        }
+        enqueue(job);
+        log.info("Job {} resumed from checkpoint: table={}, rows={}", jobId, job.getRequest().getTableName(), job.getRequest().getRows());
+        return jobId;
+    }
+
+    public List<CheckpointInfo> listCheckpoints() throws IOException {
+        List<CheckpointInfo> result = new ArrayList<>();
+        for (CheckpointState state : checkpointStore.list()) {
+            long committed = 0;
+            for (CheckpointState.TableState table : state.tables().values()) {
+                int[] unitRows = table.unitRows();
+                for (int i = 0; i < unitRows.length; i++) {
+                    if (table.complete() || table.committed()[i]) {
+                        committed += unitRows[i];
+                    }
+                }
+            }
+            GenerationRequest request = state.request();
+            result.add(new CheckpointInfo(state.jobId(), request.getTableName(), request.getEngineType(),
+                request.getSubmitter(), request.getRows(), committed, state.createdAt(), state.updatedAt(), isRunning(state.jobId())));
+        }
+        return result;
+    }
+
+    /**
+     * 放弃检查点，之后该任务不能再恢复
+     */
+    public boolean deleteCheckpoint(String jobId) throws IOException {
+        if (isRunning(jobId)) {
+            throw new IllegalStateException("任务仍在执行: " + jobId);
+        }
+        return checkpointStore.delete(jobId);
+    }
+
+    private boolean isRunning(String jobId) {
+        synchronized (jobs) {
+            GenerationJob job = jobs.get(jobId);
+            return job != null && !job.getState().isTerminal();
+        }
+    }
+
+    private void enqueue(GenerationJob job) {
+        try {
+            jobScheduler.submit(job, budget -> run(job, budget));
+        } catch (IllegalStateException e) {
+            synchronized (jobs) {
+                jobs.remove(job.getId());
+            }
+            throw e;
+        }
+    }
+
+    public JobStatus getStatus(String jobId) {
+        return getJob(jobId).snapshot();
+    }
+
+    public List<JobStatus> listJobs() {
+        List<JobStatus> result = new ArrayList<>();
+        synchronized (jobs) {
+            for (GenerationJob job : jobs.values()) {
+                result.add(job.snapshot());
+            }
+        }
+        return result;
+    }
+
+    public boolean cancel(String jobId) {
+        boolean cancelled = getJob(jobId).cancel();
+        if (cancelled) {
+            log.info("Job {} cancel requested", jobId);
+        }
+        return cancelled;
+    }
+
+    /**
+     * 订阅任务进度，每个采样周期推送一次 progress 事件，任务结束后推送最终状态并关闭连接
+     */
+    public SseEmitter subscribe(String jobId) {
+        GenerationJob job = getJob(jobId);
+        SseEmitter emitter = new SseEmitter(sseTimeout);
+        List<SseEmitter> list = emitters.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        emitter.onCompletion(() -> list.remove(emitter));
+        emitter.onTimeout(() -> list.remove(emitter));
+        emitter.onError(e -> list.remove(emitter));
+        send(emitter, job.snapshot());
+        if (job.getState().isTerminal()) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * 定时采样速度并推送进度
+     */
+    @Scheduled(fixedDelayString = "${job.progress-interval:1000}")
+    public void publishProgress() {
+        long now = System.currentTimeMillis();
+        List<GenerationJob> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs.values());
+        }
+        for (GenerationJob job : snapshot) {
+            if (job.getState() == GenerationJob.State.RUNNING) {
+                job.sample(now);
+            }
+            List<SseEmitter> list = emitters.get(job.getId());
+            if (list == null || list.isEmpty()) continue;
+            JobStatus status = job.snapshot();
+            boolean terminal = job.getState().isTerminal();
+            for (SseEmitter emitter : list) {
+                send(emitter, status);
+                if (terminal) {
+                    emitter.complete();
+                }
+            }
+            if (terminal) {
+                emitters.remove(job.getId());
+            }
+        }
+    }
+
+    private void run(GenerationJob job, WorkerBudget budget) {
+        if (job.isCancelled()) return;
+        job.markRunning();
+        try {
+            // 失败、取消或进程退出时检查点保留，可以恢复
+            JobCheckpoint checkpoint = checkpointStore.open(job.getId(), job.getRequest());
+            if (job.getRequest().isMultiTable()) {
+                schemaGenerationService.generate(job.getRequest(), job, budget, checkpoint);
+            } else {
+                dataGenerationService.generateData(job.getRequest(), job, Map.of(), budget, checkpoint);
+            }
+            if (job.isCancelled()) {
+                job.finish(GenerationJob.State.CANCELLED, "任务已取消");
+            } else {
+                if (checkpoint != null) {
+                    checkpointStore.delete(job.getId());
+                }
+                job.finish(GenerationJob.State.SUCCEEDED, "数据生成成功！");
+            }
+        } catch (CancellationException | InterruptedException e) {
+            job.finish(GenerationJob.State.CANCELLED, "任务已取消");
+        } catch (Exception e) {
+            if (job.isCancelled()) {
+                job.finish(GenerationJob.State.CANCELLED, "任务已取消");
+            } else {
+                log.error("Job {} failed: {}", job.getId(), e.getMessage(), e);
+                job.finish(GenerationJob.State.FAILED, e.getMessage());
+            }
+        } finally {
+            Thread.interrupted();
+            log.info("Job {} finished: {}", job.getId(), job.getState());
+        }
+    }
+
+    private GenerationJob getJob(String jobId) {
+        synchronized (jobs) {
+            GenerationJob job = jobs.get(jobId);
+            if (job == null) {
+                throw new IllegalArgumentException("任务不存在: " + jobId);
+            }
+            return job;
+        }
+    }
+
+    // 超过保留数量时按提交顺序移除已结束的任务
+    private void trimHistory() {
+        Iterator<GenerationJob> it = jobs.values().iterator();
+        while (jobs.size() > historySize && it.hasNext()) {
+            GenerationJob job = it.next();
+            if (job.getState().isTerminal()) {
+                it.remove();
+                emitters.remove(job.getId());
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, JobStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(status));
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            emitter.completeWithError(e);
+        }
+    }
+}
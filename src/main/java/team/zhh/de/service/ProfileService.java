@@ -0,0 +1,91 @@
+package team.zhh.de.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.TempDatasourcePool;
+import team.zhh.de.core.profile.ProfileStore;
+import team.zhh.de.core.profile.TableProfile;
+import team.zhh.de.core.profile.TableProfiler;
+import team.zhh.de.dialect.SqlDialect;
+
+import java.util.List;
+
+/**
+ * 数据画像：从现有表（生产库副本、参考库）采样取值分布，保存后供随机引擎按分布生成
+ */
+@Service
+public class ProfileService {
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private TempDatasourcePool tempDatasourcePool;
+
+    @Autowired
+    private ProfileStore profileStore;
+
+    // 每列记录的高频值个数与直方图桶数
+    @Value("${profile.top-k:100}")
+    private int topK;
+    @Value("${profile.histogram-buckets:64}")
+    private int histogramBuckets;
+    // 每列用于构建直方图的样本数
+    @Value("${profile.reservoir-size:10000}")
+    private int reservoirSize;
+    // 最多读取的行数，0 表示读取全表
+    @Value("${profile.max-rows:0}")
+    private long maxRows;
+    @Value("${profile.fetch-size:10000}")
+    private int fetchSize;
+
+    /**
+     * 采样表并保存画像
+     * @param name 画像名，为空时使用表名
+     */
+    public TableProfile createProfile(String url, String username, String password, String tableName, String name) throws Exception {
+        String profileName = name == null || name.isBlank() ? tableName : name;
+        List<ColumnMetadata> columns = databaseService.getTableColumns(url, username, password, tableName);
+        TableProfiler profiler = new TableProfiler(topK, histogramBuckets, reservoirSize, maxRows, fetchSize);
+        TableProfile profile;
+        // 采样大表耗时较长，期间持有连接池
+        try (TempDatasourcePool.Lease lease = tempDatasourcePool.lease(url, username, password)) {
+            profile = profiler.profile(lease.getDataSource(),
+                SqlDialect.forUrl(url), url.replaceFirst("[?;].*$", ""), tableName, columns, profileName);
+        }
+        profileStore.save(profile);
+        return profile;
+    }
+
+    public TableProfile getProfile(String name) throws Exception {
+        return profileStore.load(name);
+    }
+
+    public List<String> listProfiles() throws Exception {
+        return profileStore.list();
+    }
+
+    public boolean deleteProfile(String name) throws Exception {
+        return profileStore.delete(name);
+    }
+
+    /**
+     * 从逗号分隔的画像名中选出表对应的画像：优先采样表名相同的画像，只有一个画像时直接使用
+     * @return 没有指定画像或没有匹配时返回 null
+     */
+    public TableProfile resolve(String profileNames, String tableName) throws Exception {
+        if (profileNames == null || profileNames.isBlank()) {
+            return null;
+        }
+        String[] names = profileNames.split(",");
+        for (String name : names) {
+            TableProfile profile = profileStore.load(name.trim());
+            if (profile.tableName().equalsIgnoreCase(tableName)) {
+                return profile;
+            }
+        }
+        return names.length == 1 ? profileStore.load(names[0].trim()) : null;
+    }
+}
@@ -0,0 +1,221 @@
+package team.zhh.de.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.base.model.ForeignKey;
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.de.core.GenerationMonitor;
+import team.zhh.de.core.TempDatasourcePool;
+import team.zhh.de.core.WorkerBudget;
+import team.zhh.de.core.checkpoint.JobCheckpoint;
+import team.zhh.de.core.schema.KeyPool;
+import team.zhh.de.core.schema.KeyPoolLoader;
+import team.zhh.de.core.schema.TableGraph;
+import team.zhh.de.dialect.SqlDialect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 多表生成
+ * 读取各表外键构建依赖图，父表先于子表生成，互不依赖的表并行生成；
+ * 子表的外键列从父表键值池中抽样，每个被引用列只在父表完成后读取一次
+ */
+@Service
+public class SchemaGenerationService {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaGenerationService.class);
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private DataGenerationService dataGenerationService;
+
+    @Autowired
+    private TempDatasourcePool tempDatasourcePool;
+
+    // 同时生成的表数
+    @Value("${schema.max-parallel-tables:4}")
+    private int maxParallelTables;
+    // 单个键值池最多保留的键数，超出时均匀抽样
+    @Value("${schema.key-pool.max-keys:50000000}")
+    private int maxKeys;
+    // 读取父表键的 fetchSize
+    @Value("${schema.key-pool.fetch-size:10000}")
+    private int fetchSize;
+
+    /**
+     * @param budget 工作线程预算，同时生成的各表共用
+     * @param checkpoint 任务检查点，为 null 时不记录；恢复时已完成的表跳过，子表的外键从库中读取
+     */
+    public void generate(GenerationRequest request, GenerationMonitor monitor, WorkerBudget budget,
+                         JobCheckpoint checkpoint) throws Exception {
+        Map<String, Integer> tables = request.getTables();
+        Map<String, List<ForeignKey>> foreignKeys = new HashMap<>();
+        for (String table : tables.keySet()) {
+            foreignKeys.put(table, databaseService.getForeignKeys(request.getUrl(), request.getUsername(), request.getPassword(), table));
+        }
+        TableGraph graph = TableGraph.build(tables.keySet(), foreignKeys);
+        logger.info("Generating {} tables in order {}", tables.size(), graph.getOrder());
+
+        Map<String, KeyPoolHolder> pools = new ConcurrentHashMap<>();
+        AtomicReference<Exception> firstError = new AtomicReference<>();
+        // 任一表失败时其余表在下一个批次处停止
+        GenerationMonitor tableMonitor = new GenerationMonitor() {
+            @Override
+            public void onGenerated(long rows) {
+                monitor.onGenerated(rows);
+            }
+
+            @Override
+            public void onWritten(long rows) {
+                monitor.onWritten(rows);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return firstError.get() != null || monitor.isCancelled();
+            }
+        };
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        int workers = Math.max(1, Math.min(maxParallelTables, tables.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+            r -> new Thread(r, "schema-" + threadIndex.getAndIncrement()));
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        // 表与表之间（等待父表、读取键值池）也持有连接池
+        TempDatasourcePool.Lease lease = tempDatasourcePool.lease(request.getUrl(), request.getUsername(), request.getPassword());
+        try {
+            for (String table : graph.getOrder()) {
+                CompletableFuture<?>[] parents = graph.getParents(table).stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+                futures.put(table, CompletableFuture.allOf(parents).thenRunAsync(() -> {
+                    if (tableMonitor.isCancelled()) {
+                        throw new CancellationException("任务已取消");
+                    }
+                    try {
+                        generateTable(request, table, tables.get(table), graph, foreignKeys.get(table), pools, tableMonitor, budget, checkpoint);
+                    } catch (Exception e) {
+                        firstError.compareAndSet(null, e);
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).get();
+            } catch (ExecutionException e) {
+                Exception error = firstError.get();
+                throw error != null ? error : e;
+            }
+        } finally {
+            executor.shutdownNow();
+            lease.close();
+        }
+    }
+
+    private void generateTable(GenerationRequest request, String table, int rows, TableGraph graph,
+                               List<ForeignKey> foreignKeys, Map<String, KeyPoolHolder> pools,
+                               GenerationMonitor monitor, WorkerBudget budget, JobCheckpoint checkpoint) throws Exception {
+        if (rows <= 0) {
+            return;
+        }
+        List<ColumnMetadata> columns = databaseService.getTableColumns(request.getUrl(), request.getUsername(), request.getPassword(), table);
+        Map<String, ColumnMetadata> columnsByName = new HashMap<>();
+        for (ColumnMetadata column : columns) {
+            columnsByName.put(column.name(), column);
+        }
+        // 按约束分组，复合外键的各列需要取自父表同一行
+        Map<String, List<ForeignKey>> constraints = new LinkedHashMap<>();
+        for (ForeignKey fk : foreignKeys) {
+            constraints.computeIfAbsent(fk.name() != null ? fk.name() : fk.column(), k -> new ArrayList<>()).add(fk);
+        }
+
+        Map<String, KeyPool> foreignKeyPools = new HashMap<>();
+        for (Map.Entry<String, List<ForeignKey>> constraint : constraints.entrySet()) {
+            if (constraint.getValue().size() > 1) {
+                logger.warn("Composite foreign key {} on {} is not sampled from parent keys", constraint.getKey(), table);
+                continue;
+            }
+            ForeignKey fk = constraint.getValue().get(0);
+            ColumnMetadata column = columnsByName.get(fk.column());
+            if (column == null || !column.requiresGeneration()) {
+                continue;
+            }
+            KeyPool pool = graph.isBroken(table, fk.referencedTable()) ? null
+                : keyPool(request, fk.referencedTable(), fk.referencedColumn(), pools);
+            if (pool == null) {
+                if (!column.nullable()) {
+                    throw new IllegalStateException("表 " + fk.referencedTable() + " 没有可引用的数据（或存在非空的循环外键），无法为 "
+                        + table + "." + fk.column() + " 生成外键值");
+                }
+                // 自引用、循环依赖或父表为空：允许为空的外键列写入 NULL
+                pool = KeyPool.NULLS;
+            }
+            foreignKeyPools.put(fk.column(), pool);
+        }
+
+        logger.info("Generating {} rows for {} (foreign keys: {})", rows, table, foreignKeyPools.keySet());
+        GenerationRequest tableRequest = request.toBuilder()
+            .tableName(table)
+            .rows(rows)
+            .tables(null)
+            .build();
+        Map<String, KeyPool> generatedKeys = dataGenerationService.generateData(tableRequest, monitor, foreignKeyPools, budget, checkpoint);
+        // 本次写入的顺序键区间直接作为子表的键值池，不必再回读父表
+        generatedKeys.forEach((column, pool) ->
+            pools.computeIfAbsent(table + "." + column, k -> new KeyPoolHolder()).set(pool));
+    }
+
+    /**
+     * 父表键值池，子表第一次需要时读取；父表在本任务内时，依赖图保证此时父表已生成完毕
+     */
+    private KeyPool keyPool(GenerationRequest request, String table, String column,
+                            Map<String, KeyPoolHolder> pools) throws Exception {
+        return pools.computeIfAbsent(table + "." + column, k -> new KeyPoolHolder()).get(() -> {
+            List<ColumnMetadata> parentColumns = databaseService.getTableColumns(request.getUrl(), request.getUsername(), request.getPassword(), table);
+            boolean integerKey = parentColumns.stream()
+                .anyMatch(c -> c.name().equals(column) && c.dataTypeCategory() == ColumnMetadata.DataTypeCategory.INTEGER);
+            SqlDialect dialect = SqlDialect.forUrl(request.getUrl());
+            try (TempDatasourcePool.Lease lease = tempDatasourcePool.lease(request.getUrl(), request.getUsername(), request.getPassword())) {
+                return KeyPoolLoader.load(lease.getDataSource(), dialect.quote(table), dialect.quote(column),
+                    integerKey, maxKeys, dialect.streamingFetchSize(fetchSize));
+            }
+        });
+    }
+
+    private static final class KeyPoolHolder {
+        private boolean loaded;
+        private KeyPool pool;
+
+        synchronized KeyPool get(Callable<KeyPool> loader) throws Exception {
+            if (!loaded) {
+                pool = loader.call();
+                loaded = true;
+            }
+            return pool;
+        }
+
+        synchronized void set(KeyPool pool) {
+            this.pool = pool;
+            this.loaded = true;
+        }
+    }
+}
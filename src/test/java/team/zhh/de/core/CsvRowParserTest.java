@@ -0,0 +1,79 @@
+package team.zhh.de.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowParserTest {
+    private final List<String[]> rows = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+
+    @Test
+    void parsesRowsSplitAcrossChunks() {
+        CsvRowParser parser = new CsvRowParser(3, rows::add, rejected::add);
+        parser.feed("1,Alice,Bei");
+        assertTrue(rows.isEmpty(), "半行不应提前解析");
+        parser.feed("jing\n2,Bob,Shang");
+        parser.feed("hai\n");
+
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[]{"1", "Alice", "Beijing"}, rows.get(0));
+        assertArrayEquals(new String[]{"2", "Bob", "Shanghai"}, rows.get(1));
+        assertEquals(2, parser.getRowCount());
+    }
+
+    @Test
+    void finishParsesLastLineWithoutNewline() {
+        CsvRowParser parser = new CsvRowParser(2, rows::add, rejected::add);
+        parser.feed("1,a\n2,b");
+        assertEquals(1, rows.size());
+
+        parser.finish();
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[]{"2", "b"}, rows.get(1));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() {
+        CsvRowParser parser = new CsvRowParser(3, rows::add, rejected::add);
+        parser.feed("1,\"Smith, John\", \"x\" \n");
+
+        assertArrayEquals(new String[]{"1", "Smith, John", "x"}, rows.get(0));
+    }
+
+    @Test
+    void skipsBlankLinesAndCodeFences() {
+        CsvRowParser parser = new CsvRowParser(2, rows::add, rejected::add);
+        parser.feed("```csv\n\n1,a\n   \n```\n");
+
+        assertEquals(1, rows.size());
+        assertEquals(0, parser.getSkippedRows());
+        assertTrue(rejected.isEmpty());
+    }
+
+    @Test
+    void rejectsTruncatedLineForRepair() {
+        CsvRowParser parser = new CsvRowParser(3, rows::add, rejected::add);
+        // 流式响应在行中途被截断
+        parser.feed("1,a,b\n2,c");
+        parser.finish();
+
+        assertEquals(1, rows.size());
+        assertEquals(1, parser.getSkippedRows());
+        assertEquals(List.of("2,c"), rejected);
+    }
+
+    @Test
+    void dropsExtraColumns() {
+        CsvRowParser parser = new CsvRowParser(2, rows::add, rejected::add);
+        parser.feed("1,a,extra,more\n");
+
+        assertArrayEquals(new String[]{"1", "a"}, rows.get(0));
+        assertEquals(1, parser.getTruncatedRows());
+    }
+}
@@ -0,0 +1,101 @@
+package team.zhh.de.core;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.DateVector;
+import team.zhh.de.core.batch.DecimalVector;
+import team.zhh.de.core.batch.LongVector;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.batch.StringVector;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratorPlanTest {
+    private static final int ROWS = 2000;
+
+    private static ColumnMetadata column(String name, String type, int size, int scale) {
+        return new ColumnMetadata(name, type, size, scale, false, false, false, null);
+    }
+
+    private static RowBatch fill(List<ColumnMetadata> columns, int today) {
+        RowBatch batch = new RowBatch(columns, ROWS);
+        GeneratorPlan plan = GeneratorPlan.compile(batch, today);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ROWS; i++) {
+            plan.fill(random, batch, batch.nextRow());
+        }
+        return batch;
+    }
+
+    private static void assertRange(RowBatch batch, int column, long min, long max) {
+        LongVector vector = (LongVector) batch.vector(column);
+        for (int row = 0; row < batch.size(); row++) {
+            long value = vector.get(row);
+            assertTrue(value >= min && value <= max, vector.column().typeName() + " 取值越界: " + value);
+        }
+    }
+
+    @Test
+    void integerColumnsStayWithinTypeRange() {
+        RowBatch batch = fill(List.of(
+            column("tiny", "TINYINT", 3, 0),
+            column("small", "SMALLINT", 5, 0),
+            column("normal", "INT", 10, 0),
+            column("big", "BIGINT", 19, 0),
+            column("pg", "INT8", 19, 0)), 0);
+
+        assertRange(batch, 0, 0, Byte.MAX_VALUE);
+        assertRange(batch, 1, 0, 9999);
+        assertRange(batch, 2, 0, 9999);
+        assertRange(batch, 3, 0, 9999);
+        assertRange(batch, 4, 0, 9999);
+    }
+
+    @Test
+    void tinyintUsesWholeTypeRange() {
+        RowBatch batch = fill(List.of(column("tiny", "TINYINT", 3, 0)), 0);
+        LongVector vector = (LongVector) batch.vector(0);
+        boolean sawMax = false;
+        for (int row = 0; row < batch.size(); row++) {
+            sawMax |= vector.get(row) == Byte.MAX_VALUE;
+        }
+        assertTrue(sawMax, "TINYINT 应能取到 127");
+    }
+
+    @Test
+    void decimalFitsPrecision() {
+        RowBatch batch = fill(List.of(column("price", "DECIMAL", 5, 2)), 0);
+        DecimalVector vector = (DecimalVector) batch.vector(0);
+        for (int row = 0; row < batch.size(); row++) {
+            long unscaled = vector.getUnscaled(row);
+            assertTrue(unscaled >= 0 && unscaled < 100_000, "DECIMAL(5,2) 越界: " + unscaled);
+        }
+    }
+
+    @Test
+    void datesStartTodayWithinOneYear() {
+        int today = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        RowBatch batch = fill(List.of(column("day", "DATE", 0, 0)), today);
+        DateVector vector = (DateVector) batch.vector(0);
+        for (int row = 0; row < batch.size(); row++) {
+            int day = vector.get(row);
+            assertTrue(day >= today && day < today + 365, "日期越界: " + LocalDate.ofEpochDay(day));
+        }
+    }
+
+    @Test
+    void stringsRespectColumnLength() {
+        RowBatch batch = fill(List.of(column("code", "VARCHAR", 8, 0)), 0);
+        StringVector vector = (StringVector) batch.vector(0);
+        for (int row = 0; row < batch.size(); row++) {
+            String value = vector.get(row);
+            assertFalse(value.isEmpty());
+            assertTrue(value.length() <= 8, "超过列长度: " + value);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package team.zhh.de.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetadataCacheTest {
+    private static final String URL = "jdbc:mysql://localhost:3306/test";
+
+    private static MetadataCache cache() {
+        MetadataCache cache = new MetadataCache();
+        ReflectionTestUtils.setField(cache, "ttl", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        return cache;
+    }
+
+    @Test
+    void sameCredentialsHitCache() throws SQLException {
+        MetadataCache cache = cache();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("t1"), cache.getTables(URL, "root", "secret", "test", () -> {
+                loads.incrementAndGet();
+                return List.of("t1");
+            }));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void differentPasswordDoesNotHitCache() throws SQLException {
+        MetadataCache cache = cache();
+        cache.getSchema(URL, "root", "secret", () -> "test");
+        // 密码错误时必须重新连接目标库，由目标库拒绝
+        assertEquals("rejected", cache.getSchema(URL, "root", "wrong", () -> "rejected"));
+        assertEquals("rejected", cache.getSchema(URL, "root", null, () -> "rejected"));
+        assertEquals("test", cache.getSchema(URL, "root", "secret", () -> "reloaded"));
+    }
+
+    @Test
+    void emptyResultsAreNotCached() throws SQLException {
+        MetadataCache cache = cache();
+        cache.getColumns(URL, "root", "secret", "test", "missing", List::of);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getColumns(URL, "root", "secret", "test", "missing", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateDropsEntriesOfAllCredentials() throws SQLException {
+        MetadataCache cache = cache();
+        cache.getTables(URL, "root", "a", "test", () -> List.of("t1"));
+        cache.getTables(URL, "root", "b", "test", () -> List.of("t1"));
+
+        assertEquals(2, cache.invalidate(URL, null));
+        assertEquals(List.of("t2"), cache.getTables(URL, "root", "a", "test", () -> List.of("t2")));
+    }
+}
@@ -0,0 +1,96 @@
+package team.zhh.de.core;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.batch.ColumnVector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RowValidatorTest {
+
+    private static ColumnMetadata column(String name, String type, int size, int scale, boolean nullable) {
+        return new ColumnMetadata(name, type, size, scale, false, false, nullable, null);
+    }
+
+    private static String reason(ColumnMetadata column, String value) {
+        RowValidator.Violation violation = RowValidator.compile(List.of(column)).check(new String[]{value});
+        return violation == null ? null : violation.reason();
+    }
+
+    @Test
+    void rejectsNullInNotNullColumn() {
+        assertEquals("null", reason(column("name", "VARCHAR", 10, 0, false), " "));
+        assertNull(reason(column("name", "VARCHAR", 10, 0, true), ""));
+    }
+
+    @Test
+    void checksIntegerTypeAndRange() {
+        ColumnMetadata tiny = column("age", "TINYINT", 3, 0, true);
+        assertNull(reason(tiny, "127"));
+        assertEquals("precision", reason(tiny, "128"));
+        assertEquals("type", reason(tiny, "12.5"));
+    }
+
+    @Test
+    void checksDecimalIntegerDigitsOnly() {
+        ColumnMetadata price = column("price", "DECIMAL", 5, 2, true);
+        // 多出的小数位写入时四舍五入
+        assertNull(reason(price, "999.994"));
+        assertEquals("precision", reason(price, "999.995"));
+        assertEquals("precision", reason(price, "1000"));
+        assertEquals("type", reason(price, "abc"));
+    }
+
+    @Test
+    void countsStringLengthInCodePoints() {
+        ColumnMetadata city = column("city", "VARCHAR", 3, 0, true);
+        assertNull(reason(city, "北京市"));
+        assertEquals("size", reason(city, "乌鲁木齐"));
+    }
+
+    @Test
+    void skipsKeyColumns() {
+        ColumnMetadata id = new ColumnMetadata("id", "INT", 10, 0, true, false, false, null);
+        assertNull(reason(id, "not-a-number"));
+    }
+
+    @Test
+    void reportsFirstViolatingColumn() {
+        RowValidator validator = RowValidator.compile(List.of(
+            column("a", "INT", 10, 0, true), column("b", "BOOLEAN", 1, 0, true)));
+        RowValidator.Violation violation = validator.check(new String[]{"1", "yes"});
+        assertNotNull(violation);
+        assertEquals("type", violation.reason());
+    }
+
+    @Test
+    void dateRulesMatchColumnVectorParsing() {
+        String[][] cases = {
+            {"DATE", "2024-02-29", null},
+            {"DATE", "2024-02-29 10:00:00", "date"},
+            {"DATETIME", "2024-02-29", null},
+            {"DATETIME", "2024-02-29 10:15:30", null},
+            {"TIMESTAMP", "2024-02-29T10:15:30.123", null},
+            {"TIMESTAMP", "2024/02/29 10:15", "date"},
+            {"TIME", "23:59:59", null},
+            {"TIME", "24:00:00", "date"},
+        };
+        for (String[] c : cases) {
+            ColumnMetadata col = column("d", c[0], 0, 0, true);
+            assertEquals(c[2], reason(col, c[1]), c[0] + " " + c[1]);
+            // 通过校验的值写入列缓冲区时不会退化为原始文本，未通过的则会
+            ColumnVector vector = ColumnVector.forColumn(col, 1);
+            vector.setText(0, c[1]);
+            assertEquals(c[2] == null, vector.rawText(0) == null, c[0] + " " + c[1]);
+        }
+    }
+
+    @Test
+    void toCsvQuotesValuesWithCommas() {
+        assertEquals("1,\"a,b\",", RowValidator.toCsv(new String[]{"1", "a,b", null}));
+    }
+}
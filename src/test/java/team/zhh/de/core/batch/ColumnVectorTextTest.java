@@ -0,0 +1,97 @@
+package team.zhh.de.core.batch;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnVectorTextTest {
+
+    private static ColumnMetadata column(String type, int size, int scale) {
+        return new ColumnMetadata("c", type, size, scale, false, false, true, null);
+    }
+
+    private static String text(ColumnVector vector, int row) {
+        StringBuilder out = new StringBuilder();
+        vector.appendText(out, row);
+        return out.toString();
+    }
+
+    @Test
+    void decimalTextKeepsScale() {
+        DecimalVector vector = (DecimalVector) ColumnVector.forColumn(column("DECIMAL", 10, 2), 8);
+        vector.setText(0, "12.345");
+        vector.setText(1, "-0.05");
+        vector.setText(2, "7");
+        vector.setUnscaled(3, 5);
+        vector.setUnscaled(4, Long.MIN_VALUE);
+
+        assertEquals("12.35", text(vector, 0));
+        assertEquals("-0.05", text(vector, 1));
+        assertEquals("7.00", text(vector, 2));
+        assertEquals("0.05", text(vector, 3));
+        assertEquals("-92233720368547758.08", text(vector, 4));
+    }
+
+    @Test
+    void decimalWithoutScaleIsInteger() {
+        DecimalVector vector = (DecimalVector) ColumnVector.forColumn(column("NUMERIC", 10, 0), 1);
+        vector.setText(0, "41.5");
+        assertEquals("42", text(vector, 0));
+    }
+
+    @Test
+    void decimalBeyondLongKeepsOverflowValue() {
+        DecimalVector vector = (DecimalVector) ColumnVector.forColumn(column("NUMERIC", 30, 4), 1);
+        vector.setText(0, "123456789012345678.5");
+
+        assertNotNull(vector.getOverflow(0));
+        assertEquals(new BigDecimal("123456789012345678.5000"), vector.getOverflow(0));
+        assertEquals("123456789012345678.5000", text(vector, 0));
+    }
+
+    @Test
+    void dateTextIsIsoForWholeRange() {
+        DateVector vector = (DateVector) ColumnVector.forColumn(column("DATE", 0, 0), 4);
+        vector.setText(0, "2024-02-29");
+        vector.setText(1, "1969-12-31");
+        vector.set(2, 0);
+        vector.setText(3, "0999-03-01");
+
+        assertEquals("2024-02-29", text(vector, 0));
+        assertEquals(-1, vector.get(1));
+        assertEquals("1969-12-31", text(vector, 1));
+        assertEquals("1970-01-01", text(vector, 2));
+        assertEquals("0999-03-01", text(vector, 3));
+    }
+
+    @Test
+    void unparsableTextIsKeptRaw() {
+        ColumnVector vector = ColumnVector.forColumn(column("DATE", 0, 0), 2);
+        vector.setText(0, "soon");
+        vector.setText(1, "  ");
+
+        assertEquals("soon", vector.rawText(0));
+        assertEquals("soon", text(vector, 0));
+        assertTrue(vector.needsEscape(0));
+        assertTrue(vector.isNull(1));
+        assertNull(vector.rawText(1));
+    }
+
+    @Test
+    void resetClearsNullsAndRawText() {
+        ColumnVector vector = ColumnVector.forColumn(column("INT", 10, 0), 2);
+        vector.setNull(0);
+        vector.setText(1, "x");
+        vector.reset();
+
+        assertFalse(vector.isNull(0), "reset 后不应保留空值标记");
+        assertNull(vector.rawText(1));
+    }
+}
@@ -0,0 +1,52 @@
+package team.zhh.de.core.batch;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimestampVectorTest {
+
+    private static String roundTrip(String type, String text) {
+        ColumnVector vector = ColumnVector.forColumn(new ColumnMetadata("t", type, 0, 0, false, false, true, null), 1);
+        vector.setText(0, text);
+        assertNull(vector.rawText(0), type + " " + text);
+        StringBuilder out = new StringBuilder();
+        vector.appendText(out, 0);
+        return out.toString();
+    }
+
+    @Test
+    void timestampTypesUseTimestampVector() {
+        for (String type : new String[]{"DATETIME", "TIMESTAMP", "timestamptz", "TIME"}) {
+            ColumnMetadata column = new ColumnMetadata("t", type, 0, 0, false, false, true, null);
+            assertTrue(ColumnVector.forColumn(column, 1) instanceof TimestampVector, type);
+        }
+        ColumnMetadata date = new ColumnMetadata("d", "DATE", 0, 0, false, false, true, null);
+        assertTrue(ColumnVector.forColumn(date, 1) instanceof DateVector);
+    }
+
+    @Test
+    void writesTimestampsAsText() {
+        assertEquals("2024-02-29 10:15:30", roundTrip("TIMESTAMP", "2024-02-29T10:15:30"));
+        assertEquals("2024-02-29 00:00:00", roundTrip("DATETIME", "2024-02-29"));
+        assertEquals("1969-12-31 23:59:59.500000", roundTrip("TIMESTAMP", "1969-12-31 23:59:59.5"));
+        assertEquals("0099-01-01 08:00:00.000123", roundTrip("TIMESTAMP", "0099-01-01 08:00:00.000123"));
+    }
+
+    @Test
+    void writesTimeOfDayAsText() {
+        assertEquals("00:00:00", roundTrip("TIME", "00:00"));
+        assertEquals("23:59:59.250000", roundTrip("TIME", "23:59:59.25"));
+    }
+
+    @Test
+    void parsesToEpochMicros() {
+        assertEquals(0, TimestampVector.parseMicros("1970-01-01", false));
+        assertEquals(TimestampVector.MICROS_PER_DAY + 1_000_000, TimestampVector.parseMicros("1970-01-02 00:00:01", false));
+        assertEquals(-500_000, TimestampVector.parseMicros("1969-12-31T23:59:59.5", false));
+        assertEquals(3_600_000_000L, TimestampVector.parseMicros("01:00", true));
+    }
+}
@@ -0,0 +1,97 @@
+package team.zhh.de.core.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncodedDatasetTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsRowsThroughFile() throws IOException {
+        EncodedDataset dataset = new EncodedDataset(3);
+        dataset.add(new String[]{"1", "北京", "active"});
+        dataset.add(new String[]{"2", "上海", null});
+        dataset.add(new String[]{"3", "北京"});
+        Path file = dir.resolve("rows.ds");
+        dataset.write(file);
+
+        assertEquals(3, EncodedDataset.readSize(file));
+        EncodedDataset read = EncodedDataset.read(file);
+        assertEquals(3, read.size());
+        assertEquals(3, read.columnCount());
+        assertArrayEquals(new String[]{"1", "北京", "active"}, read.row(0));
+        // 空值与缺少的列都按空串保存
+        assertArrayEquals(new String[]{"2", "上海", ""}, read.row(1));
+        assertArrayEquals(new String[]{"3", "北京", ""}, read.row(2));
+    }
+
+    @Test
+    void growsPastInitialCapacity() throws IOException {
+        EncodedDataset dataset = new EncodedDataset(2);
+        for (int i = 0; i < 5000; i++) {
+            dataset.add(new String[]{Integer.toString(i), i % 2 == 0 ? "even" : "odd"});
+        }
+        Path file = dir.resolve("large.ds");
+        dataset.write(file);
+
+        EncodedDataset read = EncodedDataset.read(file);
+        assertEquals(5000, read.size());
+        assertArrayEquals(new String[]{"4999", "odd"}, read.row(4999));
+    }
+
+    @Test
+    void storesRepeatedValuesOnce() throws IOException {
+        EncodedDataset dataset = new EncodedDataset(1);
+        String city = "a city name long enough to dominate the file size";
+        for (int i = 0; i < 1000; i++) {
+            dataset.add(new String[]{city});
+        }
+        Path file = dir.resolve("repeated.ds");
+        dataset.write(file);
+
+        assertTrue(Files.size(file) < city.length() + 1100, "重复取值应只保存一次");
+    }
+
+    @Test
+    void rowReturnsCopy() {
+        EncodedDataset dataset = new EncodedDataset(1);
+        dataset.add(new String[]{"x"});
+        dataset.row(0)[0] = "changed";
+
+        assertEquals("x", dataset.row(0)[0]);
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path file = dir.resolve("bad.ds");
+        Files.writeString(file, "not a dataset file");
+
+        assertThrows(IOException.class, () -> EncodedDataset.readSize(file));
+        assertThrows(IOException.class, () -> EncodedDataset.read(file));
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        EncodedDataset dataset = new EncodedDataset(2);
+        dataset.add(new String[]{"1", "a"});
+        dataset.add(new String[]{"2", "b"});
+        Path file = dir.resolve("truncated.ds");
+        dataset.write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertThrows(IOException.class, () -> EncodedDataset.read(file));
+    }
+}
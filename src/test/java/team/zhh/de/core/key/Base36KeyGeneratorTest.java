@@ -0,0 +1,72 @@
+package team.zhh.de.core.key;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Base36KeyGeneratorTest {
+
+    @Test
+    void encodesFixedWidth() {
+        assertEquals("0000", Base36KeyGenerator.encode(0, 4));
+        assertEquals("000Z", Base36KeyGenerator.encode(35, 4));
+        assertEquals("0010", Base36KeyGenerator.encode(36, 4));
+        assertEquals("ZZZZ", Base36KeyGenerator.encode(36L * 36 * 36 * 36 - 1, 4));
+        // 超出宽度时只保留低位
+        assertEquals("00", Base36KeyGenerator.encode(36 * 36, 2));
+    }
+
+    @Test
+    void encodesAsUnsigned() {
+        assertEquals(Long.toUnsignedString(-1L, 36).toUpperCase(), Base36KeyGenerator.encode(-1L, 13));
+        assertEquals("1Y2P0IJ32E8E8", Base36KeyGenerator.encode(Long.MIN_VALUE, 13));
+    }
+
+    @Test
+    void roundTrips() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 1000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE);
+            assertEquals(value, Base36KeyGenerator.decode(Base36KeyGenerator.encode(value, 13), 13));
+        }
+        assertEquals(Long.MAX_VALUE, Base36KeyGenerator.decode(Base36KeyGenerator.encode(Long.MAX_VALUE, 13), 13));
+        assertEquals(0, Base36KeyGenerator.decode("000", 3));
+    }
+
+    @Test
+    void decodeRejectsForeignFormats() {
+        assertEquals(-1, Base36KeyGenerator.decode(null, 4));
+        assertEquals(-1, Base36KeyGenerator.decode("ABC", 4));
+        assertEquals(-1, Base36KeyGenerator.decode("00ab", 4));
+        assertEquals(-1, Base36KeyGenerator.decode("00-1", 4));
+        // 超过 Long.MAX_VALUE 的值不是生成器产生的
+        assertEquals(-1, Base36KeyGenerator.decode("ZZZZZZZZZZZZZ", 13));
+        assertEquals(-1, Base36KeyGenerator.decode(Base36KeyGenerator.encode(Long.MIN_VALUE, 13), 13));
+    }
+
+    @Test
+    void digitsForUsesUnsignedValue() {
+        assertEquals(1, Base36KeyGenerator.digitsFor(0));
+        assertEquals(1, Base36KeyGenerator.digitsFor(35));
+        assertEquals(2, Base36KeyGenerator.digitsFor(36));
+        assertEquals(2, Base36KeyGenerator.digitsFor(36 * 36 - 1));
+        assertEquals(3, Base36KeyGenerator.digitsFor(36 * 36));
+        assertEquals(13, Base36KeyGenerator.digitsFor(Long.MAX_VALUE));
+        assertEquals(13, Base36KeyGenerator.digitsFor(-1L));
+    }
+
+    @Test
+    void fixedWidthOrderMatchesNumericOrder() {
+        Base36KeyGenerator generator = new Base36KeyGenerator(1000, 6);
+        String previous = generator.text(0);
+        for (long row = 1; row < 50_000; row++) {
+            String current = generator.text(row);
+            assertTrue(previous.compareTo(current) < 0, previous + " >= " + current);
+            previous = current;
+        }
+        assertEquals(1000 + 49_999, Base36KeyGenerator.decode(previous, 6));
+    }
+}
@@ -0,0 +1,78 @@
+package team.zhh.de.core.key;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeyGeneratorsTest {
+
+    private static ColumnMetadata column(String type, int size, int scale) {
+        return new ColumnMetadata("id", type, size, scale, true, false, false, null);
+    }
+
+    // startAboveMax=false 时不查询数据库
+    private static KeyGenerator create(ColumnMetadata column, long rows) throws SQLException {
+        return KeyGenerators.create(null, "t", "id", column, rows, false);
+    }
+
+    @Test
+    void integerLimits() {
+        assertEquals(Byte.MAX_VALUE, KeyGenerators.maxValue(column("TINYINT", 3, 0)));
+        assertEquals(Short.MAX_VALUE, KeyGenerators.maxValue(column("int2", 5, 0)));
+        assertEquals(Integer.MAX_VALUE, KeyGenerators.maxValue(column("INT", 10, 0)));
+        assertEquals(Long.MAX_VALUE, KeyGenerators.maxValue(column("BIGINT", 19, 0)));
+    }
+
+    @Test
+    void decimalLimitFollowsIntegerDigits() {
+        assertEquals(999, KeyGenerators.maxValue(column("DECIMAL", 5, 2)));
+        assertEquals(999_999_999_999_999_999L, KeyGenerators.maxValue(column("NUMERIC", 18, 0)));
+        assertEquals(Long.MAX_VALUE, KeyGenerators.maxValue(column("NUMERIC", 19, 0)));
+        // 没有整数部分
+        assertEquals(0, KeyGenerators.maxValue(column("DECIMAL", 2, 2)));
+        // 未声明精度
+        assertEquals(Long.MAX_VALUE, KeyGenerators.maxValue(column("NUMERIC", 0, 0)));
+    }
+
+    @Test
+    void integerRangeCheckedAgainstRowCount() throws SQLException {
+        SequenceKeyGenerator generator = (SequenceKeyGenerator) create(column("TINYINT", 3, 0), 127);
+        assertEquals(1, generator.getStart());
+        assertEquals("127", generator.text(126));
+        assertThrows(IllegalStateException.class, () -> create(column("TINYINT", 3, 0), 128));
+        assertThrows(IllegalStateException.class, () -> create(column("DECIMAL", 5, 2), 1000));
+        assertThrows(IllegalStateException.class, () -> create(column("DECIMAL", 2, 2), 1));
+        // 1..Long.MAX_VALUE 恰好放得下，检查本身不溢出
+        assertInstanceOf(SequenceKeyGenerator.class, create(column("BIGINT", 19, 0), Long.MAX_VALUE));
+    }
+
+    @Test
+    void base36WidthCheckedAgainstLastKey() throws SQLException {
+        // 宽度2可容纳 0..36*36-1
+        Base36KeyGenerator generator = (Base36KeyGenerator) create(column("VARCHAR", 2, 0), 36 * 36);
+        assertEquals("ZZ", generator.text(36 * 36 - 1));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> create(column("VARCHAR", 2, 0), 36 * 36 + 1));
+        assertEquals("列 id 的长度 2 不足以生成 1297 个不重复的值", e.getMessage());
+        // 宽度上限13位足以容纳任意非负 long
+        assertInstanceOf(Base36KeyGenerator.class, create(column("VARCHAR", 20, 0), Long.MAX_VALUE));
+    }
+
+    @Test
+    void longStringAndUuidColumnsUseUuid() throws SQLException {
+        assertInstanceOf(UuidKeyGenerator.class, create(column("VARCHAR", 36, 0), 10));
+        assertInstanceOf(UuidKeyGenerator.class, create(column("uuid", 0, 0), 10));
+        assertInstanceOf(UuidKeyGenerator.class, create(column("CHAR", 64, 0), UuidKeyGenerator.MAX_ROWS));
+        assertThrows(IllegalStateException.class, () -> create(column("CHAR", 64, 0), UuidKeyGenerator.MAX_ROWS + 1));
+    }
+
+    @Test
+    void unsupportedTypesReturnNull() throws SQLException {
+        assertNull(create(column("DATE", 0, 0), 10));
+    }
+}
@@ -0,0 +1,66 @@
+package team.zhh.de.core.key;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidKeyGeneratorTest {
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    @Test
+    void hasVersion7LayoutAndVariant() {
+        UuidKeyGenerator generator = new UuidKeyGenerator(TIMESTAMP, -1L);
+        for (long row : new long[]{0, 1, 12345, UuidKeyGenerator.MAX_ROWS - 1}) {
+            UUID uuid = UUID.fromString(generator.text(row));
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertEquals(TIMESTAMP, uuid.getMostSignificantBits() >>> 16);
+            assertEquals(row, uuid.getLeastSignificantBits() & (UuidKeyGenerator.MAX_ROWS - 1));
+        }
+    }
+
+    @Test
+    void saltDoesNotLeakIntoVersionOrVariant() {
+        for (long salt : new long[]{0, -1L, 0x5555555555555555L, 0xAAAAAAAAAAAAAAAAL}) {
+            UUID uuid = UUID.fromString(new UuidKeyGenerator(TIMESTAMP, salt).text(0));
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+        }
+    }
+
+    @Test
+    void rowsAreDistinctAndOrdered() {
+        UuidKeyGenerator generator = new UuidKeyGenerator(TIMESTAMP, 42);
+        Set<String> seen = new HashSet<>();
+        String previous = null;
+        for (long row = 0; row < 10_000; row++) {
+            String text = generator.text(row);
+            assertTrue(seen.add(text));
+            if (previous != null) {
+                assertTrue(previous.compareTo(text) < 0);
+            }
+            previous = text;
+        }
+    }
+
+    @Test
+    void rowFieldWrapsAfter40Bits() {
+        UuidKeyGenerator generator = new UuidKeyGenerator(TIMESTAMP, 42);
+        // 行号只占40位，超过后与低位相同的行号重复，因此 KeyGenerators 限制了单次行数
+        assertEquals(generator.text(0), generator.text(UuidKeyGenerator.MAX_ROWS));
+        assertEquals(generator.text(5), generator.text(UuidKeyGenerator.MAX_ROWS + 5));
+        assertNotEquals(generator.text(UuidKeyGenerator.MAX_ROWS - 1), generator.text(UuidKeyGenerator.MAX_ROWS));
+    }
+
+    @Test
+    void differentJobsDoNotCollide() {
+        assertNotEquals(new UuidKeyGenerator(TIMESTAMP, 1).text(0), new UuidKeyGenerator(TIMESTAMP, 2).text(0));
+        assertNotEquals(new UuidKeyGenerator(TIMESTAMP, 1).text(0), new UuidKeyGenerator(TIMESTAMP + 1, 1).text(0));
+    }
+}
@@ -0,0 +1,117 @@
+package team.zhh.de.core.sink;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.dialect.SqlDialect;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JdbcBatchSinkTest {
+    private static final List<ColumnMetadata> COLUMNS = List.of(
+        new ColumnMetadata("a", "VARCHAR", 20, 0, false, false, true, null),
+        new ColumnMetadata("b", "VARCHAR", 20, 0, false, false, true, null),
+        new ColumnMetadata("c", "VARCHAR", 20, 0, false, false, true, null));
+    // SQL Server 每条语句最多 2098 个参数，3 列时每条 699 行
+    private static final SqlDialect SQLSERVER = SqlDialect.forUrl("jdbc:sqlserver://localhost:1433;databaseName=test");
+
+    /**
+     * 记录准备过的语句（按 VALUES 行数）、关闭的语句数和写入的行数
+     */
+    private static final class FakeDatabase {
+        final List<Integer> prepared = new ArrayList<>();
+        int closedStatements;
+        int insertedRows;
+
+        DataSource dataSource() {
+            Connection conn = proxy(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> statement(rowsOf((String) args[0]));
+                default -> null;
+            });
+            return proxy(DataSource.class, (method, args) -> "getConnection".equals(method) ? conn : null);
+        }
+
+        private PreparedStatement statement(int rows) {
+            prepared.add(rows);
+            int[] batched = new int[1];
+            return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+                case "addBatch" -> {
+                    batched[0]++;
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    insertedRows += batched[0] * rows;
+                    batched[0] = 0;
+                    yield new int[0];
+                }
+                case "executeUpdate" -> {
+                    insertedRows += rows;
+                    yield rows;
+                }
+                case "close" -> {
+                    closedStatements++;
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        private static int rowsOf(String sql) {
+            return sql.split("\\(\\?", -1).length - 1;
+        }
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+            (p, method, args) -> {
+                Object result = handler.invoke(method.getName(), args);
+                if (result == null && method.getReturnType() == boolean.class) {
+                    return false;
+                }
+                if (result == null && method.getReturnType() == int.class) {
+                    return 0;
+                }
+                return result;
+            });
+    }
+
+    private static FakeDatabase write(int batchSize, int rows) throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        JdbcBatchSink sink = new JdbcBatchSink(db.dataSource(), SQLSERVER, "[t]", COLUMNS, batchSize, 2);
+        for (int i = 0; i < rows; i++) {
+            sink.accept(new String[]{"a" + i, "b", "c"});
+        }
+        sink.close();
+        return db;
+    }
+
+    @Test
+    void tailStatementIsReusedAcrossFullBatches() throws Exception {
+        // 每个满批次 699 + 301 行，最后一个批次 500 行
+        FakeDatabase db = write(1000, 3500);
+
+        assertEquals(List.of(699, 301, 500), db.prepared);
+        assertEquals(3500, db.insertedRows);
+        assertEquals(3, db.closedStatements);
+    }
+
+    @Test
+    void evenBatchesNeedNoTail() throws Exception {
+        FakeDatabase db = write(699, 699 * 3);
+
+        assertEquals(List.of(699), db.prepared);
+        assertEquals(699 * 3, db.insertedRows);
+        assertEquals(1, db.closedStatements);
+    }
+}
@@ -0,0 +1,119 @@
+package team.zhh.de.core.sink;
+
+import org.junit.jupiter.api.Test;
+import team.zhh.base.model.ColumnMetadata;
+import team.zhh.de.core.RowSink;
+import team.zhh.de.core.batch.RowBatch;
+import team.zhh.de.core.key.Base36KeyGenerator;
+import team.zhh.de.core.key.KeyGenerator;
+import team.zhh.de.core.key.SequenceKeyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeyAssigningSinkTest {
+    private static final List<ColumnMetadata> COLUMNS = List.of(
+        new ColumnMetadata("id", "BIGINT", 19, 0, true, false, false, null),
+        new ColumnMetadata("name", "VARCHAR", 20, 0, false, false, true, null),
+        new ColumnMetadata("code", "VARCHAR", 4, 0, false, false, false, null));
+    private static final int BATCH_SIZE = 3;
+
+    /**
+     * 记录写入的每行文本
+     */
+    private static final class RecordingSink implements RowSink {
+        final List<List<String>> rows = new ArrayList<>();
+        private final RowBatch batch = new RowBatch(COLUMNS, BATCH_SIZE);
+
+        @Override
+        public void accept(String[] row) {
+            rows.add(List.of(row));
+        }
+
+        @Override
+        public RowBatch newBatch() {
+            batch.reset();
+            return batch;
+        }
+
+        @Override
+        public void accept(RowBatch batch) {
+            for (int row = 0; row < batch.size(); row++) {
+                List<String> values = new ArrayList<>();
+                for (int column = 0; column < batch.columnCount(); column++) {
+                    StringBuilder out = new StringBuilder();
+                    batch.vector(column).appendText(out, row);
+                    values.add(out.toString());
+                }
+                rows.add(values);
+            }
+        }
+    }
+
+    private static KeyAssigningSink sink(RecordingSink delegate, long firstRowNumber) {
+        return new KeyAssigningSink(delegate, new int[]{0, 2},
+            new KeyGenerator[]{new SequenceKeyGenerator(100), new Base36KeyGenerator(0, 4)}, firstRowNumber);
+    }
+
+    // 按批次推送 rows 行，每行的 id/code 先填入会被覆盖的值
+    private static void pushBatches(KeyAssigningSink sink, int rows) throws Exception {
+        int pushed = 0;
+        while (pushed < rows) {
+            RowBatch batch = sink.newBatch();
+            while (!batch.isFull() && pushed < rows) {
+                batch.setText(batch.nextRow(), new String[]{"-1", "n" + pushed, "XXXX"});
+                pushed++;
+            }
+            sink.accept(batch);
+        }
+    }
+
+    @Test
+    void rowNumbersContinueAcrossBatches() throws Exception {
+        RecordingSink delegate = new RecordingSink();
+        pushBatches(sink(delegate, 0), 7);
+
+        assertEquals(7, delegate.rows.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(List.of(Long.toString(100 + i), "n" + i, new Base36KeyGenerator(0, 4).text(i)), delegate.rows.get(i));
+        }
+    }
+
+    @Test
+    void partitionsCoverDisjointContiguousRanges() throws Exception {
+        // 三个分区的起始行号为前面分区行数之和，拼起来恰好是 0..rows-1
+        int[] partitionRows = {4, 5, 2};
+        List<String> keys = new ArrayList<>();
+        long firstRowNumber = 0;
+        for (int rows : partitionRows) {
+            RecordingSink delegate = new RecordingSink();
+            pushBatches(sink(delegate, firstRowNumber), rows);
+            delegate.rows.forEach(row -> keys.add(row.get(0)));
+            firstRowNumber += rows;
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            expected.add(Long.toString(100 + i));
+        }
+        assertEquals(expected, keys);
+    }
+
+    @Test
+    void textRowsShareRowNumbersWithBatches() throws Exception {
+        RecordingSink delegate = new RecordingSink();
+        KeyAssigningSink sink = sink(delegate, 10);
+        sink.accept(new String[]{"x", "a", "x"});
+        pushBatches(sink, 2);
+        // 列数不足时只覆盖存在的列
+        sink.accept(new String[]{"x", "b"});
+
+        assertEquals(List.of("110", "a", "000A"), delegate.rows.get(0));
+        assertEquals("111", delegate.rows.get(1).get(0));
+        assertEquals("000B", delegate.rows.get(1).get(2));
+        assertEquals("112", delegate.rows.get(2).get(0));
+        assertEquals(List.of("113", "b"), delegate.rows.get(3));
+    }
+}
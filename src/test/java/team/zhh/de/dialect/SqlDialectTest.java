@@ -0,0 +1,69 @@
+package team.zhh.de.dialect;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlDialectTest {
+    private static final SqlDialect MYSQL = SqlDialect.forUrl("jdbc:mysql://localhost:3306/test");
+    private static final SqlDialect POSTGRESQL = SqlDialect.forUrl("jdbc:postgresql://localhost:5432/test");
+    private static final SqlDialect ORACLE = SqlDialect.forUrl("jdbc:oracle:thin:@localhost:1521:xe");
+    private static final SqlDialect SQLSERVER = SqlDialect.forUrl("jdbc:sqlserver://localhost:1433;databaseName=test");
+
+    @Test
+    void detectsDialectFromUrl() {
+        assertSame(MySqlDialect.INSTANCE, MYSQL);
+        assertSame(PostgreSqlDialect.INSTANCE, POSTGRESQL);
+        assertSame(OracleDialect.INSTANCE, ORACLE);
+        assertSame(SqlServerDialect.INSTANCE, SQLSERVER);
+        assertThrows(IllegalArgumentException.class, () -> SqlDialect.forUrl("jdbc:h2:mem:test"));
+    }
+
+    @Test
+    void singleRowStatementsWhenDriverBatchesRows() {
+        assertEquals(1, MYSQL.rowsPerStatement(10, 5000));
+        assertEquals(1, ORACLE.rowsPerStatement(10, 5000));
+    }
+
+    @Test
+    void postgresqlRowsLimitedByBindParameters() {
+        assertEquals(1000, POSTGRESQL.rowsPerStatement(10, 1000));
+        assertEquals(32767 / 10, POSTGRESQL.rowsPerStatement(10, 5000));
+        // 每条语句的参数个数不超过 int16 上限
+        for (int columns = 1; columns <= 300; columns++) {
+            int rows = POSTGRESQL.rowsPerStatement(columns, 100_000);
+            assertTrue(rows * columns <= 32767, columns + " columns");
+        }
+        // 列数超过参数上限时至少一行
+        assertEquals(1, POSTGRESQL.rowsPerStatement(40_000, 5000));
+    }
+
+    @Test
+    void sqlServerRowsLimitedByParametersAndValuesRows() {
+        assertEquals(2098 / 3, SQLSERVER.rowsPerStatement(3, 5000));
+        // 表值构造函数最多 1000 行
+        assertEquals(1000, SQLSERVER.rowsPerStatement(2, 5000));
+        assertEquals(500, SQLSERVER.rowsPerStatement(2, 500));
+    }
+
+    @Test
+    void zeroColumnsOrBatchStillYieldsOneRow() {
+        assertEquals(1, POSTGRESQL.rowsPerStatement(0, 0));
+    }
+
+    @Test
+    void buildsMultiRowInsert() {
+        assertEquals("INSERT INTO t (a, b) VALUES (?, ?), (?, ?), (?, ?)", POSTGRESQL.insertSql("t", "a, b", 2, 3));
+        assertEquals("INSERT INTO t (a) VALUES (?)", MYSQL.insertSql("t", "a", 1, 1));
+    }
+
+    @Test
+    void quotesIdentifiersAndDoublesClosingQuote() {
+        assertEquals("`my``col`", MYSQL.quote("my`col"));
+        assertEquals("\"Order\"\"s\"", POSTGRESQL.quote("Order\"s"));
+        assertEquals("[a]]b]", SQLSERVER.quote("a]b"));
+    }
+}
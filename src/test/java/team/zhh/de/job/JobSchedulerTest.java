@@ -0,0 +1,175 @@
+package team.zhh.de.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import team.zhh.base.model.GenerationRequest;
+import team.zhh.de.core.WorkerBudget;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobSchedulerTest {
+    private JobScheduler scheduler;
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    private void start(int maxConcurrent, int queueCapacity, int maxWorkers) {
+        scheduler = new JobScheduler();
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(scheduler, "maxWorkersConfig", maxWorkers);
+        ReflectionTestUtils.setField(scheduler, "targetConnectionsConfig", 0);
+        ReflectionTestUtils.setField(scheduler, "poolMaxSize", 20);
+        ReflectionTestUtils.setField(scheduler, "heapFraction", 0.5);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.destroy();
+        }
+    }
+
+    private static GenerationJob job(String id, String submitter, int priority) {
+        return new GenerationJob(id, GenerationRequest.builder()
+            .url("jdbc:mysql://localhost:3306/test").username("root").tableName("t").rows(1)
+            .submitter(submitter).priority(priority).build());
+    }
+
+    private void submit(GenerationJob job, CountDownLatch gate, CountDownLatch done) {
+        scheduler.submit(job, budget -> {
+            started.add(job.getId());
+            try {
+                if (gate != null) {
+                    gate.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        });
+    }
+
+    @Test
+    void higherPriorityRunsFirst() throws InterruptedException {
+        start(1, 16, 4);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        submit(job("blocker", "alice", 0), gate, done);
+        submit(job("low", "bob", 0), null, done);
+        submit(job("high", "carol", 5), null, done);
+        gate.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("blocker", "high", "low"), started);
+    }
+
+    @Test
+    void submitterWithFewerRunningJobsGoesFirst() throws InterruptedException {
+        start(2, 16, 4);
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        submit(job("alice-1", "alice", 0), first, done);
+        submit(job("alice-2", "alice", 0), second, done);
+        // alice 已有两个任务在执行，后提交的 bob 先于 alice 的第三个任务
+        submit(job("alice-3", "alice", 0), null, done);
+        submit(job("bob-1", "bob", 0), null, done);
+        second.countDown();
+        // alice-1 结束前，bob-1 与 alice-3 都已开始
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (started.size() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        first.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("bob-1", "alice-3"), started.subList(2, 4));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        start(1, 1, 4);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        submit(job("running", "alice", 0), gate, done);
+        submit(job("queued", "alice", 0), null, done);
+
+        assertThrows(IllegalStateException.class, () -> submit(job("rejected", "alice", 0), null, done));
+        gate.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void busyJobYieldsDownToFairShare() throws InterruptedException {
+        start(2, 16, 4);
+        CountDownLatch aHolding = new CountDownLatch(1);
+        CountDownLatch aReleased = new CountDownLatch(1);
+        CountDownLatch bDone = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicInteger yields = new AtomicInteger();
+        AtomicInteger bHeld = new AtomicInteger();
+
+        scheduler.submit(job("a", "alice", 0), budget -> {
+            try (WorkerBudget.Lease lease = budget.lease(4, false, 0)) {
+                if (lease.acquire(4) == 4) {
+                    aHolding.countDown();
+                }
+                // b 开始等待后公平份额降为 2，a 逐个让出，直到剩下 2 个
+                while (!lease.shouldYield()) {
+                    Thread.sleep(1);
+                }
+                yields.incrementAndGet();
+                while (lease.shouldYield()) {
+                    yields.incrementAndGet();
+                }
+                lease.release();
+                lease.release();
+                aReleased.countDown();
+                bDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        });
+        assertTrue(aHolding.await(5, TimeUnit.SECONDS));
+
+        scheduler.submit(job("b", "bob", 0), budget -> {
+            try (WorkerBudget.Lease lease = budget.lease(4, false, 0)) {
+                int held = lease.tryAcquire(1);
+                held += lease.acquire(4);
+                aReleased.await();
+                held += lease.tryAcquire(4);
+                bHeld.set(held);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                bDone.countDown();
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, yields.get());
+        // a 仍持有 2 个，b 只能拿到剩下的 2 个
+        assertEquals(2, bHeld.get());
+    }
+
+    @Test
+    void targetIgnoresUrlParameters() {
+        assertEquals("jdbc:mysql://db:3306/app", JobScheduler.target("jdbc:mysql://db:3306/app?useSSL=false"));
+        assertEquals("jdbc:sqlserver://db:1433", JobScheduler.target("jdbc:sqlserver://db:1433;databaseName=app"));
+        assertEquals("", JobScheduler.target(null));
+    }
+}